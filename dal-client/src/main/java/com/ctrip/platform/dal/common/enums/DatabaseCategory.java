@@ -10,6 +10,7 @@ import com.ctrip.platform.dal.dao.StatementParameter;
 import com.ctrip.platform.dal.dao.markdown.ErrorContext;
 import com.microsoft.sqlserver.jdbc.SQLServerCallableStatement;
 import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
+import com.microsoft.sqlserver.jdbc.SQLServerPreparedStatement;
 import com.mysql.jdbc.exceptions.MySQLTimeoutException;
 
 public enum DatabaseCategory {
@@ -75,6 +76,15 @@ public enum DatabaseCategory {
 			return String.format(selectSqlTemplate + " OFFSET %d ROWS FETCH NEXT %d ROWS ONLY", start, count);
 		}
 
+	    public void setObject(PreparedStatement statement, StatementParameter parameter) throws SQLException{
+	        if(parameter.getValue() != null && parameter.getSqlType() == SQL_SERVER_TYPE_TVP){
+	            SQLServerPreparedStatement sqlsvrStatement = statement.unwrap(SQLServerPreparedStatement.class);
+	            sqlsvrStatement.setStructured(parameter.getIndex(), parameter.getName(), (SQLServerDataTable)parameter.getValue());
+	        }else{
+	            super.setObject(statement, parameter);
+	        }
+	    }
+
 	    public void setObject(CallableStatement statement, StatementParameter parameter) throws SQLException{
 	        if(parameter.getValue() != null && parameter.getSqlType() == SQL_SERVER_TYPE_TVP){
 	            SQLServerCallableStatement sqlsvrStatement = (SQLServerCallableStatement)statement;
@@ -130,6 +140,8 @@ public enum DatabaseCategory {
 	public static final String ORACLE_PROVIDER = "oracleProvider";
 	
 	public static final int SQL_SERVER_TYPE_TVP = -1000;
+	
+	public static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
 
 	public static DatabaseCategory matchWith(String provider) {
 		if(provider == null || provider.trim().length() == 0)
@@ -205,6 +217,19 @@ public enum DatabaseCategory {
 		}
 	}
 
+	/**
+	 * Fetch size that makes the driver stream the result set instead of loading all the rows.
+	 * MySql driver only streams when fetch size is Integer.MIN_VALUE.
+	 */
+	public int getStreamingFetchSize() {
+		switch (this) {
+		case MySql:
+			return Integer.MIN_VALUE;
+		default:
+			return DEFAULT_STREAMING_FETCH_SIZE;
+		}
+	}
+
 	public abstract boolean isTimeOutException(ErrorContext ctx);
 	
 	public abstract String quote(String fieldName);
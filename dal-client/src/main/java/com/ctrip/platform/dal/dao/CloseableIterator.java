@@ -0,0 +1,15 @@
+package com.ctrip.platform.dal.dao;
+
+import java.util.Iterator;
+
+/**
+ * Iterator over rows that are fetched on demand. The underlying result sets and
+ * connections are held until all the rows are fetched or the iterator is closed.
+ * Always close it, e.g. by try-with-resources.
+ * 
+ * @author jhhe
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+	@Override
+	void close();
+}
@@ -76,7 +76,7 @@ public class DalClientFactory {
             }
 
             DalWatcher.init();
-            DalRequestExecutor.init(config.getFacory().getProperty(DalRequestExecutor.MAX_POOL_SIZE));
+            DalRequestExecutor.init(config);
             DalStatusManager.initialize(config);
 
             configureRef.set(config);
@@ -0,0 +1,161 @@
+package com.ctrip.platform.dal.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of DAO method executed asynchronously by DalRequestExecutor.
+ *
+ * Besides waiting on it like any Future, callbacks can be added to get the result without
+ * blocking the caller. Callbacks added before completion are called in the DAL executor thread
+ * that completes the request, callbacks added after completion are called immediately in the
+ * current thread. So callbacks should be short or hand over the result to other executors.
+ *
+ * The DAO method works on a copy of the given hints, which is available by getHints.
+ *
+ * @author jhhe
+ */
+public class DalFuture<T> implements Future<T>, DalResultCallback {
+	private DalHints hints;
+	private Future<?> future;
+	private CountDownLatch done = new CountDownLatch(1);
+	private List<DalResultCallback> callbacks = new ArrayList<>();
+	private volatile T result;
+	private volatile Throwable error;
+	private volatile boolean cancelled;
+
+	/**
+	 * @param hints the callback already in hints will be the first callback of this future
+	 */
+	public DalFuture(DalHints hints) {
+		this.hints = hints.clone();
+
+		DalResultCallback callback = (DalResultCallback)hints.get(DalHintEnum.resultCallback);
+		if(callback != null)
+			callbacks.add(callback);
+
+		this.hints.callbackWith(this);
+	}
+
+	/**
+	 * @return hints to pass to the DAO method
+	 */
+	public DalHints getHints() {
+		return hints;
+	}
+
+	/**
+	 * Bind to the future of the request that is submitted with the hints of this object
+	 */
+	public DalFuture<T> start() {
+		future = hints.getAsyncResult();
+		return this;
+	}
+
+	public DalFuture<T> addCallback(DalResultCallback callback) {
+		synchronized (callbacks) {
+			if(!isDone()) {
+				callbacks.add(callback);
+				return this;
+			}
+		}
+
+		notify(callback);
+		return this;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <K> void onResult(K result) {
+		this.result = (T)result;
+		complete();
+	}
+
+	@Override
+	public void onError(Throwable e) {
+		error = e;
+		complete();
+	}
+
+	private void complete() {
+		List<DalResultCallback> toNotify;
+		synchronized (callbacks) {
+			if(isDone())
+				return;
+
+			done.countDown();
+			toNotify = new ArrayList<>(callbacks);
+			callbacks.clear();
+		}
+
+		for(DalResultCallback callback: toNotify)
+			notify(callback);
+	}
+
+	private void notify(DalResultCallback callback) {
+		try {
+			if(cancelled)
+				callback.onError(new CancellationException());
+			else if(error == null)
+				callback.onResult(result);
+			else
+				callback.onError(error);
+		} catch (Throwable e) {
+			// Error of one callback should not stop the others
+			DalClientFactory.getDalLogger().error("Error when notifying result callback", e);
+		}
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		synchronized (callbacks) {
+			if(isDone() || future == null || !future.cancel(mayInterruptIfRunning))
+				return false;
+
+			// Set before the lock is released, so that completion by the executor thread is seen as cancelled
+			cancelled = true;
+		}
+
+		complete();
+		return true;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return getResult();
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if(!done.await(timeout, unit))
+			throw new TimeoutException();
+		return getResult();
+	}
+
+	private T getResult() throws ExecutionException {
+		if(cancelled)
+			throw new CancellationException();
+
+		if(error != null)
+			throw new ExecutionException(error);
+
+		return result;
+	}
+}
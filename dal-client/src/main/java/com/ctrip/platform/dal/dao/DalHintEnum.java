@@ -93,6 +93,12 @@ public enum DalHintEnum {
 	 */
 	resultSorter,
 	
+	/*
+	 * Indicate the result of each shard is already sorted by resultSorter, so that 
+	 * results can be merged without sorting again 
+	 */
+	shardResultsSorted,
+	
 	/*
 	 * used in batch sp, when set the connection auto commit will be true.
 	 */
@@ -195,6 +201,70 @@ public enum DalHintEnum {
 	 */
 	sequentialExecution,
 	
+	/*
+	 * To execute cross shard request in parallel no matter how fast each shard is. 
+	 * Without this or sequentialExecution, executor decides by observed latency.
+	 */
+	parallelExecution,
+	
+	/**
+	 * Overall timeout in milliseconds of the request. For cross shard request, the shards that 
+	 * can not complete in time will be cancelled. Value should be Long
+	 */
+	requestTimeout,
+	
+	/**
+	 * Delay in milliseconds before the same query is sent to another slave if the first one 
+	 * does not respond. The first result wins and the other is cancelled. Value should be Long
+	 */
+	hedgeDelay,
+	
+	/**
+	 * Concurrent identical queries share one execution. Value should be Boolean
+	 */
+	coalesceRead,
+	
+	/**
+	 * Pad values of in parameters to bucket size so that fewer distinct SQL are generated. Value should be Boolean
+	 */
+	padInParameters,
+	
+	/**
+	 * Split pojos of batch and combined operations into chunks. Value should be BulkTaskChunkPolicy
+	 */
+	chunkPolicy,
+	
+	/**
+	 * Number of chunks that can be executed at the same time. Value should be Integer
+	 */
+	pipelineChunks,
+	
+	/**
+	 * Explanation of the strategy chosen by DAL for the operation. It is set by DAL and put in the log entry. Value is String
+	 */
+	executionPlan,
+	
+	/**
+	 * Name of the SQL Server user defined table type used to send the pojos of batch update and delete
+	 * as one table valued parameter. Value should be String
+	 */
+	tableType,
+	
+	/**
+	 * Batch delete by primary key IN lists instead of one statement per pojo. Value should be Integer, the max number of keys in one IN list
+	 */
+	deleteByInList,
+	
+	/**
+	 * Return the result merged from the shards completed before request timeout instead of failing. 
+	 */
+	partialResult,
+	
+	/**
+	 * The PartialResultStatus of a cross shard request. It is set by DAL after execution.
+	 */
+	partialResultStatus,
+	
 	/**
 	 * Indicate the queryCallback for async execution
 	 */
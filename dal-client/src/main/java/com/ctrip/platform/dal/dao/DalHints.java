@@ -12,6 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 import com.ctrip.platform.dal.dao.client.DalHA;
+import com.ctrip.platform.dal.dao.task.BulkTaskChunkPolicy;
 import com.ctrip.platform.dal.exceptions.DalException;
 
 /**
@@ -257,11 +258,30 @@ public class DalHints {
 		return (Comparator<T>)get(DalHintEnum.resultSorter);
 	}
 
+	/**
+	 * Tell DAL the result of each shard is sorted in the same order as sorter, 
+	 * usually by ORDER BY clause. It only takes effect together with sortBy.
+	 * @return
+	 */
+	public DalHints shardResultsSorted() {
+		set(DalHintEnum.shardResultsSorted);
+		return this;
+	}
+
+	public boolean isShardResultsSorted() {
+		return is(DalHintEnum.shardResultsSorted) && getSorter() != null;
+	}
+
 	public <T> DalHints sequentialExecute() {
 		set(DalHintEnum.sequentialExecution);
 		return this;
 	}
 
+	public DalHints parallelExecute() {
+		set(DalHintEnum.parallelExecution);
+		return this;
+	}
+
 	public DalHints masterOnly() {
 		set(DalHintEnum.masterOnly, true);
 		return this;
@@ -354,6 +374,164 @@ public class DalHints {
 		return this;
 	}
 	
+	/**
+	 * Set the deadline of the whole request. It also limits the statement timeout
+	 * of each shard if timeout is not set.
+	 * @param milliseconds
+	 * @return
+	 */
+	public DalHints requestTimeout(long milliseconds) {
+		set(DalHintEnum.requestTimeout, milliseconds);
+		return this;
+	}
+	
+	public Long getRequestTimeout() {
+		return (Long)get(DalHintEnum.requestTimeout);
+	}
+	
+	/**
+	 * Send the query to a different slave if the first one does not respond within the given time 
+	 * or fails. It only applies to query not in transaction and when there are more than one 
+	 * available slave. The delay is usually set to p95 latency of the query.
+	 * @param milliseconds
+	 * @return
+	 */
+	public DalHints hedgeAfter(long milliseconds) {
+		set(DalHintEnum.hedgeDelay, milliseconds);
+		return this;
+	}
+	
+	public Long getHedgeDelay() {
+		return (Long)get(DalHintEnum.hedgeDelay);
+	}
+	
+	/**
+	 * Let concurrent queries with the same sql, parameters and shard share one execution. 
+	 * Each of them gets its own copy of the result. It does not apply to query in transaction.
+	 * @return
+	 */
+	public DalHints coalesceRead() {
+		set(DalHintEnum.coalesceRead, true);
+		return this;
+	}
+	
+	public boolean isCoalesceRead() {
+		return Boolean.TRUE.equals(get(DalHintEnum.coalesceRead));
+	}
+	
+	/**
+	 * Pad the values of each in parameter to the next bucket size(1, 2, 4, 8 ... 1024) by repeating 
+	 * the last value. Lists of similar size then share the same SQL, which can be reused by statement
+	 * caches of client and server. A list is not padded if that makes the statement exceed the 
+	 * parameter limit of the database, like 2100 of SQL Server.
+	 * @return
+	 */
+	public DalHints padInParameters() {
+		set(DalHintEnum.padInParameters, true);
+		return this;
+	}
+	
+	public boolean isPadInParameters() {
+		return Boolean.TRUE.equals(get(DalHintEnum.padInParameters));
+	}
+	
+	/**
+	 * Split the pojos of batch insert, update, delete and combined insert into chunks. Each chunk 
+	 * is executed as one batch or statement. Limit that is not positive is ignored. Outside of 
+	 * transaction, each chunk is committed on its own.
+	 * @param maxRows max number of pojos in a chunk
+	 * @param maxParameters max number of parameters in a chunk
+	 * @param maxBytes max estimated bytes of parameter values in a chunk
+	 * @return
+	 */
+	public DalHints chunkBy(int maxRows, int maxParameters, long maxBytes) {
+		set(DalHintEnum.chunkPolicy, new BulkTaskChunkPolicy(maxRows, maxParameters, maxBytes));
+		return this;
+	}
+	
+	public BulkTaskChunkPolicy getChunkPolicy() {
+		return (BulkTaskChunkPolicy)get(DalHintEnum.chunkPolicy);
+	}
+	
+	/**
+	 * Execute up to the given number of chunks at the same time, each on its own connection, so 
+	 * that the next chunk is bound while the previous one is executing. It does not apply in 
+	 * transaction, where chunks are executed one by one on the transaction connection.
+	 * @param depth
+	 * @return
+	 */
+	public DalHints pipelineChunks(int depth) {
+		set(DalHintEnum.pipelineChunks, depth);
+		return this;
+	}
+	
+	public int getPipelineChunks() {
+		Integer depth = (Integer)get(DalHintEnum.pipelineChunks);
+		return depth == null ? 1 : depth;
+	}
+	
+	/**
+	 * For SQL Server, send the pojos of batch update and delete as one table valued parameter and 
+	 * update or delete them with one set based statement. The table type must have all the columns 
+	 * of the table in the order of the parser and all of them must be nullable. It is ignored for 
+	 * other databases.
+	 * @param tableTypeName name of the user defined table type
+	 * @return
+	 */
+	public DalHints tableValuedParameter(String tableTypeName) {
+		set(DalHintEnum.tableType, tableTypeName);
+		return this;
+	}
+	
+	public String getTableType() {
+		return (String)get(DalHintEnum.tableType);
+	}
+	
+	/**
+	 * For table with single column primary key, batch delete the pojos of each shard with 
+	 * DELETE ... WHERE pk IN (...) statements instead of one statement per pojo. If a statement 
+	 * deletes fewer rows than its distinct keys, the count of each of its pojos is 
+	 * Statement.SUCCESS_NO_INFO because which one is missing is unknown.
+	 * @param maxKeys max number of keys in one IN list
+	 * @return
+	 */
+	public DalHints deleteByInList(int maxKeys) {
+		set(DalHintEnum.deleteByInList, maxKeys);
+		return this;
+	}
+	
+	public int getDeleteInListSize() {
+		Integer maxKeys = (Integer)get(DalHintEnum.deleteByInList);
+		return maxKeys == null ? 0 : maxKeys;
+	}
+	
+	/**
+	 * For cross shard request, return the result of shards that complete successfully. 
+	 * Shards that fail are recorded in PartialResultStatus instead of failing the request.
+	 * @return
+	 */
+	public DalHints partialResult() {
+		set(DalHintEnum.partialResult);
+		return this;
+	}
+	
+	/**
+	 * Same as partialResult() but only waits for the given time budget. 
+	 * @param milliseconds
+	 * @return
+	 */
+	public DalHints partialResult(long milliseconds) {
+		return partialResult().requestTimeout(milliseconds);
+	}
+	
+	public boolean isPartialResult() {
+		return is(DalHintEnum.partialResult);
+	}
+	
+	public PartialResultStatus getPartialResultStatus() {
+		return (PartialResultStatus)get(DalHintEnum.partialResultStatus);
+	}
+	
 	public DalHints enableIdentityInsert() {
 		set(DalHintEnum.enableIdentityInsert);
 		return this;
@@ -10,7 +10,9 @@ import java.util.List;
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
 import com.ctrip.platform.dal.dao.helper.DalRowCallbackExtractor;
+import com.ctrip.platform.dal.dao.helper.DalRowIterator;
 import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
+import com.ctrip.platform.dal.dao.helper.DalSortedListMerger;
 import com.ctrip.platform.dal.dao.sqlbuilder.FreeSelectSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.FreeUpdateSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.MultipleSqlBuilder;
@@ -95,6 +97,44 @@ public final class DalQueryDao {
 		query(new FreeSelectSqlBuilder<>(dbCategory).setTemplate(sql).extractorWith(new DalRowCallbackExtractor(callback)).nullable(), parameters, hints);
 	}
 	
+	/**
+	 * Execute query by the given sql with parameters and fetch the rows on demand. Only a bounded
+	 * number of rows are held in memory. For cross shard query, rows of all shards are interleaved.
+	 * The returned iterator must be closed to release the underlying connections.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param mapper Helper that converters each row to entity.
+	 * @return iterator over the entities that represent the query result.
+	 * @throws SQLException when things going wrong during the execution
+	 */
+	public <T> CloseableIterator<T> queryIterator(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper) 
+			throws SQLException {
+		DalRowIterator<T> iterator = new DalRowIterator<>(mapper);
+		DalHints streamingHints = DalRowIterator.streamingHints(hints, dbCategory);
+		query(new FreeSelectSqlBuilder<Integer>(dbCategory).setTemplate(sql).extractorWith(iterator.getExtractor()).mergerWith(new ResultMerger.IntSummary()).nullable(), 
+				parameters, streamingHints);
+		
+		return iterator.start(streamingHints.getAsyncResult());
+	}
+
+	/**
+	 * Execute query by the given sql with parameters and fetch the rows on demand.
+	 * The returned iterator must be closed to release the underlying connections.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param clazz The return type 
+	 * @return iterator over the instances of clazz that represent the query result.
+	 * @throws SQLException when things going wrong during the execution
+	 */
+	public <T> CloseableIterator<T> queryIterator(String sql, StatementParameters parameters, DalHints hints, Class<T> clazz) 
+			throws SQLException {
+		return queryIterator(sql, parameters, hints, getMapper(clazz));
+	}
+	
 	/**
 	 * Execute query by the given sqls with parameters. The result will be wrapped into type defined by the given extractors.
 	 * 
@@ -355,6 +395,70 @@ public final class DalQueryDao {
 		return getSafeResult((Integer)executor.execute(hints, new DalSqlTaskRequest<>(logicDbName, builder.with(parameters), hints, new FreeSqlUpdateTask(), new ResultMerger.IntSummary())));
 	}
 	
+	/**
+	 * Asynchronous version of query. The result is completed in DAL executor.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param mapper Helper that converters each row to entity. 
+	 * @return future of the entities that represent the query result.
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public <T> DalFuture<List<T>> queryAsync(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper) 
+			throws SQLException {
+		DalFuture<List<T>> future = new DalFuture<>(hints);
+		query(sql, parameters, future.getHints(), mapper);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of query. The result is completed in DAL executor.
+	 * 
+	 * @param sql The sql statement to be executed
+	 * @param parameters A container that holds all the necessary parameters
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param clazz The return type 
+	 * @return future of the instances of clazz that represent the query result.
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public <T> DalFuture<List<T>> queryAsync(String sql, StatementParameters parameters, DalHints hints, Class<T> clazz) 
+			throws SQLException {
+		DalFuture<List<T>> future = new DalFuture<>(hints);
+		query(sql, parameters, future.getHints(), clazz);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of query with FreeSelectSqlBuilder. The result is completed in DAL executor.
+	 * 
+	 * @param builder
+	 * @param parameters
+	 * @param hints
+	 * @return future of the result defined by the type specified when constructing builder
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public <T> DalFuture<T> queryAsync(FreeSelectSqlBuilder<T> builder, StatementParameters parameters, DalHints hints) throws SQLException {
+		DalFuture<T> future = new DalFuture<>(hints);
+		query(builder, parameters, future.getHints());
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of update with FreeUpdateSqlBuilder. The result is completed in DAL executor.
+	 * 
+	 * @param builder
+	 * @param parameters
+	 * @param hints
+	 * @return future of affected rows
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<Integer> updateAsync(FreeUpdateSqlBuilder builder, StatementParameters parameters, DalHints hints) throws SQLException {
+		DalFuture<Integer> future = new DalFuture<>(hints);
+		update(builder, parameters, future.getHints());
+		return future.start();
+	}
+	
 	private int getSafeResult(Integer value) {
 		if(value == null)
 			return 0;
@@ -374,14 +478,31 @@ public final class DalQueryDao {
 	private <T> List<T> queryRange(String sql, StatementParameters parameters, DalHints hints, DalRowMapper<T> mapper, int start, int count) 
 			throws SQLException {
 		FreeSelectSqlBuilder<List<T>> builder = new FreeSelectSqlBuilder<List<T>>(dbCategory).setTemplate(sql).mapWith(mapper);
+		DalHints rangeHints = hints;
 		
 		if(hints.isAllShards() || hints.isInShards()) {
-			builder.mergerWith(new DalRangedResultMerger<>((Comparator<T>)hints.getSorter(), start, count));
-			builder.extractorWith(new DalRowMapperExtractor<T>(mapper));
+			builder.mergerWith(hints.isShardResultsSorted() ? 
+					new DalSortedListMerger<>(hints.<T>getSorter(), start, count) :
+					new DalRangedResultMerger<>(hints.<T>getSorter(), start, count));
+
+			// The sql may not be pageable, so limit each shard to the first start + count rows by max rows
+			// Max rows is set on a copy so that it does not apply to the other queries of the caller
+			if(count > 0) {
+				rangeHints = hints.clone();
+				rangeHints.set(DalHintEnum.maxRows, start + count);
+				builder.extractorWith(new DalRowMapperExtractor<T>(mapper, start + count));
+			} else
+				builder.extractorWith(new DalRowMapperExtractor<T>(mapper));
 		} else {
 			builder.extractorWith(new DalRowMapperExtractor<T>(mapper, start, count));
 		}
 
-		return query(builder, parameters, hints);
+		List<T> result = query(builder, parameters, rangeHints);
+		
+		// Future of asynchronous execution is populated in the hints that are executed
+		if(rangeHints != hints && rangeHints.getAsyncResult() != null)
+			hints.set(DalHintEnum.futureResult, rangeHints.getAsyncResult());
+		
+		return result;
 	}	
 }
@@ -1,27 +1,48 @@
 package com.ctrip.platform.dal.dao;
 
+import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.isShardingEnabled;
+import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.isTableShardingEnabled;
+import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.locateShardId;
+import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.locateTableShardId;
+
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.client.DalTransactionManager;
 import com.ctrip.platform.dal.dao.client.DalWatcher;
+import com.ctrip.platform.dal.dao.helper.DalBatchLoader;
+import com.ctrip.platform.dal.dao.helper.DalColumnMapRowMapper;
 import com.ctrip.platform.dal.dao.helper.DalDefaultJpaParser;
+import com.ctrip.platform.dal.dao.helper.DalWriteBehindQueue;
+import com.ctrip.platform.dal.dao.helper.DalRowIterator;
 import com.ctrip.platform.dal.dao.sqlbuilder.BaseTableSelectBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.DeleteSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.FreeUpdateSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.InsertSqlBuilder;
+import com.ctrip.platform.dal.dao.sqlbuilder.SelectSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.SqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.TableSelectBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.TableSqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.UpdateSqlBuilder;
+import com.ctrip.platform.dal.dao.task.BulkLoadTaskFactory;
 import com.ctrip.platform.dal.dao.task.BulkTask;
+import com.ctrip.platform.dal.dao.task.BulkTaskChunkPolicy;
 import com.ctrip.platform.dal.dao.task.DalBulkTaskRequest;
 import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
 import com.ctrip.platform.dal.dao.task.DalSingleTaskRequest;
 import com.ctrip.platform.dal.dao.task.DalSqlTaskRequest;
 import com.ctrip.platform.dal.dao.task.DalTaskFactory;
+import com.ctrip.platform.dal.dao.task.DefaultTaskFactory;
 import com.ctrip.platform.dal.dao.task.DeleteSqlTask;
+import com.ctrip.platform.dal.dao.task.InsertPlanner;
 import com.ctrip.platform.dal.dao.task.QuerySqlTask;
 import com.ctrip.platform.dal.dao.task.SingleTask;
 import com.ctrip.platform.dal.dao.task.TaskAdapter;
@@ -38,6 +59,10 @@ import com.ctrip.platform.dal.exceptions.ErrorCode;
  */
 public final class DalTableDao<T> extends TaskAdapter<T> {
 	public static final String GENERATED_KEY = "GENERATED_KEY";
+	
+	// Hints of the caller that are honored by write behind insert
+	private static final DalHintEnum[] WRITE_BEHIND_HINTS = {
+		DalHintEnum.enableIdentityInsert, DalHintEnum.insertNullField, DalHintEnum.continueOnError, DalHintEnum.timeout};
 
 	private SingleTask<T> singleInsertTask;
 	private SingleTask<T> singleDeleteTask;
@@ -49,10 +74,15 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 	private BulkTask<int[], T> batchDeleteTask;
 	private BulkTask<int[], T> batchUpdateTask;
 	
+	private BulkTask<Integer, T> bulkLoadTask;
+	
 	private DeleteSqlTask<T> deleteSqlTask;
 	private UpdateSqlTask<T> updateSqlTask;
 
 	private DalRequestExecutor executor; 
+	private volatile PkLoader pkLoader;
+	private volatile DalWriteBehindQueue<T> writeBehindQueue;
+	private InsertPlanner insertPlanner;
 			
 	public DalTableDao(DalParser<T> parser) {
 		this(parser, DalClientFactory.getTaskFactory());
@@ -82,6 +112,7 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		initialize(parser);
 		initTasks(factory);
 		this.executor = executor;
+		insertPlanner = new InsertPlanner(dbCategory);
 	}
 	
 	private void initTasks(DalTaskFactory factory){
@@ -95,6 +126,9 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		batchDeleteTask = factory.createBatchDeleteTask(parser);
 		batchUpdateTask = factory.createBatchUpdateTask(parser);
 		
+		BulkLoadTaskFactory bulkLoadTaskFactory = factory instanceof BulkLoadTaskFactory ? (BulkLoadTaskFactory)factory : new DefaultTaskFactory();
+		bulkLoadTask = bulkLoadTaskFactory.createBulkLoadTask(parser);
+		
 		deleteSqlTask = factory.createDeleteSqlTask(parser);
 		updateSqlTask = factory.createUpdateSqlTask(parser);
 	}
@@ -142,6 +176,222 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		return queryObject(new BaseTableSelectBuilder(rawTableName, dbCategory).where(pkSql).with(parameters).requireSingle().nullable(), hints.setFields(parser.getFields(pk)));
 	}
 
+	/**
+	 * Query by a list of primary keys in one IN query. The key column type should be Integer, Long, etc.
+	 * The order of the result is not guaranteed.
+	 * 
+	 * @param ids The primary keys in number format
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return entities of this table that are found
+	 * @throws SQLException
+	 */
+	public List<T> queryByPk(List<? extends Number> ids, DalHints hints) throws SQLException {
+		if (parser.getPrimaryKeyNames().length != 1)
+			throw new DalException(ErrorCode.ValidatePrimaryKeyCount);
+
+		String pkName = parser.getPrimaryKeyNames()[0];
+		SelectSqlBuilder builder = new SelectSqlBuilder().selectAll();
+		builder.in(pkName, ids, getColumnType(pkName));
+		return query(builder, hints);
+	}
+	
+	/**
+	 * Query by Primary key together with the concurrent calls of this method. Keys that arrive within 
+	 * a short window and go to the same shard are queried by one IN query. The key column type should 
+	 * be Integer, Long, etc.
+	 * 
+	 * Only the shard, table shard, master only and designated database hints are used to query the
+	 * batch. Key that is queried in transaction or can not be located to one shard is queried alone 
+	 * in the current thread.
+	 * 
+	 * @param id The primary key in number format
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return future of the entity. Null if no result found.
+	 * @throws SQLException
+	 */
+	public DalFuture<T> queryByPkBatched(Number id, DalHints hints) throws SQLException {
+		if (parser.getPrimaryKeyNames().length != 1)
+			throw new DalException(ErrorCode.ValidatePrimaryKeyCount);
+
+		DalHints batchHints = null;
+		if(!DalTransactionManager.isInTransaction()) {
+			try {
+				batchHints = getBatchHints(id, hints);
+			} catch (SQLException e) {
+				// Leave it to queryByPk
+			}
+		}
+		
+		if(batchHints == null) {
+			DalFuture<T> future = new DalFuture<>(hints);
+			try {
+				// The future is completed by callback
+				queryByPk(id, future.getHints());
+			} catch (SQLException e) {
+				future.onError(e);
+			}
+			return future;
+		}
+		
+		String group = batchHints.getShardId() + ":" + batchHints.getTableShardId() + ":" + 
+				batchHints.is(DalHintEnum.masterOnly) + ":" + batchHints.getString(DalHintEnum.designatedDatabase);
+		return getPkLoader().load(group, batchHints, id, hints);
+	}
+	
+	/**
+	 * Change the batch size and window of queryByPkBatched. 
+	 * 
+	 * @param maxBatchSize max number of keys in one IN query
+	 * @param windowMillis max time in milliseconds to wait for other keys
+	 */
+	public void setPkBatching(int maxBatchSize, long windowMillis) {
+		pkLoader = new PkLoader(maxBatchSize, windowMillis);
+	}
+	
+	private PkLoader getPkLoader() {
+		PkLoader loader = pkLoader;
+		if(loader == null)
+			pkLoader = loader = new PkLoader(DalBatchLoader.DEFAULT_MAX_BATCH_SIZE, DalBatchLoader.DEFAULT_WINDOW_MILLIS);
+		return loader;
+	}
+	
+	/**
+	 * Let single pojo insert without key holder go to a queue and return 0 immediately. The queued pojos
+	 * are written by combined or batch insert when a batch is full or the flush interval ends. 
+	 * The future of the insert is set in hints like asynchronous execution, and the callback in hints 
+	 * is notified after the pojo is written. Insert in transaction is not queued.
+	 * 
+	 * Only the shard, table shard and the hints enableIdentityInsert, insertNullField, continueOnError
+	 * and timeout of the caller are honored by the queued insert. Pojos with different values of them
+	 * are written in different batches. Other hints like requestTimeout do not apply to the queued insert.
+	 * 
+	 * @param maxBatchSize max number of pojos in one insert
+	 * @param flushMillis max time in milliseconds a pojo stays in the queue
+	 * @param maxQueueSize max number of pojos that are queued or being written
+	 * @param maxWaitMillis max time in milliseconds to wait when the queue is full
+	 * @param combined true to use combined insert, false to use batch insert
+	 */
+	public void enableWriteBehind(int maxBatchSize, long flushMillis, int maxQueueSize, long maxWaitMillis, boolean combined) {
+		DalWriteBehindQueue<T> old = writeBehindQueue;
+		writeBehindQueue = new InsertQueue(maxBatchSize, flushMillis, maxQueueSize, maxWaitMillis, combined);
+		if(old != null)
+			old.flush();
+	}
+	
+	/**
+	 * Stop queuing insert and write the pojos that are still in queue.
+	 */
+	public void disableWriteBehind() {
+		DalWriteBehindQueue<T> old = writeBehindQueue;
+		writeBehindQueue = null;
+		if(old != null)
+			old.flush();
+	}
+	
+	/**
+	 * @return the write behind queue or null if it is not enabled
+	 */
+	public DalWriteBehindQueue<T> getWriteBehindQueue() {
+		return writeBehindQueue;
+	}
+	
+	private int writeBehind(DalWriteBehindQueue<T> queue, DalHints hints, T daoPojo) throws SQLException {
+		Map<String, ?> fields = parser.getFields(daoPojo);
+		DalHints groupHints = new DalHints();
+		if(isShardingEnabled(logicDbName))
+			groupHints.inShard(locateShardId(logicDbName, hints, null, fields));
+		
+		if(isTableShardingEnabled(logicDbName, rawTableName))
+			groupHints.inTableShard(locateTableShardId(logicDbName, hints, null, fields));
+		
+		StringBuilder group = new StringBuilder().append(groupHints.getShardId()).append(":").append(groupHints.getTableShardId());
+		for(DalHintEnum hint: WRITE_BEHIND_HINTS) {
+			if(!hints.is(hint))
+				continue;
+			
+			groupHints.set(hint, hints.get(hint));
+			group.append(":").append(hint).append("=").append(hints.get(hint));
+		}
+		
+		hints.set(DalHintEnum.futureResult, queue.add(group.toString(), groupHints, daoPojo, hints));
+		return 0;
+	}
+	
+	private class InsertQueue extends DalWriteBehindQueue<T> {
+		private boolean combined;
+		
+		private InsertQueue(int maxBatchSize, long flushMillis, int maxQueueSize, long maxWaitMillis, boolean combined) {
+			super(rawTableName, maxBatchSize, flushMillis, maxQueueSize, maxWaitMillis);
+			this.combined = combined;
+		}
+
+		@Override
+		protected int[] write(DalHints hints, List<T> pojos) throws SQLException {
+			if(!combined)
+				return batchInsert(hints, pojos);
+			
+			// Affected rows of each pojo is unknown if some are not inserted
+			if(combinedInsert(hints, pojos) != pojos.size())
+				return null;
+			
+			int[] counts = new int[pojos.size()];
+			Arrays.fill(counts, 1);
+			return counts;
+		}
+
+		@Override
+		protected Executor getExecutor() {
+			return DalRequestExecutor.getExecutor(logicDbName);
+		}
+	}
+	
+	private DalHints getBatchHints(Number id, DalHints hints) throws SQLException {
+		Map<String, Object> fields = new HashMap<>();
+		fields.put(parser.getPrimaryKeyNames()[0], id);
+		
+		DalHints batchHints = new DalHints();
+		if(isShardingEnabled(logicDbName))
+			batchHints.inShard(locateShardId(logicDbName, hints, null, fields));
+		
+		if(isTableShardingEnabled(logicDbName, rawTableName))
+			batchHints.inTableShard(locateTableShardId(logicDbName, hints, null, fields));
+		
+		if(hints.is(DalHintEnum.masterOnly))
+			batchHints.masterOnly();
+		
+		if(hints.getString(DalHintEnum.designatedDatabase) != null)
+			batchHints.inDatabase(hints.getString(DalHintEnum.designatedDatabase));
+		
+		return batchHints;
+	}
+	
+	private class PkLoader extends DalBatchLoader<Number, T> {
+		private PkLoader(int maxBatchSize, long windowMillis) {
+			super(maxBatchSize, windowMillis);
+		}
+
+		@Override
+		protected Map<Number, T> load(DalHints hints, List<Number> ids) throws SQLException {
+			// Keys of different number types are matched by value
+			Map<String, T> found = new HashMap<>();
+			for(T pojo: queryByPk(ids, hints)) {
+				String id = String.valueOf(parser.getPrimaryKeys(pojo).values().iterator().next());
+				if(found.put(id, pojo) != null)
+					throw new DalException(ErrorCode.AssertSingle);
+			}
+			
+			Map<Number, T> result = new HashMap<>();
+			for(Number id: ids)
+				result.put(id, found.get(String.valueOf(id)));
+			return result;
+		}
+
+		@Override
+		protected Executor getExecutor() {
+			return DalRequestExecutor.getExecutor(logicDbName);
+		}
+	}
+
 	/**
 	 * Query against sample pojo. All not null attributes of the passed in pojo
 	 * will be used as search criteria.
@@ -301,6 +551,57 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		return query(new BaseTableSelectBuilder().where(whereClause).with(parameters).range(start, count), hints);
 	}
 
+	/**
+	 * Query aggregate columns grouped by the group by columns of the builder. E.g.
+	 * new BaseTableSelectBuilder().groupBy("city").aggregate(AggregateColumn.avg("age", "avgAge"))
+	 * 
+	 * For cross shard query, each shard only returns partial aggregates, which are
+	 * combined by DalAggregateMerger.
+	 * 
+	 * @param selectBuilder the builder with group by and aggregate columns
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return list of rows that contain group by columns and alias of aggregate columns
+	 * @throws SQLException
+	 */
+	public List<Map<String, Object>> queryAggregate(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		DalWatcher.begin();
+		return commonQuery((TableSelectBuilder)selectBuilder.mapWith(new DalColumnMapRowMapper()).nullable(), hints);
+	}
+
+	/**
+	 * Query by the given where clause and parameters and fetch the pojos on demand. 
+	 * Only a bounded number of pojos are held in memory. For cross shard query, 
+	 * pojos of all shards are interleaved. The returned iterator must be closed to
+	 * release the underlying connections.
+	 * 
+	 * @param whereClause the where section for the search statement.
+	 * @param parameters A container that holds all the necessary parameters 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return iterator over the pojos that meet the search criteria
+	 * @throws SQLException
+	 */
+	public CloseableIterator<T> queryIterator(String whereClause, StatementParameters parameters, DalHints hints) throws SQLException {
+		return queryIterator(new BaseTableSelectBuilder().where(whereClause).with(parameters), hints);
+	}
+
+	/**
+	 * Query with the given builder and fetch the pojos on demand.
+	 * The returned iterator must be closed to release the underlying connections.
+	 * 
+	 * @param selectBuilder the builder of the select statement, range and merger of the builder are ignored
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return iterator over the pojos that meet the search criteria
+	 * @throws SQLException
+	 */
+	public CloseableIterator<T> queryIterator(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		DalWatcher.begin();
+		DalRowIterator<T> iterator = new DalRowIterator<>(parser);
+		DalHints streamingHints = DalRowIterator.streamingHints(hints, dbCategory);
+		commonQuery((TableSelectBuilder)selectBuilder.mapWith(parser).extractorWith(iterator.getExtractor()).mergerWith(new ResultMerger.IntSummary()).nullable(), streamingHints);
+		
+		return iterator.start(streamingHints.getAsyncResult());
+	}
+
 	private <K> K commonQuery(TableSelectBuilder builder, DalHints hints) throws SQLException {
 		DalSqlTaskRequest<K> request = new DalSqlTaskRequest<K>(
 				logicDbName, populate(builder), hints, 
@@ -344,6 +645,10 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 	 */
 	public int insert(DalHints hints, KeyHolder keyHolder, T daoPojo)
 			throws SQLException {
+		DalWriteBehindQueue<T> queue = writeBehindQueue;
+		if(queue != null && keyHolder == null && daoPojo != null && !DalTransactionManager.isInTransaction())
+			return writeBehind(queue, hints, daoPojo);
+		
 		return getSafeResult(executor.execute(setSize(hints, keyHolder, daoPojo), new DalSingleTaskRequest<>(logicDbName, hints, daoPojo, singleInsertTask)));
 	}
 	
@@ -433,6 +738,119 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		return executor.execute(hints, new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, batchInsertTask));
 	}
 	
+	/**
+	 * Insert pojos through the native bulk load path of the database. It is LOAD DATA LOCAL INFILE 
+	 * for MySQL and SQLServerBulkCopy for SQL Server. It is much faster than batchInsert and 
+	 * combinedInsert for large amount of pojos, but generated keys are not returned.
+	 * For MySQL, pojos that duplicate an existing key are skipped instead of failing the load,
+	 * and they are not counted in the result.
+	 * Pojos are shuffled to shards the same way as batchInsert. Use DalHints.chunkBy to limit 
+	 * the number of pojos in each load.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojos list of pojos to be inserted
+	 * @return how many rows been inserted
+	 * @throws SQLException
+	 */
+	public int bulkLoad(DalHints hints, List<T> daoPojos) throws SQLException {
+		return getSafeResult(executor.execute(hints, new DalBulkTaskRequest<>(logicDbName, rawTableName, hints, daoPojos, bulkLoadTask)));
+	}
+	
+	/**
+	 * Bulk load pojos read from the iterator. Pojos are loaded batch by batch, so only one batch
+	 * is kept in memory. Each batch is loaded the same way as bulkLoad(hints, list).
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojos pojos to be inserted
+	 * @param batchSize max number of pojos read for each load
+	 * @return how many rows been inserted
+	 * @throws SQLException
+	 */
+	public int bulkLoad(DalHints hints, Iterator<T> daoPojos, int batchSize) throws SQLException {
+		if(null == daoPojos)
+			throw new DalException(ErrorCode.ValidatePojoList);
+		
+		batchSize = Math.max(batchSize, 1);
+		int count = 0;
+		List<T> batch = new ArrayList<>(batchSize);
+		while(daoPojos.hasNext()) {
+			batch.add(daoPojos.next());
+			if(batch.size() < batchSize && daoPojos.hasNext())
+				continue;
+			
+			count += bulkLoad(hints.clone(), batch);
+			batch = new ArrayList<>(batchSize);
+		}
+		return count;
+	}
+	
+	/**
+	 * Insert pojos with the strategy chosen by InsertPlanner. It can be combined insert, batch insert
+	 * or chunked combination of them, depending on the number and width of the pojos, limits of the 
+	 * database, whether keys are required and latency observed on this table. Single inserts are used
+	 * only when keys are required but combined insert is not supported.
+	 * The chosen plan is set in the log entry. The plan and its chunk policy apply to a copy of hints,
+	 * so that they do not stay in the hints of caller.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param keyHolder holder for generated primary keys, can be null
+	 * @param daoPojos list of pojos to be inserted
+	 * @return how many rows been affected
+	 * @throws SQLException
+	 */
+	public int autoInsert(DalHints hints, KeyHolder keyHolder, List<T> daoPojos) throws SQLException {
+		if(null == daoPojos)
+			throw new DalException(ErrorCode.ValidatePojoList);
+		
+		if(daoPojos.isEmpty())
+			return 0;
+		
+		long rowBytes = BulkTaskChunkPolicy.estimateBytes(parser.getFields(daoPojos.get(0)));
+		InsertPlanner.Plan plan = insertPlanner.plan(daoPojos.size(), parser.getInsertableColumnNames().length, rowBytes, keyHolder != null);
+		DalHints planHints = hints.clone();
+		planHints.set(DalHintEnum.executionPlan, plan.toString());
+		if(plan.getChunkRows() > 0 && planHints.getChunkPolicy() == null)
+			planHints.chunkBy(plan.getChunkRows(), 0, 0);
+		
+		long start = System.nanoTime();
+		int count;
+		switch (plan.getStrategy()) {
+		case COMBINED:
+			count = combinedInsert(planHints, keyHolder, daoPojos);
+			break;
+		case BATCH:
+			count = sum(batchInsert(planHints, daoPojos));
+			break;
+		default:
+			count = sum(insert(planHints, keyHolder, daoPojos));
+			break;
+		}
+		
+		// Elapsed time of async execution does not tell the latency
+		if(!planHints.isAsyncExecution())
+			insertPlanner.record(plan.getStrategy(), daoPojos.size(), System.nanoTime() - start);
+		
+		// Future of asynchronous execution is populated in the hints that are executed
+		if(planHints.getAsyncResult() != null)
+			hints.set(DalHintEnum.futureResult, planHints.getAsyncResult());
+		
+		return count;
+	}
+	
+	public InsertPlanner getInsertPlanner() {
+		return insertPlanner;
+	}
+	
+	private int sum(int[] counts) {
+		int total = 0;
+		if(counts == null)
+			return total;
+		
+		for(int count: counts)
+			total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+		return total;
+	}
+	
 	/**
 	 * Insert with InsertSqlBuilder.
 	 * @param insertBuilder sql builder that represents the insert operation
@@ -576,6 +994,133 @@ public final class DalTableDao<T> extends TaskAdapter<T> {
 		return getSafeResult(executor.execute(hints, new DalSqlTaskRequest<>(logicDbName, populate(updateBuilder), hints, updateSqlTask, new ResultMerger.IntSummary())));
 	}
 	
+	/**
+	 * Asynchronous version of queryByPk. The result is completed in DAL executor.
+	 * 
+	 * @param id The primary key in number format
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return future of the entity. Null if no result found.
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<T> queryByPkAsync(Number id, DalHints hints) throws SQLException {
+		DalFuture<T> future = new DalFuture<>(hints);
+		queryByPk(id, future.getHints());
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of queryByPk. The result is completed in DAL executor.
+	 * 
+	 * @param pk The pojo used to represent primary key(s)
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return future of the entity. Null if no result found.
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<T> queryByPkAsync(T pk, DalHints hints) throws SQLException {
+		DalFuture<T> future = new DalFuture<>(hints);
+		queryByPk(pk, future.getHints());
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of query. The result is completed in DAL executor.
+	 * 
+	 * @param whereClause the where section for the search statement.
+	 * @param parameters A container that holds all the necessary parameters 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return future of the pojos that meet the search criteria
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<List<T>> queryAsync(String whereClause, StatementParameters parameters, DalHints hints) throws SQLException {
+		DalFuture<List<T>> future = new DalFuture<>(hints);
+		query(whereClause, parameters, future.getHints());
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of query. The result is completed in DAL executor.
+	 * 
+	 * @param selectBuilder builder that represents the select sql
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @return future of the pojos that meet the search criteria
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<List<T>> queryAsync(TableSelectBuilder selectBuilder, DalHints hints) throws SQLException {
+		DalFuture<List<T>> future = new DalFuture<>(hints);
+		query(selectBuilder, future.getHints());
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of insert. The result is completed in DAL executor.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojo pojo to be inserted
+	 * @return future of how many rows been affected
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<Integer> insertAsync(DalHints hints, T daoPojo) throws SQLException {
+		DalFuture<Integer> future = new DalFuture<>(hints);
+		insert(future.getHints(), daoPojo);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of insert. The result is completed in DAL executor.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojos list of pojos to be inserted
+	 * @return future of how many rows been affected for inserting each of the pojo
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<int[]> insertAsync(DalHints hints, List<T> daoPojos) throws SQLException {
+		DalFuture<int[]> future = new DalFuture<>(hints);
+		insert(future.getHints(), daoPojos);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of batchInsert. The result is completed in DAL executor.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojos list of pojos to be inserted
+	 * @return future of how many rows been affected for inserting each of the pojo
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<int[]> batchInsertAsync(DalHints hints, List<T> daoPojos) throws SQLException {
+		DalFuture<int[]> future = new DalFuture<>(hints);
+		batchInsert(future.getHints(), daoPojos);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of update. The result is completed in DAL executor.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojo pojo to be updated
+	 * @return future of how many rows been affected
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<Integer> updateAsync(DalHints hints, T daoPojo) throws SQLException {
+		DalFuture<Integer> future = new DalFuture<>(hints);
+		update(future.getHints(), daoPojo);
+		return future.start();
+	}
+	
+	/**
+	 * Asynchronous version of update. The result is completed in DAL executor.
+	 * 
+	 * @param hints Additional parameters that instruct how DAL Client perform database operation.
+	 * @param daoPojos list of pojos to be updated
+	 * @return future of how many rows been affected for updating each of the pojo
+	 * @throws SQLException if the request can not be submitted
+	 */
+	public DalFuture<int[]> updateAsync(DalHints hints, List<T> daoPojos) throws SQLException {
+		DalFuture<int[]> future = new DalFuture<>(hints);
+		update(future.getHints(), daoPojos);
+		return future.start();
+	}
+	
 	private SqlBuilder populate(TableSqlBuilder builder) throws SQLException {
 		builder.from(rawTableName).setDatabaseCategory(dbCategory);
 		return builder;
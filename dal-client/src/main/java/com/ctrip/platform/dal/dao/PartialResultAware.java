@@ -0,0 +1,11 @@
+package com.ctrip.platform.dal.dao;
+
+/**
+ * Implemented by ResultMerger that needs to know some of the shards do not contribute 
+ * to the result. It is called before merge() only if the result is partial.
+ * 
+ * @author jhhe
+ */
+public interface PartialResultAware {
+	void onPartialResult(PartialResultStatus status);
+}
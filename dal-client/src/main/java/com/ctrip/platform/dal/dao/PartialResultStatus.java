@@ -0,0 +1,71 @@
+package com.ctrip.platform.dal.dao;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * To record how each shard performed in a cross shard request. It will be set in hints 
+ * under DalHintEnum.partialResultStatus after the request is executed.
+ * 
+ * @author jhhe
+ */
+public class PartialResultStatus {
+	private Set<String> completedShards = Collections.synchronizedSet(new TreeSet<String>());
+	private Set<String> timeoutShards = Collections.synchronizedSet(new TreeSet<String>());
+	private Set<String> skippedShards = Collections.synchronizedSet(new TreeSet<String>());
+	private Map<String, Throwable> failedShards = Collections.synchronizedMap(new TreeMap<String, Throwable>());
+	
+	public void addCompleted(String shard) {
+		completedShards.add(shard);
+	}
+	
+	public void addTimeout(String shard) {
+		timeoutShards.add(shard);
+	}
+	
+	public void addSkipped(String shard) {
+		skippedShards.add(shard);
+	}
+	
+	public void addFailed(String shard, Throwable e) {
+		failedShards.put(shard, e);
+	}
+	
+	/**
+	 * @return true if there is any shard missed the deadline or failed
+	 */
+	public boolean isPartial() {
+		return !timeoutShards.isEmpty() || !failedShards.isEmpty();
+	}
+	
+	public Set<String> getCompletedShards() {
+		return completedShards;
+	}
+
+	public Set<String> getTimeoutShards() {
+		return timeoutShards;
+	}
+
+	/**
+	 * @return shards that are cancelled because the result is already satisfied
+	 */
+	public Set<String> getSkippedShards() {
+		return skippedShards;
+	}
+
+	public Map<String, Throwable> getFailedShards() {
+		return failedShards;
+	}
+	
+	/**
+	 * @return shards that do not contribute to the result
+	 */
+	public Set<String> getMissingShards() {
+		Set<String> missingShards = new TreeSet<>(timeoutShards);
+		missingShards.addAll(failedShards.keySet());
+		return missingShards;
+	}
+}
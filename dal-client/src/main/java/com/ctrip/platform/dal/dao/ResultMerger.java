@@ -6,6 +6,11 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Merge results of cross shard request. For parallel execution, addPartial is called 
+ * by the thread that executes the request, in the order shards complete. So implementations 
+ * may do incremental merge in addPartial without any synchronization.
+ */
 public interface ResultMerger<T> {
 	void addPartial(String shard, T partial) throws SQLException;
 	T merge() throws SQLException;
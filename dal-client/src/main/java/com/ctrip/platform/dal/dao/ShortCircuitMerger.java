@@ -0,0 +1,12 @@
+package com.ctrip.platform.dal.dao;
+
+/**
+ * Implemented by ResultMerger that may get the final result before all the shards complete.
+ * It is checked after each partial result is added. Once it is satisfied, the rest of the
+ * shards are cancelled and recorded as skipped in PartialResultStatus.
+ * 
+ * @author jhhe
+ */
+public interface ShortCircuitMerger {
+	boolean isSatisfied();
+}
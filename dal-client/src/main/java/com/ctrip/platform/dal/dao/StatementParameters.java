@@ -6,6 +6,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.ctrip.platform.dal.common.enums.ParameterDirection;
+import com.ctrip.platform.dal.dao.task.SQLCompiler;
 
 public class StatementParameters {
 	private static final String SQLHIDDENString = "*";
@@ -179,6 +180,46 @@ public class StatementParameters {
 		return false;
 	}
 	
+	/**
+	 * Pad values of in parameters to bucket size by repeating the last value. 
+	 * This must be executed before in parameters are compiled
+	 */
+	public void padInParameters() {
+		padInParameters(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Pad values of in parameters to bucket size by repeating the last value. In parameter is
+	 * left as it is if padding it makes the statement exceed the max number of parameters.
+	 * This must be executed before in parameters are compiled
+	 * @param maxParameters max number of parameters of one statement of the database
+	 */
+	public void padInParameters(int maxParameters) {
+		long count = 0;
+		for(StatementParameter p: parameters)
+			count += p.isInParam() ? ((List<?>)p.getValue()).size() : 1;
+		
+		for(StatementParameter p: parameters) {
+			if(!p.isInParam())
+				continue;
+			
+			List<?> values = p.getValue();
+			int size = SQLCompiler.getBucketSize(values.size());
+			if(size == values.size() || count + size - values.size() > maxParameters)
+				continue;
+			
+			count += size - values.size();
+			
+			List<Object> padded = new ArrayList<>(size);
+			padded.addAll(values);
+			Object last = values.get(values.size() - 1);
+			while(padded.size() < size)
+				padded.add(last);
+			
+			p.setValue(padded);
+		}
+	}
+	
 	/**
 	 * Expand in parameters if necessary. This must be executed before execution
 	 */
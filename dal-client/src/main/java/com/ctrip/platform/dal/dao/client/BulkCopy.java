@@ -0,0 +1,45 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.DalHints;
+
+/**
+ * Insert rows through the native bulk load path of the database driver, which skips parsing
+ * and binding of insert statements. It is used by DalTableDao.bulkLoad.
+ *
+ * @author jhhe
+ */
+public abstract class BulkCopy {
+	/**
+	 * @return bulk copy of the database or null if it is not supported
+	 */
+	public static BulkCopy getInstance(DatabaseCategory dbCategory) {
+		switch (dbCategory) {
+		case MySql:
+			return new MySqlBulkCopy();
+		case SqlServer:
+			return new SqlServerBulkCopy();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @return the statement or description of the copy that is put in the log entry
+	 */
+	public abstract String getDescription(String tableName, String[] columns);
+
+	/**
+	 * @param conn the connection located for the table
+	 * @param tableName quoted name of the effective table
+	 * @param columns name of the columns
+	 * @param types java.sql.Types of the columns
+	 * @param rows values of each row in the order of columns
+	 * @return number of rows inserted
+	 */
+	public abstract int copy(Connection conn, String tableName, String[] columns, int[] types, List<Object[]> rows, DalHints hints) throws SQLException;
+}
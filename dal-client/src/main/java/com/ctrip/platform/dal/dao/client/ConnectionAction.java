@@ -18,6 +18,7 @@ import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.Version;
+import com.ctrip.platform.dal.dao.task.SqlTemplateCache;
 import com.ctrip.platform.dal.exceptions.DalException;
 
 public abstract class ConnectionAction<T> {
@@ -114,6 +115,7 @@ public abstract class ConnectionAction<T> {
 		entry.setSensitive(hints.is(DalHintEnum.sensitive));
 		entry.setEvent(operation);
 		entry.setCallString(callString);
+		entry.setExecutionPlan((String)hints.get(DalHintEnum.executionPlan));
 		
 		if(sqls != null)	
 			entry.setSqls(sqls);
@@ -190,8 +192,14 @@ public abstract class ConnectionAction<T> {
 		callableStatement = null;
 		
 		if(_statement != null) {
+			// Cancelled statement is closed instead of put back to cache
+			boolean cancelled = StatementCanceller.unregister(_statement);
 			try {
-				_statement.close();
+				if(cancelled)
+					DalStatementCache.discard(_statement);
+				
+				if(cancelled || !DalStatementCache.checkin(_statement))
+					_statement.close();
 			} catch (Throwable e) {
 				logger.error("Close statement failed.", e);
 			}
@@ -219,7 +227,7 @@ public abstract class ConnectionAction<T> {
 	}
 
 	private String wrapAPPID(String sql){
-		return "/*" + DalClientFactory.getDalLogger().getAppID() + "*/" + sql;
+		return SqlTemplateCache.wrapAppId(sql);
 	}
 	
 	public abstract T execute() throws Exception;
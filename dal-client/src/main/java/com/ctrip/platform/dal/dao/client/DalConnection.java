@@ -19,6 +19,7 @@ public class DalConnection {
 	private DbMeta meta;
 	private DalLogger logger;
 	private boolean needDiscard;;
+	private DataSourceLimiter limiter;
 	
 	public DalConnection(Connection conn, boolean master, String shardId, DbMeta meta) throws SQLException {
 		this.oldIsolationLevel = conn.getTransactionIsolation();
@@ -29,6 +30,13 @@ public class DalConnection {
 		this.logger = DalClientFactory.getDalLogger();
 	}
 
+	/**
+	 * @param limiter admission of this connection, it is released when the connection is closed
+	 */
+	void setLimiter(DataSourceLimiter limiter) {
+		this.limiter = limiter;
+	}
+
 	public Connection getConn() {
 		return conn;
 	}
@@ -69,6 +77,11 @@ public class DalConnection {
 	}
 	
 	public void close() {
+		if(limiter != null) {
+			limiter.release();
+			limiter = null;
+		}
+		
 		try {
 			if(conn == null || conn.isClosed())
 				return;
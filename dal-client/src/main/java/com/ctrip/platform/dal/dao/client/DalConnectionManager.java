@@ -2,6 +2,8 @@ package com.ctrip.platform.dal.dao.client;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.ctrip.platform.dal.dao.DalEventEnum;
 import com.ctrip.platform.dal.dao.DalHintEnum;
@@ -10,7 +12,9 @@ import com.ctrip.platform.dal.dao.configure.DalConfigure;
 import com.ctrip.platform.dal.dao.configure.DatabaseSet;
 import com.ctrip.platform.dal.dao.markdown.MarkdownManager;
 import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.status.DataSourceStatus;
 import com.ctrip.platform.dal.dao.strategy.DalShardingStrategy;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
@@ -92,6 +96,28 @@ public class DalConnectionManager {
         return shardId;
 	}
 
+	/**
+	 * @return at most count distinct slaves that a query with the hints can go to
+	 */
+	public List<String> getSlaveCandidates(DalHints hints, int count) throws SQLException {
+		if(hints.is(DalHintEnum.masterOnly) || DalTransactionManager.isInTransaction() || DalStatusManager.getDatabaseSetStatus(logicDbName).isMarkdown())
+			return new ArrayList<>();
+		
+		DatabaseSet dbSet = config.getDatabaseSet(logicDbName);
+		if(!dbSet.isShardingSupported())
+			return dbSet.getRandomSlaveDbNames(hints, count);
+		
+		DalShardingStrategy strategy = dbSet.getStrategy();
+		if(strategy.isMaster(config, logicDbName, hints))
+			return new ArrayList<>();
+		
+		String shardId = evaluateShard(hints);
+		if(shardId == null)
+			return new ArrayList<>();
+		
+		return dbSet.getRandomSlaveDbNames(hints, shardId, count);
+	}
+
 	private DalConnection getConnectionFromDSLocator(DalHints hints,
 			boolean isMaster, boolean isSelect) throws SQLException {
 		Connection conn;
@@ -116,15 +142,28 @@ public class DalConnectionManager {
 			allInOneKey = dbSet.getRandomRealDbName(hints, isMaster, isSelect);
 		}
 		
+		DataSourceLimiter limiter = getLimiter(allInOneKey);
+		if(limiter != null)
+			limiter.acquire(DalRequestExecutor.getCurrentDeadline());
+		
 		try {	
 			conn = locator.getConnection(allInOneKey);
 			DbMeta meta = DbMeta.createIfAbsent(allInOneKey, dbSet.getDatabaseCategory(), conn);
-			return new DalConnection(conn, isMaster, shardId, meta);
+			DalConnection connHolder = new DalConnection(conn, isMaster, shardId, meta);
+			connHolder.setLimiter(limiter);
+			return connHolder;
 		} catch (Throwable e) {
+			if(limiter != null)
+				limiter.release();
 			throw new DalException(ErrorCode.CantGetConnection, e, allInOneKey);
 		}
 	}
 	
+	private DataSourceLimiter getLimiter(String allInOneKey) {
+		DataSourceStatus status = DalStatusManager.getDataSourceStatus(allInOneKey);
+		return status == null ? null : status.getLimiter();
+	}
+	
 	public <T> T doInConnection(ConnectionAction<T> action, DalHints hints)
 			throws SQLException {
 		// If HA disabled or not query, we just directly call _doInConnnection
@@ -156,7 +195,9 @@ public class DalConnectionManager {
 		try {
 			result = action.execute();
 		} catch (Throwable e) {
-			MarkdownManager.detect(action.connHolder, action.start, e);
+			// Statement cancelled by DAL does not indicate the database is unhealthy
+			if(!StatementCanceller.isCurrentCancelled())
+				MarkdownManager.detect(action.connHolder, action.start, e);
 			action.error(e);
 		} finally {
 			DalWatcher.endExectue();
@@ -7,10 +7,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.sql.RowSetMetaData;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 
 import com.ctrip.platform.dal.dao.DalClient;
 import com.ctrip.platform.dal.dao.DalCommand;
@@ -23,8 +29,10 @@ import com.ctrip.platform.dal.dao.StatementParameter;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.configure.DalConfigure;
 import com.ctrip.platform.dal.dao.helper.DalColumnMapRowMapper;
+import com.ctrip.platform.dal.dao.helper.DalRowCallbackExtractor;
 import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
 import com.ctrip.platform.dal.dao.helper.HintsAwareExtractor;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
 import com.ctrip.platform.dal.exceptions.DalException;
 
 /**
@@ -35,16 +43,34 @@ public class DalDirectClient implements DalClient {
 	private DalStatementCreator stmtCreator;
 	private DalConnectionManager connManager;
 	private DalTransactionManager transManager;
+	private ReadCoalescer coalescer = new ReadCoalescer();
 
 	public DalDirectClient(DalConfigure config, String logicDbName) {
 		connManager = new DalConnectionManager(logicDbName, config);
 		transManager = new DalTransactionManager(connManager);
-		stmtCreator = new DalStatementCreator(config.getDatabaseSet(logicDbName).getDatabaseCategory());
+		stmtCreator = new DalStatementCreator(config.getDatabaseSet(logicDbName).getDatabaseCategory(), getStatementCacheSize(config));
+	}
+
+	private int getStatementCacheSize(DalConfigure config) {
+		if(config.getFacory() == null)
+			return DalStatementCache.DEFAULT_STATEMENT_CACHE_SIZE;
+		
+		String value = config.getFacory().getProperty(DalStatementCache.STATEMENT_CACHE_SIZE);
+		return value == null ? DalStatementCache.DEFAULT_STATEMENT_CACHE_SIZE : Integer.parseInt(value);
 	}
 
 	@Override
 	public <T> T query(String sql, StatementParameters parameters, final DalHints hints, final DalResultSetExtractor<T> extractor)
 			throws SQLException {
+		if(hints.isCoalesceRead() && !DalTransactionManager.isInTransaction())
+			return coalescedQuery(sql, parameters, hints, extractor);
+		
+		if(isHedged(hints, extractor)) {
+			List<String> slaves = connManager.getSlaveCandidates(hints, 2);
+			if(slaves.size() > 1)
+				return hedgedQuery(sql, parameters, hints, extractor, slaves);
+		}
+		
 		ConnectionAction<T> action = new ConnectionAction<T>() {
 			@Override
 			public T execute() throws Exception {
@@ -55,12 +81,7 @@ public class DalDirectClient implements DalClient {
 				rs = preparedStatement.executeQuery();
 				DalWatcher.endExectue();
 				
-				T result;
-				
-				if(extractor instanceof HintsAwareExtractor)
-				    result = ((DalResultSetExtractor<T>)((HintsAwareExtractor)extractor).extractWith(hints)).extract(rs);
-				else
-				    result = extractor.extract(rs);
+				T result = extract(extractor, hints, rs);
 				
 				entry.setResultCount(fetchSize(rs, result));
 				
@@ -72,6 +93,109 @@ public class DalDirectClient implements DalClient {
 		return doInConnection(action, hints);
 	}
 
+	private static <T> T extract(DalResultSetExtractor<T> extractor, DalHints hints, ResultSet rs) throws SQLException {
+		if(extractor instanceof HintsAwareExtractor)
+		    return ((DalResultSetExtractor<T>)((HintsAwareExtractor)extractor).extractWith(hints)).extract(rs);
+		else
+		    return extractor.extract(rs);
+	}
+	
+	/**
+	 * The query is executed once for concurrent callers with the same key and the result set is 
+	 * kept in memory. Each caller extracts the result from its own copy of the result set, so
+	 * that the entities are not shared and extractors of different types can be used.
+	 * Max rows is part of the key, because it limits the rows of the shared result set.
+	 */
+	private <T> T coalescedQuery(final String sql, final StatementParameters parameters, DalHints hints, DalResultSetExtractor<T> extractor)
+			throws SQLException {
+		final DalHints executionHints = hints.clone().set(DalHintEnum.coalesceRead, false);
+		CachedRowSet snapshot = coalescer.execute(getCoalesceKey(sql, parameters, hints), new Callable<CachedRowSet>() {
+			public CachedRowSet call() throws Exception {
+				return query(sql, parameters, executionHints, new SnapshotExtractor());
+			}
+		}, DalRequestExecutor.getCurrentDeadline());
+		
+		CachedRowSet copy;
+		synchronized (snapshot) {
+			copy = snapshot.createCopy();
+		}
+		
+		try {
+			return extract(extractor, hints, copy);
+		} finally {
+			copy.close();
+		}
+	}
+	
+	private String getCoalesceKey(String sql, StatementParameters parameters, DalHints hints) throws SQLException {
+		StringBuilder key = new StringBuilder(connManager.getLogicDbName()).append('|')
+				.append(connManager.evaluateShard(hints)).append('|')
+				.append(hints.getString(DalHintEnum.designatedDatabase)).append('|')
+				.append(hints.is(DalHintEnum.masterOnly)).append('|')
+				.append(hints.getInt(DalHintEnum.maxRows)).append('|')
+				.append(sql);
+		
+		if(parameters != null) {
+			for(StatementParameter parameter: parameters.values()) {
+				Object value = parameter.getValue();
+				key.append('|').append(parameter.getIndex()).append(':').append(parameter.getSqlType()).append(':')
+						.append(value == null ? null : value.getClass().getName()).append(':')
+						.append(value instanceof Object[] ? Arrays.deepToString((Object[])value) : value instanceof byte[] ? Arrays.toString((byte[])value) : String.valueOf(value));
+			}
+		}
+		
+		return key.toString();
+	}
+	
+	public ReadCoalescer getCoalescer() {
+		return coalescer;
+	}
+	
+	/**
+	 * Keep all the rows in memory. Some drivers report column name instead of alias, so 
+	 * the column names are replaced by the labels to make sure the mappers work the same.
+	 */
+	private static class SnapshotExtractor implements DalResultSetExtractor<CachedRowSet> {
+		@Override
+		public CachedRowSet extract(ResultSet rs) throws SQLException {
+			CachedRowSet snapshot = RowSetProvider.newFactory().createCachedRowSet();
+			snapshot.populate(rs);
+			
+			RowSetMetaData meta = (RowSetMetaData)snapshot.getMetaData();
+			for(int i = 1; i <= meta.getColumnCount(); i++)
+				meta.setColumnName(i, meta.getColumnLabel(i));
+			
+			return snapshot;
+		}
+	}
+	
+	/**
+	 * Extractor that processes rows with side effect can not be executed twice
+	 */
+	private <T> boolean isHedged(DalHints hints, DalResultSetExtractor<T> extractor) {
+		return hints.getHedgeDelay() != null && !(extractor instanceof DalRowCallbackExtractor);
+	}
+	
+	/**
+	 * Each attempt goes to the designated slave with copy of the hints. The caller's hints
+	 * are not shared with the attempts because attempts may run concurrently.
+	 */
+	private <T> T hedgedQuery(String sql, StatementParameters parameters, DalHints hints, DalResultSetExtractor<T> extractor, List<String> slaves)
+			throws SQLException {
+		return new HedgedRead<T>(DalRequestExecutor.getExecutor(connManager.getLogicDbName()), hints.getHedgeDelay()).execute(
+				attempt(sql, parameters, hints, extractor, slaves.get(0)), 
+				attempt(sql, parameters, hints, extractor, slaves.get(1)));
+	}
+	
+	private <T> Callable<T> attempt(final String sql, final StatementParameters parameters, DalHints hints, final DalResultSetExtractor<T> extractor, String slave) {
+		final DalHints attemptHints = hints.clone().inDatabase(slave).set(DalHintEnum.hedgeDelay, null);
+		return new Callable<T>() {
+			public T call() throws Exception {
+				return query(sql, parameters, attemptHints, extractor);
+			}
+		};
+	}
+
 	@Override
 	public List<?> query(String sql, StatementParameters parameters, final DalHints hints, final List<DalResultSetExtractor<?>> extractors) 
 			throws SQLException {
@@ -195,6 +319,55 @@ public class DalDirectClient implements DalClient {
 		return executeBatch(action, hints);
 	}
 
+	/**
+	 * Execute the write statement that outputs rows, like the OUTPUT clause of SQL Server. It is
+	 * executed as update, so it goes to master and is neither coalesced nor retried like query.
+	 * @return result extracted from the output rows
+	 */
+	public <T> T updateWithOutput(String sql, StatementParameters parameters, final DalHints hints, final DalResultSetExtractor<T> extractor)
+			throws SQLException {
+		ConnectionAction<T> action = new ConnectionAction<T>() {
+			@Override
+			public T execute() throws Exception {
+				conn = getConnection(hints, this);
+				
+				preparedStatement = createPreparedStatement(conn, sql, parameters, hints);
+				DalWatcher.beginExecute();
+				rs = preparedStatement.executeQuery();
+				DalWatcher.endExectue();
+				
+				return extract(extractor, hints, rs);
+			}
+		};
+		action.populate(DalEventEnum.UPDATE_SIMPLE, sql, parameters);
+		
+		return doInConnection(action, hints);
+	}
+
+	/**
+	 * Insert the rows through the native bulk load path of the driver. The connection is located
+	 * by hints the same way as update.
+	 * @return number of rows inserted
+	 */
+	public int bulkCopy(final BulkCopy bulkCopy, final String tableName, final String[] columns, final int[] types, 
+			final List<Object[]> rows, final DalHints hints) throws SQLException {
+		ConnectionAction<Integer> action = new ConnectionAction<Integer>() {
+			@Override
+			public Integer execute() throws Exception {
+				conn = getConnection(hints, this);
+				
+				DalWatcher.beginExecute();
+				int count = bulkCopy.copy(conn, tableName, columns, types, rows, hints);
+				DalWatcher.endExectue();
+				
+				return count;
+			}
+		};
+		action.populate(DalEventEnum.UPDATE_SIMPLE, bulkCopy.getDescription(tableName, columns), null);
+		
+		return doInConnection(action, hints);
+	}
+
 	@Override
 	public void execute(DalCommand command, DalHints hints) throws SQLException {
 		final DalClient client = this;
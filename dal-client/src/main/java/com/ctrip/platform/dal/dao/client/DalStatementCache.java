@@ -0,0 +1,214 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+
+/**
+ * LRU cache of prepared statements of one physical connection. The cache is kept in the
+ * attributes of the pooled connection, so it survives returning the connection to the pool
+ * and goes away with the physical connection.
+ *
+ * Statements are prepared on the physical connection directly. Otherwise they would be closed
+ * by the StatementFinalizer interceptor of the pool each time the connection is returned.
+ *
+ * A cached statement is checked out when it is used and checked in when the action closes it.
+ * It is reset before checked in, so that parameters, batch and limits of the last execution
+ * do not leak to the next one. Statement that can not be reset is closed.
+ *
+ * @author jhhe
+ */
+public class DalStatementCache {
+	public static final String STATEMENT_CACHE_SIZE = "statementCacheSize";
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 0;
+
+	private static final String ATTRIBUTE_NAME = DalStatementCache.class.getName();
+
+	private static final Map<Statement, Entry> checkedOut = new ConcurrentHashMap<>();
+	private static final AtomicLong hitCount = new AtomicLong();
+	private static final AtomicLong missCount = new AtomicLong();
+	private static final AtomicLong evictionCount = new AtomicLong();
+
+	private final Connection connection;
+	private final int maxSize;
+	private final LinkedHashMap<String, Entry> idle;
+
+	/**
+	 * @param connection the physical connection
+	 */
+	public DalStatementCache(Connection connection, int maxSize) {
+		this.connection = connection;
+		this.maxSize = maxSize;
+		idle = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * @return cache of the physical connection or null if the cache is disabled or the
+	 * connection is not from tomcat pool
+	 */
+	public static DalStatementCache getCache(Connection conn, int maxSize) {
+		if(maxSize <= 0)
+			return null;
+
+		try {
+			// Tomcat pool unwraps to PooledConnection, though isWrapperFor tells false for it
+			PooledConnection pConn = conn.unwrap(PooledConnection.class);
+			if(pConn == null)
+				return null;
+
+			synchronized (pConn) {
+				Map<Object, Object> attributes = pConn.getAttributes();
+				DalStatementCache cache = (DalStatementCache)attributes.get(ATTRIBUTE_NAME);
+				
+				// The pool may reconnect, statements of the old connection are gone with it
+				if(cache == null || cache.connection != pConn.getConnection()) {
+					cache = new DalStatementCache(pConn.getConnection(), maxSize);
+					attributes.put(ATTRIBUTE_NAME, cache);
+				}
+				return cache;
+			}
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Take the idle statement from cache or prepare a new one on the physical connection
+	 */
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, boolean generatedKeys) throws SQLException {
+		String key = resultSetType + ":" + resultSetConcurrency + ":" + generatedKeys + ":" + sql;
+		Entry entry;
+		synchronized (idle) {
+			entry = idle.remove(key);
+		}
+
+		if(entry != null && !entry.statement.isClosed()) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+			PreparedStatement statement = generatedKeys ? 
+					connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) :
+					connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			entry = new Entry(this, key, statement);
+		}
+
+		checkedOut.put(entry.statement, entry);
+		return entry.statement;
+	}
+
+	/**
+	 * Put the statement back to its cache if it is checked out from or tracked by a cache.
+	 * @return false if the statement is not cached and should be closed by caller
+	 */
+	public static boolean checkin(Statement statement) {
+		Entry entry = checkedOut.remove(statement);
+		if(entry == null)
+			return false;
+
+		if(!entry.reset()) {
+			entry.close();
+			return true;
+		}
+
+		entry.cache.put(entry);
+		return true;
+	}
+
+	/**
+	 * Forget the statement without putting it back. The caller is responsible to close it.
+	 */
+	public static void discard(Statement statement) {
+		checkedOut.remove(statement);
+	}
+
+	private void put(Entry entry) {
+		Entry replaced;
+		Entry eldest = null;
+		synchronized (idle) {
+			replaced = idle.put(entry.key, entry);
+			if(idle.size() > maxSize) {
+				Iterator<Entry> it = idle.values().iterator();
+				eldest = it.next();
+				it.remove();
+			}
+		}
+
+		if(replaced != null)
+			replaced.close();
+
+		if(eldest != null) {
+			evictionCount.incrementAndGet();
+			eldest.close();
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		synchronized (idle) {
+			return idle.size();
+		}
+	}
+
+	public static long getHitCount() {
+		return hitCount.get();
+	}
+
+	public static long getMissCount() {
+		return missCount.get();
+	}
+
+	public static long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	private static class Entry {
+		private DalStatementCache cache;
+		private String key;
+		private PreparedStatement statement;
+		private int defaultFetchSize;
+
+		private Entry(DalStatementCache cache, String key, PreparedStatement statement) throws SQLException {
+			this.cache = cache;
+			this.key = key;
+			this.statement = statement;
+			this.defaultFetchSize = statement.getFetchSize();
+		}
+
+		private boolean reset() {
+			try {
+				if(statement.isClosed())
+					return false;
+
+				statement.clearParameters();
+				statement.clearBatch();
+				statement.setMaxRows(0);
+				statement.setFetchSize(defaultFetchSize);
+				statement.setQueryTimeout(0);
+				return true;
+			} catch (Throwable e) {
+				return false;
+			}
+		}
+
+		private void close() {
+			try {
+				statement.close();
+			} catch (Throwable e) {
+				DalClientFactory.getDalLogger().error("Close cached statement failed.", e);
+			}
+		}
+	}
+}
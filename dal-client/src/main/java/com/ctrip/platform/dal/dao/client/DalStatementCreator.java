@@ -14,18 +14,30 @@ import com.ctrip.platform.dal.dao.KeyHolder;
 import com.ctrip.platform.dal.dao.StatementParameter;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.status.DalStatusManager;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
 
 public class DalStatementCreator {
 	private static final int DEFAULT_RESULT_SET_TYPE = ResultSet.TYPE_FORWARD_ONLY;
 	private static final int DEFAULT_RESULT_SET_CONCURRENCY = ResultSet.CONCUR_READ_ONLY;
 	
 	private DatabaseCategory dbCategory;
+	private int statementCacheSize;
+	
 	public DalStatementCreator(DatabaseCategory dbCategory) {
+	    this(dbCategory, DalStatementCache.DEFAULT_STATEMENT_CACHE_SIZE);
+	}
+	
+	/**
+	 * @param statementCacheSize max number of idle prepared statements cached for each physical connection, 0 means no cache
+	 */
+	public DalStatementCreator(DatabaseCategory dbCategory, int statementCacheSize) {
 	    this.dbCategory = dbCategory;
+	    this.statementCacheSize = statementCacheSize;
 	}
 	
 	public Statement createStatement(Connection conn, DalHints hints) throws Exception {
 		Statement statement = conn.createStatement(getResultSetType(hints), getResultSetConcurrency(hints));
+		StatementCanceller.register(statement);
 		
 		applyHints(statement, hints);
 		
@@ -33,30 +45,48 @@ public class DalStatementCreator {
 	}
 
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters parameters, DalHints hints) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+		PreparedStatement statement = prepareStatement(conn, sql, hints, false);
+		StatementCanceller.register(statement);
 		
-		applyHints(statement, hints);
-		setParameter(statement, parameters);
+		try {
+			applyHints(statement, hints);
+			setParameter(statement, parameters);
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
+		}
 		
 		return statement;
 	}
 	
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters parameters, DalHints hints, KeyHolder keyHolder) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql,Statement.RETURN_GENERATED_KEYS);
+		PreparedStatement statement = prepareStatement(conn, sql, hints, true);
+		StatementCanceller.register(statement);
 		
-		applyHints(statement, hints);
-		setParameter(statement, parameters);
+		try {
+			applyHints(statement, hints);
+			setParameter(statement, parameters);
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
+		}
 		
 		return statement;
 	}
 	
 	public PreparedStatement createPreparedStatement(Connection conn, String sql, StatementParameters[] parametersList, DalHints hints) throws Exception {
-		PreparedStatement statement = conn.prepareStatement(sql, getResultSetType(hints), getResultSetConcurrency(hints));
+		PreparedStatement statement = prepareStatement(conn, sql, hints, false);
+		StatementCanceller.register(statement);
 		
-		applyHints(statement, hints);
-		for(StatementParameters parameters: parametersList) {
-			setParameter(statement, parameters);
-			statement.addBatch();
+		try {
+			applyHints(statement, hints);
+			for(StatementParameters parameters: parametersList) {
+				setParameter(statement, parameters);
+				statement.addBatch();
+			}
+		} catch (Exception e) {
+			discard(statement);
+			throw e;
 		}
 		
 		return statement;
@@ -64,6 +94,7 @@ public class DalStatementCreator {
 	
 	public CallableStatement createCallableStatement(Connection conn,  String sql, StatementParameters parameters, DalHints hints) throws Exception {
 		CallableStatement statement = conn.prepareCall(sql);
+		StatementCanceller.register(statement);
 		
 		applyHints(statement, hints);
 		setParameter(statement, parameters);
@@ -74,6 +105,7 @@ public class DalStatementCreator {
 	
 	public CallableStatement createCallableStatement(Connection conn,  String sql, StatementParameters[] parametersList, DalHints hints) throws Exception {
 		CallableStatement statement = conn.prepareCall(sql);
+		StatementCanceller.register(statement);
 		
 		applyHints(statement, hints);
 		
@@ -85,6 +117,36 @@ public class DalStatementCreator {
 		return statement;
 	}
 
+	/**
+	 * Take the statement from cache of the physical connection if possible. The statement is put back 
+	 * to the cache when it is closed by ConnectionAction.
+	 */
+	private PreparedStatement prepareStatement(Connection conn, String sql, DalHints hints, boolean generatedKeys) throws SQLException {
+		int resultSetType = getResultSetType(hints);
+		int resultSetConcurrency = getResultSetConcurrency(hints);
+		
+		DalStatementCache cache = DalStatementCache.getCache(conn, statementCacheSize);
+		if(cache != null)
+			return cache.prepareStatement(sql, resultSetType, resultSetConcurrency, generatedKeys);
+		
+		return generatedKeys ? 
+				conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) :
+				conn.prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
+	/**
+	 * Statement that fails to be populated is not returned to action, close it here so that 
+	 * it neither stays in the cache nor in the physical connection
+	 */
+	private void discard(PreparedStatement statement) {
+		StatementCanceller.unregister(statement);
+		DalStatementCache.discard(statement);
+		try {
+			statement.close();
+		} catch (Throwable e) {
+		}
+	}
+
 	private void setParameter(PreparedStatement statement, StatementParameters parameters) throws Exception {
 		for (StatementParameter parameter: parameters.values()) {
 			if(parameter.isInputParameter())
@@ -114,7 +176,8 @@ public class DalStatementCreator {
 	private void applyHints(Statement statement, DalHints hints) throws SQLException {
 		Integer fetchSize = (Integer)hints.get(DalHintEnum.fetchSize);
 		
-		if(fetchSize != null && fetchSize > 0)
+		// Integer.MIN_VALUE is for MySql streaming result set
+		if(fetchSize != null && (fetchSize > 0 || fetchSize == Integer.MIN_VALUE))
 			statement.setFetchSize(fetchSize);
 
 		Integer maxRows = (Integer)hints.get(DalHintEnum.maxRows);
@@ -122,13 +185,13 @@ public class DalStatementCreator {
 			statement.setMaxRows(maxRows);
 
 		Integer timeout = (Integer)hints.get(DalHintEnum.timeout);
-		if (timeout != null && timeout >= 0) {
-			statement.setQueryTimeout(timeout);
-		} else {
+		if (timeout == null || timeout < 0)
 			timeout = DalStatusManager.getTimeoutMarkdown().getTimeoutThreshold();
-			if (timeout >= 0)
-				statement.setQueryTimeout(timeout);
-		}
+		
+		// Request deadline applies to the statements of its tasks
+		timeout = DalRequestExecutor.capTimeout(timeout);
+		if (timeout >= 0)
+			statement.setQueryTimeout(timeout);
 		
 	}
 	
@@ -0,0 +1,197 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Admission control of connections to one physical data source. A connection can only be
+ * taken from the pool when the number of connections in use by DAL is below the limit,
+ * otherwise the caller waits in FIFO order. This keeps a burst of cross shard requests from
+ * flooding a database that hosts many shards. Data sources whose URLs point to the same host
+ * and port share one limiter.
+ *
+ * The limit can be changed at runtime, 0 or negative value means no limit. The caller never waits
+ * beyond the deadline of its request.
+ *
+ * @author jhhe
+ */
+public class DataSourceLimiter {
+	public static final String MAX_CONCURRENCY = "maxDataSourceConcurrency";
+	public static final String MAX_WAIT_MILLIS = "maxDataSourceWaitMillis";
+
+	public static final int DEFAULT_MAX_CONCURRENCY = 0;
+	public static final long DEFAULT_MAX_WAIT_MILLIS = 10000;
+
+	private final String name;
+	private final ReentrantLock lock = new ReentrantLock(true);
+	private final Condition available = lock.newCondition();
+	private volatile int maxConcurrency;
+	private volatile long maxWaitMillis;
+	private volatile int inFlight;
+	private volatile int waiting;
+
+	private final AtomicLong acquiredCount = new AtomicLong();
+	private final AtomicLong waitedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong totalWaitMillis = new AtomicLong();
+	private final AtomicLong maxWaitedMillis = new AtomicLong();
+
+	public DataSourceLimiter(String name, int maxConcurrency, long maxWaitMillis) {
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * @return host and port of the JDBC URL, or null if it can not be parsed
+	 */
+	public static String getHost(String url) {
+		if(url == null)
+			return null;
+		
+		int start = url.indexOf("//");
+		if(start < 0)
+			return null;
+		
+		start += 2;
+		int end = start;
+		while(end < url.length() && "/;?".indexOf(url.charAt(end)) < 0)
+			end++;
+		
+		return end == start ? null : url.substring(start, end).toLowerCase();
+	}
+
+	/**
+	 * Wait until the connection can be taken
+	 * @throws DalException if it is not admitted within max wait time
+	 */
+	public void acquire() throws DalException {
+		acquire(DalRequestExecutor.NO_DEADLINE);
+	}
+
+	/**
+	 * Wait until the connection can be taken
+	 * @param deadline of the request in milliseconds, the wait does not go beyond it
+	 * @throws DalException if it is not admitted within max wait time or before the deadline
+	 */
+	public void acquire(long deadline) throws DalException {
+		long start = System.currentTimeMillis();
+		long waitMillis = deadline == DalRequestExecutor.NO_DEADLINE ? maxWaitMillis : Math.min(maxWaitMillis, deadline - start);
+		boolean waited = false;
+		lock.lock();
+		try {
+			long remaining = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+			while(isFull()) {
+				if(remaining <= 0) {
+					rejectedCount.incrementAndGet();
+					throw new DalException(ErrorCode.DataSourceBusy, name, inFlight, Math.max(waitMillis, 0));
+				}
+
+				waited = true;
+				waiting++;
+				try {
+					remaining = available.awaitNanos(remaining);
+				} finally {
+					waiting--;
+				}
+			}
+			inFlight++;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DalException(ErrorCode.DataSourceBusy, e, name, inFlight, Math.max(waitMillis, 0));
+		} finally {
+			lock.unlock();
+			if(waited)
+				recordWait(System.currentTimeMillis() - start);
+		}
+
+		acquiredCount.incrementAndGet();
+	}
+
+	public void release() {
+		lock.lock();
+		try {
+			inFlight--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean isFull() {
+		return maxConcurrency > 0 && inFlight >= maxConcurrency;
+	}
+
+	private void recordWait(long elapsed) {
+		waitedCount.incrementAndGet();
+		totalWaitMillis.addAndGet(elapsed);
+
+		long max;
+		do {
+			max = maxWaitedMillis.get();
+		} while(elapsed > max && !maxWaitedMillis.compareAndSet(max, elapsed));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Waiters are woken up when the limit is raised
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		lock.lock();
+		try {
+			this.maxConcurrency = maxConcurrency;
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public void setMaxWaitMillis(long maxWaitMillis) {
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public long getAcquiredCount() {
+		return acquiredCount.get();
+	}
+
+	public long getWaitedCount() {
+		return waitedCount.get();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public long getTotalWaitMillis() {
+		return totalWaitMillis.get();
+	}
+
+	public long getMaxWaitedMillis() {
+		return maxWaitedMillis.get();
+	}
+}
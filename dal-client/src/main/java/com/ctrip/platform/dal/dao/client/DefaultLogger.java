@@ -148,6 +148,9 @@ public class DefaultLogger extends LoggerAdapter implements DalLogger {
 			} else {
 				msg.append("\t").append("parameters : ").append(LINESEPARATOR);
 			}
+			if (entry.getExecutionPlan() != null) {
+				msg.append("\t").append("executionPlan : ").append(entry.getExecutionPlan()).append(LINESEPARATOR);
+			}
 			msg.append("\t").append("CostDetail : ").append(DalWatcher.toJson()).append(LINESEPARATOR);
 			msg.append("\t").append("SQL.database : ").append(entry.getDbUrl()).append(LINESEPARATOR);
 			logger.info(msg.toString());
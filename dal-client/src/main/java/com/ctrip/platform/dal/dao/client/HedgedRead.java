@@ -0,0 +1,138 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.exceptions.DalException;
+
+/**
+ * Execute the same read against two databases. The primary attempt is submitted to the executor.
+ * If it does not complete within the delay, the hedge attempt is submitted too. The caller waits
+ * for the first successful attempt and the statement of the other one is cancelled. So the
+ * caller does not wait for the primary attempt that ignores cancel after the hedge attempt wins.
+ *
+ * If an attempt is not started by the executor when the caller needs it, that is after the delay
+ * for the primary attempt and after the primary attempt fails for the hedge attempt, it runs in
+ * the caller thread. So the caller never waits for a task queued in a saturated executor, even if
+ * the caller itself is a task of that executor.
+ *
+ * Attempts are cancelled by the cancellers bound to the caller thread and keep the deadline of
+ * the caller.
+ *
+ * @author jhhe
+ */
+public class HedgedRead<T> {
+	private Executor executor;
+	private long delay;
+	private AtomicReference<Attempt> winner = new AtomicReference<>();
+	private BlockingQueue<Attempt> completed = new LinkedBlockingQueue<>();
+
+	/**
+	 * @param delay in milliseconds
+	 */
+	public HedgedRead(Executor executor, long delay) {
+		this.executor = executor;
+		this.delay = Math.max(delay, 0);
+	}
+
+	public T execute(Callable<T> primary, Callable<T> hedge) throws SQLException {
+		Attempt first = new Attempt(primary);
+		Attempt second = new Attempt(hedge);
+		first.rival = second;
+		second.rival = first;
+
+		try {
+			submit(first);
+			Attempt done = completed.poll(delay, TimeUnit.MILLISECONDS);
+			if(done == null) {
+				submit(second);
+				if(first.claim())
+					first.execute();
+			}
+
+			for(int failed = 0; failed < 2; failed++) {
+				if(done == null)
+					done = completed.take();
+
+				if(done.error == null)
+					return done.result;
+
+				// The rival is not started yet, do not wait for the executor
+				if(done.rival.claim())
+					done.rival.execute();
+				done = null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DalException.wrap(e);
+		} finally {
+			// The rival of the winner is cancelled by the winner, cancel both if the caller gives up
+			if(winner.get() == null) {
+				first.cancel();
+				second.cancel();
+			}
+		}
+
+		throw first.error instanceof SQLException ? (SQLException)first.error : DalException.wrap(first.error);
+	}
+
+	private void submit(Attempt attempt) {
+		try {
+			executor.execute(attempt);
+		} catch (RejectedExecutionException e) {
+			// The attempt runs in caller thread when it is needed
+		}
+	}
+
+	private class Attempt implements Runnable {
+		private Callable<T> task;
+		private Attempt rival;
+		private StatementCanceller canceller = new StatementCanceller(StatementCanceller.getCurrent());
+		private long deadline = DalRequestExecutor.getCurrentDeadline();
+		private AtomicBoolean started = new AtomicBoolean();
+		private volatile T result;
+		private volatile Throwable error;
+
+		private Attempt(Callable<T> task) {
+			this.task = task;
+		}
+
+		private boolean claim() {
+			return started.compareAndSet(false, true);
+		}
+
+		private void cancel() {
+			// Attempt not started yet will never run
+			if(!claim())
+				canceller.cancel();
+		}
+
+		@Override
+		public void run() {
+			if(claim())
+				execute();
+		}
+
+		private void execute() {
+			canceller.bind();
+			try {
+				result = DalRequestExecutor.callBeforeDeadline(task, deadline);
+				if(winner.compareAndSet(null, this))
+					rival.cancel();
+			} catch (Throwable e) {
+				error = e;
+			} finally {
+				canceller.unbind();
+				completed.add(this);
+			}
+		}
+	}
+}
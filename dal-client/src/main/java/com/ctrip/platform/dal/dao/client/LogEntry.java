@@ -27,6 +27,7 @@ public class LogEntry {
 	private String method;
 	private String source;
 	private String clientVersion;
+	private String executionPlan;
 
 	private Throwable exception;
 	
@@ -235,6 +236,14 @@ public class LogEntry {
 		this.clientVersion = clientVersion;
 	}
 	
+	public String getExecutionPlan() {
+		return executionPlan;
+	}
+
+	public void setExecutionPlan(String executionPlan) {
+		this.executionPlan = executionPlan;
+	}
+	
 	public long getCreateTime() {
 		return createTime;
 	}
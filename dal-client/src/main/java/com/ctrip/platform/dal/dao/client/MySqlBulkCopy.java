@@ -0,0 +1,164 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.DalHintEnum;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+
+/**
+ * Load rows with LOAD DATA LOCAL INFILE. The file is an input stream that encodes the rows
+ * on demand as tab separated UTF-8 text, so the rows are not copied into one big buffer.
+ *
+ * NULL is written as \N. Backslash, tab, new line, carriage return and zero byte in values are
+ * escaped by backslash. Binary values are written as is with the same escaping.
+ *
+ * The connection must allow local infile, which is the default of Connector/J 5.1.
+ *
+ * MySQL treats LOAD DATA LOCAL as IGNORE, the server can not abort reading a file sent by the
+ * client. Rows that duplicate an existing primary or unique key are skipped with warnings
+ * instead of failing the load. IGNORE is written in the statement to make it visible in log,
+ * and the returned count is the rows actually inserted, which is less than the rows given when
+ * some are skipped.
+ *
+ * @author jhhe
+ */
+public class MySqlBulkCopy extends BulkCopy {
+	private static final String TMPL_LOAD_DATA = "LOAD DATA LOCAL INFILE 'dal_bulk_load' IGNORE INTO TABLE %s CHARACTER SET utf8mb4 "
+			+ "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (%s)";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final byte[] NULL = {'\\', 'N'};
+
+	@Override
+	public String getDescription(String tableName, String[] columns) {
+		StringBuilder sb = new StringBuilder();
+		for(String column: columns) {
+			if(sb.length() > 0)
+				sb.append(", ");
+			sb.append(DatabaseCategory.MySql.quote(column));
+		}
+		return String.format(TMPL_LOAD_DATA, tableName, sb);
+	}
+
+	@Override
+	public int copy(Connection conn, String tableName, String[] columns, int[] types, List<Object[]> rows, DalHints hints) throws SQLException {
+		try (Statement statement = conn.createStatement()) {
+			Integer timeout = DalRequestExecutor.capTimeout(hints.getInt(DalHintEnum.timeout));
+			if(timeout != null)
+				statement.setQueryTimeout(timeout);
+
+			statement.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(toInfileStream(rows));
+			return statement.executeUpdate(getDescription(tableName, columns));
+		}
+	}
+
+	public InputStream toInfileStream(List<Object[]> rows) {
+		return new InfileInputStream(rows.iterator());
+	}
+
+	private static class InfileInputStream extends InputStream {
+		private Iterator<Object[]> rows;
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private byte[] line = new byte[0];
+		private int position;
+
+		private InfileInputStream(Iterator<Object[]> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public int read() {
+			if(!fill())
+				return -1;
+			return line[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if(len == 0)
+				return 0;
+
+			if(!fill())
+				return -1;
+
+			int count = Math.min(len, line.length - position);
+			System.arraycopy(line, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		private boolean fill() {
+			while(position == line.length) {
+				if(!rows.hasNext())
+					return false;
+
+				buffer.reset();
+				Object[] row = rows.next();
+				for(int i = 0; i < row.length; i++) {
+					if(i > 0)
+						buffer.write('\t');
+					write(row[i]);
+				}
+				buffer.write('\n');
+
+				line = buffer.toByteArray();
+				position = 0;
+			}
+			return true;
+		}
+
+		private void write(Object value) {
+			if(value == null) {
+				buffer.write(NULL, 0, NULL.length);
+				return;
+			}
+
+			byte[] bytes;
+			if(value instanceof byte[])
+				bytes = (byte[])value;
+			else if(value instanceof Boolean)
+				bytes = ((Boolean)value) ? new byte[]{'1'} : new byte[]{'0'};
+			else if(value instanceof BigDecimal)
+				bytes = ((BigDecimal)value).toPlainString().getBytes(UTF8);
+			else if(value instanceof java.util.Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp))
+				bytes = new Timestamp(((java.util.Date)value).getTime()).toString().getBytes(UTF8);
+			else
+				bytes = value.toString().getBytes(UTF8);
+
+			for(byte b: bytes) {
+				switch (b) {
+				case '\\':
+				case '\t':
+					buffer.write('\\');
+					buffer.write(b);
+					break;
+				case '\n':
+					buffer.write('\\');
+					buffer.write('n');
+					break;
+				case '\r':
+					buffer.write('\\');
+					buffer.write('r');
+					break;
+				case 0:
+					buffer.write('\\');
+					buffer.write('0');
+					break;
+				default:
+					buffer.write(b);
+				}
+			}
+		}
+	}
+}
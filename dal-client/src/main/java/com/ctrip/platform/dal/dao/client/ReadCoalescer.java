@@ -0,0 +1,115 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Let concurrent identical reads share one execution. The first caller of a key executes the
+ * read, the callers that come with the same key before it completes wait and get the same
+ * result or error. The key is removed once the read completes, so nothing is cached.
+ *
+ * A caller waits for the shared read no longer than its own deadline. If the read fails because
+ * its statement is cancelled by the deadline of the first caller, the others execute the read
+ * by themselves instead of getting the error.
+ *
+ * The shared result must not be modified by callers. DalDirectClient shares a snapshot of
+ * the result set and each caller extracts its own copy.
+ *
+ * @author jhhe
+ */
+public class ReadCoalescer {
+	private ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+	private AtomicLong executedCount = new AtomicLong();
+	private AtomicLong coalescedCount = new AtomicLong();
+
+	public <T> T execute(String key, Callable<T> read) throws SQLException {
+		return execute(key, read, DalRequestExecutor.NO_DEADLINE);
+	}
+
+	/**
+	 * @param deadline time in milliseconds the caller waits for the shared read until
+	 */
+	public <T> T execute(String key, Callable<T> read, long deadline) throws SQLException {
+		Flight flight = new Flight();
+		Flight inFlight = flights.putIfAbsent(key, flight);
+		if(inFlight != null) {
+			coalescedCount.incrementAndGet();
+			inFlight.await(deadline);
+			if(!inFlight.cancelled)
+				return inFlight.get();
+
+			// Cancelled by the deadline of the first caller, which is not the one of this caller
+			Flight own = new Flight();
+			executedCount.incrementAndGet();
+			try {
+				own.result = read.call();
+			} catch (Throwable e) {
+				own.error = e;
+			}
+			return own.get();
+		}
+
+		executedCount.incrementAndGet();
+		try {
+			flight.result = read.call();
+		} catch (Throwable e) {
+			flight.error = e;
+			flight.cancelled = StatementCanceller.isCurrentCancelled();
+		} finally {
+			flights.remove(key, flight);
+			flight.done.countDown();
+		}
+
+		return flight.get();
+	}
+
+	/**
+	 * @return number of reads that are executed
+	 */
+	public long getExecutedCount() {
+		return executedCount.get();
+	}
+
+	/**
+	 * @return number of reads that share the execution of others
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	private static class Flight {
+		private CountDownLatch done = new CountDownLatch(1);
+		private volatile Object result;
+		private volatile Throwable error;
+		// The read is failed by the cancellation of the statement
+		private volatile boolean cancelled;
+
+		private void await(long deadline) throws SQLException {
+			try {
+				if(deadline == DalRequestExecutor.NO_DEADLINE)
+					done.await();
+				else if(!done.await(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS))
+					throw new DalException(ErrorCode.CoalescedReadTimeout);
+			} catch (InterruptedException e) {
+				throw DalException.wrap(e);
+			}
+		}
+
+		private <T> T get() throws SQLException {
+			if(error != null)
+				throw error instanceof SQLException ? (SQLException)error : DalException.wrap(error);
+
+			@SuppressWarnings("unchecked")
+			T value = (T)result;
+			return value;
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ctrip.platform.dal.dao.DalHintEnum;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+
+/**
+ * Load rows with SQLServerBulkCopy of mssql-jdbc. Rows are fed to the bulk copy one by one
+ * through ISQLServerBulkRecord. The copy joins the transaction of the connection if there is.
+ *
+ * Character and binary columns are declared with max length, so they are sent as max types and
+ * converted by the server. Scale of decimal columns is the max scale of the values.
+ *
+ * The driver does not tell the rows copied. The rows read from the record by the driver are
+ * counted instead, which are the rows copied since the copy fails as a whole on error.
+ *
+ * @author jhhe
+ */
+public class SqlServerBulkCopy extends BulkCopy {
+	private static final int MAX_PRECISION = Integer.MAX_VALUE;
+	private static final int DECIMAL_PRECISION = 38;
+	private static final int TIMESTAMP_PRECISION = 27;
+	private static final int TIMESTAMP_SCALE = 7;
+
+	@Override
+	public String getDescription(String tableName, String[] columns) {
+		StringBuilder sb = new StringBuilder();
+		for(String column: columns) {
+			if(sb.length() > 0)
+				sb.append(", ");
+			sb.append(column);
+		}
+		return String.format("BULK COPY %s(%s)", tableName, sb);
+	}
+
+	@Override
+	public int copy(Connection conn, String tableName, String[] columns, int[] types, List<Object[]> rows, DalHints hints) throws SQLException {
+		try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(conn.unwrap(SQLServerConnection.class))) {
+			SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+			options.setKeepIdentity(!hints.isIdentityInsertDisabled());
+			options.setKeepNulls(true);
+			options.setBatchSize(rows.size());
+
+			Integer timeout = DalRequestExecutor.capTimeout(hints.getInt(DalHintEnum.timeout));
+			if(timeout != null)
+				options.setBulkCopyTimeout(timeout);
+
+			bulkCopy.setBulkCopyOptions(options);
+			bulkCopy.setDestinationTableName(tableName);
+
+			for(int i = 0; i < columns.length; i++)
+				bulkCopy.addColumnMapping(i + 1, columns[i]);
+
+			Record record = new Record(columns, types, rows);
+			bulkCopy.writeToServer(record);
+			return record.count;
+		}
+	}
+
+	private static class Record implements ISQLServerBulkRecord {
+		private String[] columns;
+		private int[] types;
+		private int[] scales;
+		private Iterator<Object[]> rows;
+		private Object[] current;
+		private int count;
+
+		private Record(String[] columns, int[] types, List<Object[]> rows) {
+			this.columns = columns;
+			this.types = types;
+			this.rows = rows.iterator();
+
+			scales = new int[columns.length];
+			for(Object[] row: rows) {
+				for(int i = 0; i < row.length; i++) {
+					if(row[i] instanceof BigDecimal)
+						scales[i] = Math.max(scales[i], ((BigDecimal)row[i]).scale());
+				}
+			}
+		}
+
+		@Override
+		public Set<Integer> getColumnOrdinals() {
+			Set<Integer> ordinals = new LinkedHashSet<>();
+			for(int i = 1; i <= columns.length; i++)
+				ordinals.add(i);
+			return ordinals;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return columns[column - 1];
+		}
+
+		@Override
+		public int getColumnType(int column) {
+			return types[column - 1];
+		}
+
+		@Override
+		public int getPrecision(int column) {
+			switch (types[column - 1]) {
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return DECIMAL_PRECISION;
+			case Types.TIMESTAMP:
+				return TIMESTAMP_PRECISION;
+			default:
+				return MAX_PRECISION;
+			}
+		}
+
+		@Override
+		public int getScale(int column) {
+			switch (types[column - 1]) {
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return scales[column - 1];
+			case Types.TIMESTAMP:
+				return TIMESTAMP_SCALE;
+			default:
+				return 0;
+			}
+		}
+
+		@Override
+		public boolean isAutoIncrement(int column) {
+			return false;
+		}
+
+		@Override
+		public Object[] getRowData() {
+			Object[] row = current.clone();
+			for(int i = 0; i < row.length; i++) {
+				if(row[i] instanceof java.util.Date && !(row[i] instanceof java.sql.Date || row[i] instanceof java.sql.Time || row[i] instanceof Timestamp))
+					row[i] = new Timestamp(((java.util.Date)row[i]).getTime());
+			}
+			return row;
+		}
+
+		@Override
+		public boolean next() {
+			if(!rows.hasNext())
+				return false;
+
+			current = rows.next();
+			count++;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.ctrip.platform.dal.dao.client;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Keep track of the statements created by the thread it is bound to, so that
+ * another thread can cancel them. DalRequestExecutor binds one canceller to each
+ * shard task it submits and cancels it when the shard misses the deadline.
+ *
+ * Statements created by threads without canceller bound are not tracked. If a canceller is bound
+ * while another one is bound, statements are tracked by both until it is unbound. A canceller
+ * created with a parent works on behalf of the thread the parent is bound to: if nothing else is
+ * bound when it is bound, statements are tracked by the parent and its outer cancellers too.
+ *
+ * Cancel and unregister of the same canceller are mutually exclusive. Once unregister returns,
+ * the statement is never cancelled by the canceller, so it can be safely reused by another
+ * query. Statement that was cancelled should not be reused at all.
+ *
+ * @author jhhe
+ */
+public class StatementCanceller {
+	private static ThreadLocal<StatementCanceller> current = new ThreadLocal<>();
+
+	private Set<Statement> statements = Collections.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>());
+	private volatile boolean cancelled;
+	private StatementCanceller outer;
+	private StatementCanceller parent;
+
+	public StatementCanceller() {
+	}
+
+	/**
+	 * @param parent canceller that also cancels the statements tracked by this one, can be null
+	 */
+	public StatementCanceller(StatementCanceller parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * @return the canceller bound to current thread or null
+	 */
+	public static StatementCanceller getCurrent() {
+		return current.get();
+	}
+
+	private StatementCanceller next() {
+		return outer != null ? outer : parent;
+	}
+
+	public void bind() {
+		outer = current.get();
+		current.set(this);
+	}
+
+	public void unbind() {
+		if(outer == null)
+			current.remove();
+		else
+			current.set(outer);
+		outer = null;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return if statements of current thread are cancelled by any of the bound cancellers
+	 */
+	public static boolean isCurrentCancelled() {
+		for(StatementCanceller canceller = current.get(); canceller != null; canceller = canceller.next()) {
+			if(canceller.cancelled)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Cancel all the statements that are executing and prevent new statement from being created.
+	 */
+	public synchronized void cancel() {
+		cancelled = true;
+		for(Statement statement: statements) {
+			try {
+				statement.cancel();
+			} catch (Throwable e) {
+				DalClientFactory.getDalLogger().error("Cancel statement failed.", e);
+			}
+		}
+	}
+
+	/**
+	 * Track the statement with the canceller bound to current thread.
+	 * If the canceller is already cancelled, the statement will be closed.
+	 */
+	public static void register(Statement statement) throws SQLException {
+		boolean cancelled = false;
+		for(StatementCanceller canceller = current.get(); canceller != null; canceller = canceller.next()) {
+			canceller.statements.add(statement);
+			cancelled |= canceller.cancelled;
+		}
+
+		if(cancelled) {
+			unregister(statement);
+			statement.close();
+			throw new DalException(ErrorCode.StatementCancelled);
+		}
+	}
+
+	/**
+	 * Stop tracking the statement. It waits for the cancel in progress of the bound cancellers.
+	 * @return true if the statement is cancelled by any of the bound cancellers
+	 */
+	public static boolean unregister(Statement statement) {
+		boolean cancelled = false;
+		for(StatementCanceller canceller = current.get(); canceller != null; canceller = canceller.next()) {
+			synchronized (canceller) {
+				cancelled |= canceller.statements.remove(statement) && canceller.cancelled;
+			}
+		}
+		return cancelled;
+	}
+}
@@ -22,4 +22,5 @@ public interface DalConfigConstants {
     String SETTINGS = "settings";
     String CONNECTION_LOCATOR = "ConnectionLocator";
     String LOCATOR = "locator";
+    String EXECUTOR = "executor";
 }
@@ -15,6 +15,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -138,6 +139,14 @@ public class DalConfigureFactory implements DalConfigConstants {
         return node.getAttributes().getNamedItem(attributeName).getNodeValue();
     }
 
+    private Map<String, String> getAttributes(Node node) {
+        Map<String, String> attributes = new HashMap<>();
+        NamedNodeMap nodeMap = node.getAttributes();
+        for (int i = 0; i < nodeMap.getLength(); i++)
+            attributes.put(nodeMap.item(i).getNodeName(), nodeMap.item(i).getNodeValue().trim());
+        return attributes;
+    }
+
     private Node getChildNode(Node node, String name) {
         NodeList children = node.getChildNodes();
         Node found = null;
@@ -168,15 +177,22 @@ public class DalConfigureFactory implements DalConfigConstants {
             databases.put(database.getName(), database);
         }
 
+        DatabaseSet databaseSet;
         if (hasAttribute(databaseSetNode, SHARD_STRATEGY))
-            return new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
+            databaseSet = new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
                     getAttribute(databaseSetNode, SHARD_STRATEGY), databases);
         else if (hasAttribute(databaseSetNode, SHARDING_STRATEGY))
-            return new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
+            databaseSet = new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
                     getAttribute(databaseSetNode, SHARDING_STRATEGY), databases);
         else
-            return new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
+            databaseSet = new DatabaseSet(getAttribute(databaseSetNode, NAME), getAttribute(databaseSetNode, PROVIDER),
                     databases);
+
+        Node executorNode = getChildNode(databaseSetNode, EXECUTOR);
+        if (executorNode != null)
+            databaseSet.setExecutorSettings(getAttributes(executorNode));
+
+        return databaseSet;
     }
 
     private DataBase readDataBase(Node dataBaseNode) {
@@ -39,6 +39,22 @@ public class DatabaseSelector {
 		return getAvailableDbWithFallback(slaves, masters);
 	}
 	
+	/**
+	 * Select distinct slaves that are not marked down in random order.
+	 * @return at most count slaves, empty if the operation can not go to slave or the database is designated 
+	 */
+	public List<String> selectSlaves(int count) {
+		List<String> selected = new ArrayList<String>();
+		if(masterOnly || !isSelect || designatedDatasource != null)
+			return selected;
+		
+		List<String> dbNames = selectValidDbNames(slaves);
+		while(selected.size() < count && !dbNames.isEmpty())
+			selected.add(dbNames.remove((int)(Math.random() * dbNames.size())));
+
+		return selected;
+	}
+	
 	private String getAvailableDbWithFallback(List<DataBase> primary, List<DataBase> secondary) throws DalException {
 		if(isNullOrEmpty(primary) && isNullOrEmpty(secondary))
 			throw new DalException(ErrorCode.NullLogicDbName);
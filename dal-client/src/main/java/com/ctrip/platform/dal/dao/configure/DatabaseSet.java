@@ -30,6 +30,9 @@ public class DatabaseSet {
 	private List<DataBase> masterDbs = new ArrayList<DataBase>();
 	private List<DataBase> slaveDbs = new ArrayList<DataBase>();
 	
+	// Settings of the dedicated executor pool, null if the shared pool is used
+	private Map<String, String> executorSettings;
+	
 	/**
 	 * The target DB set does not support shard
 	 * @param name
@@ -113,6 +116,14 @@ public class DatabaseSet {
 		return strategy != null && strategy.isShardingByTable() && strategy.isShardingEnable(tableName);
 	}
 
+	public Map<String, String> getExecutorSettings() {
+		return executorSettings;
+	}
+
+	void setExecutorSettings(Map<String, String> executorSettings) {
+		this.executorSettings = executorSettings;
+	}
+
 	public Map<String, DataBase> getDatabases() {
 		return databases;
 	}
@@ -148,6 +159,14 @@ public class DatabaseSet {
 		return getRandomRealDbName(hints, isMaster, isSelect, masterDbs, slaveDbs);
 	}
 	
+	public List<String> getRandomSlaveDbNames(DalHints hints, String shard, int count) {
+		return new DatabaseSelector(hints, getMasterDbs(shard), getSlaveDbs(shard), false, true).selectSlaves(count);
+	}
+	
+	public List<String> getRandomSlaveDbNames(DalHints hints, int count) {
+		return new DatabaseSelector(hints, masterDbs, slaveDbs, false, true).selectSlaves(count);
+	}
+	
 	private String getRandomRealDbName(DalHints hints, boolean isMaster, boolean isSelect, List<DataBase> masterCandidates, List<DataBase> slaveCandidates) throws DalException {
 		return new DatabaseSelector(hints, masterCandidates, slaveCandidates, isMaster, isSelect).select();
 	}
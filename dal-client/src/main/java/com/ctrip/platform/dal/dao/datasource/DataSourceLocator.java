@@ -73,6 +73,21 @@ public class DataSourceLocator {
         return ds;
     }
 
+    /**
+     * Get the connection URL of the real db source name without creating the DataSource
+     * 
+     * @param name
+     * @return the URL or null if it is not configured
+     */
+    public String getUrl(String name) {
+        DataSourceConfigure config = provider.getDataSourceConfigure(name);
+        if (config != null)
+            return config.getConnectionUrl();
+
+        DatabasePoolConfig poolConfig = DatabasePoolConfigParser.getInstance().getDatabasePoolConifg(name);
+        return poolConfig == null ? null : poolConfig.getPoolProperties().getUrl();
+    }
+
     private DataSource createDataSource(String name) throws SQLException {
         DatabasePoolConfig poolConfig = DatabasePoolConfigParser.getInstance().getDatabasePoolConifg(name);
         DataSourceConfigure config = provider.getDataSourceConfigure(name);
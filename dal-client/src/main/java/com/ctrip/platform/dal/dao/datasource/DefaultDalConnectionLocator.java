@@ -35,4 +35,8 @@ public class DefaultDalConnectionLocator implements DalConnectionLocator {
 	public Connection getConnection(String name) throws Exception {
 		return locator.getDataSource(name).getConnection();
 	}
+	
+	public String getUrl(String name) {
+		return locator.getUrl(name);
+	}
 }
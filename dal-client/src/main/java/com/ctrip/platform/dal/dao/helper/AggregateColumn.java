@@ -0,0 +1,87 @@
+package com.ctrip.platform.dal.dao.helper;
+
+/**
+ * Aggregate function applied to a column and the alias of the result.
+ *
+ * For cross shard query, each aggregate is pushed down to shards as partial aggregate:
+ * SUM, MIN, MAX and COUNT are decomposable and are computed again over the partial results;
+ * AVG is pushed down as SUM and COUNT; COUNT DISTINCT is pushed down by grouping on the
+ * column, the distinct values are then counted across shards.
+ *
+ * @author jhhe
+ */
+public class AggregateColumn {
+	public enum Function {
+		SUM, MIN, MAX, COUNT, AVG, COUNT_DISTINCT
+	}
+
+	private static final String SUM_SUFFIX = "__SUM";
+	private static final String COUNT_SUFFIX = "__COUNT";
+
+	private Function function;
+	private String column;
+	private String alias;
+
+	public AggregateColumn(Function function, String column, String alias) {
+		if(function == null)
+			throw new IllegalArgumentException("Aggregate function can not be null.");
+		if(column == null || column.isEmpty())
+			throw new IllegalArgumentException("Aggregate column can not be empty.");
+		if(alias == null || alias.isEmpty())
+			throw new IllegalArgumentException("Aggregate alias can not be empty.");
+
+		this.function = function;
+		this.column = column;
+		this.alias = alias;
+	}
+
+	public static AggregateColumn sum(String column, String alias) {
+		return new AggregateColumn(Function.SUM, column, alias);
+	}
+
+	public static AggregateColumn min(String column, String alias) {
+		return new AggregateColumn(Function.MIN, column, alias);
+	}
+
+	public static AggregateColumn max(String column, String alias) {
+		return new AggregateColumn(Function.MAX, column, alias);
+	}
+
+	public static AggregateColumn count(String column, String alias) {
+		return new AggregateColumn(Function.COUNT, column, alias);
+	}
+
+	public static AggregateColumn avg(String column, String alias) {
+		return new AggregateColumn(Function.AVG, column, alias);
+	}
+
+	public static AggregateColumn countDistinct(String column, String alias) {
+		return new AggregateColumn(Function.COUNT_DISTINCT, column, alias);
+	}
+
+	public Function getFunction() {
+		return function;
+	}
+
+	public String getColumn() {
+		return column;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	/**
+	 * @return alias of the partial SUM pushed down for AVG
+	 */
+	public String getSumAlias() {
+		return alias + SUM_SUFFIX;
+	}
+
+	/**
+	 * @return alias of the partial COUNT pushed down for AVG
+	 */
+	public String getCountAlias() {
+		return alias + COUNT_SUFFIX;
+	}
+}
@@ -0,0 +1,221 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ctrip.platform.dal.dao.ResultMerger;
+
+/**
+ * Combine partial aggregates returned by each shard in a hash based group table.
+ * Rows with the same values of group by columns go to the same group. The merged
+ * rows contain the group by columns and the alias of each aggregate column.
+ *
+ * The partial rows are expected to be built by BaseTableSelectBuilder after it is
+ * pushed down to shards. See AggregateColumn for how each function is pushed down.
+ *
+ * @author jhhe
+ */
+public class DalAggregateMerger implements ResultMerger<List<Map<String, Object>>> {
+	private List<String> groupBys;
+	private List<AggregateColumn> aggregates;
+	private Comparator<Map<String, Object>> comparator;
+	private int start;
+	private int count;
+	private Map<List<Object>, Group> groups = new LinkedHashMap<>();
+
+	public DalAggregateMerger(List<String> groupBys, List<AggregateColumn> aggregates) {
+		this(groupBys, aggregates, null, 0, 0);
+	}
+
+	// Select from to, count 0 means all
+	public DalAggregateMerger(List<String> groupBys, List<AggregateColumn> aggregates, Comparator<Map<String, Object>> comparator, int start, int count) {
+		if(start < 0)
+			throw new IllegalArgumentException("Start can not be negative number.");
+		if(count < 0)
+			throw new IllegalArgumentException("Count can not be negative number.");
+
+		this.groupBys = groupBys;
+		this.aggregates = aggregates;
+		this.comparator = comparator;
+		this.start = start;
+		this.count = count;
+	}
+
+	@Override
+	public void addPartial(String shard, List<Map<String, Object>> partial) throws SQLException {
+		if(partial == null)
+			return;
+
+		for(Map<String, Object> row: partial) {
+			List<Object> key = new ArrayList<>(groupBys.size());
+			for(String groupBy: groupBys)
+				key.add(get(row, groupBy));
+
+			Group group = groups.get(key);
+			if(group == null) {
+				group = new Group();
+				groups.put(key, group);
+			}
+			group.accumulate(row);
+		}
+	}
+
+	@Override
+	public List<Map<String, Object>> merge() throws SQLException {
+		List<Map<String, Object>> results = new ArrayList<>(groups.size());
+		for(Map.Entry<List<Object>, Group> entry: groups.entrySet()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for(int i = 0; i < groupBys.size(); i++)
+				row.put(groupBys.get(i), entry.getKey().get(i));
+
+			entry.getValue().fill(row);
+			results.add(row);
+		}
+
+		if(comparator != null)
+			Collections.sort(results, comparator);
+
+		if(start == 0 && count == 0)
+			return results;
+
+		if(start >= results.size())
+			return new ArrayList<>();
+
+		return count == 0 || count >= results.size() - start ? results.subList(start, results.size()) : results.subList(start, start + count);
+	}
+
+	/**
+	 * Column name returned by database may be in different case from the one in sql
+	 */
+	private static Object get(Map<String, Object> row, String column) {
+		if(row.containsKey(column))
+			return row.get(column);
+
+		for(Map.Entry<String, Object> entry: row.entrySet()) {
+			if(entry.getKey().equalsIgnoreCase(column))
+				return entry.getValue();
+		}
+
+		return null;
+	}
+
+	private class Group {
+		private Object[] values = new Object[aggregates.size()];
+		private Number[] counts = new Number[aggregates.size()];
+		private List<Set<Object>> distincts = new ArrayList<>(aggregates.size());
+
+		private Group() {
+			for(int i = 0; i < aggregates.size(); i++)
+				distincts.add(null);
+		}
+
+		private void accumulate(Map<String, Object> row) {
+			for(int i = 0; i < aggregates.size(); i++) {
+				AggregateColumn aggregate = aggregates.get(i);
+				switch (aggregate.getFunction()) {
+				case SUM:
+				case COUNT:
+					values[i] = add((Number)values[i], (Number)get(row, aggregate.getAlias()));
+					break;
+				case MIN:
+					values[i] = pick(values[i], get(row, aggregate.getAlias()), true);
+					break;
+				case MAX:
+					values[i] = pick(values[i], get(row, aggregate.getAlias()), false);
+					break;
+				case AVG:
+					values[i] = add((Number)values[i], (Number)get(row, aggregate.getSumAlias()));
+					counts[i] = add(counts[i], (Number)get(row, aggregate.getCountAlias()));
+					break;
+				case COUNT_DISTINCT:
+					Object value = get(row, aggregate.getColumn());
+					if(distincts.get(i) == null)
+						distincts.set(i, new HashSet<>());
+					if(value != null)
+						distincts.get(i).add(value);
+					break;
+				}
+			}
+		}
+
+		private void fill(Map<String, Object> row) {
+			for(int i = 0; i < aggregates.size(); i++) {
+				AggregateColumn aggregate = aggregates.get(i);
+				switch (aggregate.getFunction()) {
+				case AVG:
+					row.put(aggregate.getAlias(), divide((Number)values[i], counts[i]));
+					break;
+				case COUNT_DISTINCT:
+					row.put(aggregate.getAlias(), distincts.get(i) == null ? 0L : (long)distincts.get(i).size());
+					break;
+				default:
+					row.put(aggregate.getAlias(), values[i]);
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object pick(Object current, Object value, boolean min) {
+		if(current == null)
+			return value;
+		if(value == null)
+			return current;
+
+		int result = ((Comparable<Object>)current).compareTo(value);
+		return (min ? result <= 0 : result >= 0) ? current : value;
+	}
+
+	private static Number add(Number a, Number b) {
+		if(a == null)
+			return b;
+		if(b == null)
+			return a;
+
+		if(isIntegral(a) && isIntegral(b))
+			return a.longValue() + b.longValue();
+
+		if(isFloating(a) || isFloating(b))
+			return a.doubleValue() + b.doubleValue();
+
+		return toBigDecimal(a).add(toBigDecimal(b));
+	}
+
+	private static Number divide(Number sum, Number count) {
+		if(sum == null || count == null || count.longValue() == 0)
+			return null;
+
+		if(isFloating(sum))
+			return sum.doubleValue() / count.longValue();
+
+		return toBigDecimal(sum).divide(BigDecimal.valueOf(count.longValue()), MathContext.DECIMAL64);
+	}
+
+	private static boolean isIntegral(Number value) {
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+
+	private static boolean isFloating(Number value) {
+		return value instanceof Double || value instanceof Float;
+	}
+
+	private static BigDecimal toBigDecimal(Number value) {
+		if(value instanceof BigDecimal)
+			return (BigDecimal)value;
+
+		if(value instanceof BigInteger)
+			return new BigDecimal((BigInteger)value);
+
+		return isIntegral(value) ? BigDecimal.valueOf(value.longValue()) : new BigDecimal(value.toString());
+	}
+}
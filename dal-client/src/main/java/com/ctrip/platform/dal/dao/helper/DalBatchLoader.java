@@ -0,0 +1,185 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctrip.platform.dal.dao.DalFuture;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+
+/**
+ * Collect single key lookups and load them in batch. Keys of the same group that arrive within
+ * the window are loaded together by one call of load. A batch is loaded as soon as it reaches
+ * the max batch size, otherwise when the window ends.
+ *
+ * Batches are loaded in the given executor. If the executor rejects a full batch, it is loaded
+ * in the calling thread. If it rejects a batch whose window ends, the futures of the batch fail,
+ * so that the shared scheduler of DalRequestExecutor never loads.
+ *
+ * @author jhhe
+ */
+public abstract class DalBatchLoader<K, V> {
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+	public static final long DEFAULT_WINDOW_MILLIS = 2;
+
+	private final int maxBatchSize;
+	private final long windowMillis;
+	private final Map<String, Batch> pending = new HashMap<>();
+
+	private final AtomicLong keyCount = new AtomicLong();
+	private final AtomicLong batchCount = new AtomicLong();
+
+	public DalBatchLoader(int maxBatchSize, long windowMillis) {
+		this.maxBatchSize = Math.max(maxBatchSize, 1);
+		this.windowMillis = Math.max(windowMillis, 0);
+	}
+
+	/**
+	 * Load the values of the keys. Keys without value can be absent in the result.
+	 * @param hints hints of the group
+	 */
+	protected abstract Map<K, V> load(DalHints hints, List<K> keys) throws SQLException;
+
+	/**
+	 * @return executor that loads the batch
+	 */
+	protected abstract Executor getExecutor();
+
+	/**
+	 * @param group keys of the same group are loaded together
+	 * @param groupHints hints used to load the group
+	 * @param hints hints of the caller. The callback in it will be notified with the value
+	 */
+	public DalFuture<V> load(String group, DalHints groupHints, K key, DalHints hints) {
+		DalFuture<V> future = new DalFuture<>(hints);
+		Batch closed = null;
+
+		synchronized (pending) {
+			Batch batch = pending.get(group);
+			if(batch == null) {
+				batch = new Batch(group, groupHints);
+				pending.put(group, batch);
+				batch.schedule();
+			}
+
+			batch.add(key, future);
+			if(batch.futures.size() >= maxBatchSize) {
+				pending.remove(group);
+				closed = batch;
+			}
+		}
+
+		keyCount.incrementAndGet();
+		if(closed != null)
+			closed.submit(true);
+
+		return future;
+	}
+
+	private void close(Batch batch) {
+		synchronized (pending) {
+			if(pending.get(batch.group) != batch)
+				return;
+			pending.remove(batch.group);
+		}
+
+		batch.submit(false);
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * @return number of keys that are requested
+	 */
+	public long getKeyCount() {
+		return keyCount.get();
+	}
+
+	/**
+	 * @return number of batches that are loaded
+	 */
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	private class Batch implements Runnable {
+		private String group;
+		private DalHints hints;
+		private Map<K, List<DalFuture<V>>> futures = new LinkedHashMap<>();
+		private ScheduledFuture<?> timeout;
+
+		private Batch(String group, DalHints hints) {
+			this.group = group;
+			this.hints = hints;
+		}
+
+		private void add(K key, DalFuture<V> future) {
+			List<DalFuture<V>> sameKey = futures.get(key);
+			if(sameKey == null) {
+				sameKey = new ArrayList<>();
+				futures.put(key, sameKey);
+			}
+			sameKey.add(future);
+		}
+
+		private void schedule() {
+			timeout = DalRequestExecutor.getScheduler().schedule(new Runnable() {
+				public void run() {
+					close(Batch.this);
+				}
+			}, windowMillis, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * @param inCaller true if it is called by the thread that adds the key
+		 */
+		private void submit(boolean inCaller) {
+			timeout.cancel(false);
+			try {
+				getExecutor().execute(this);
+			} catch (RejectedExecutionException e) {
+				if(inCaller)
+					run();
+				else
+					fail(e);
+			}
+		}
+
+		private void fail(Throwable e) {
+			for(List<DalFuture<V>> sameKey: futures.values())
+				for(DalFuture<V> future: sameKey)
+					future.onError(e);
+		}
+
+		@Override
+		public void run() {
+			batchCount.incrementAndGet();
+			Map<K, V> values;
+			try {
+				values = load(hints, new ArrayList<>(futures.keySet()));
+			} catch (Throwable e) {
+				fail(e);
+				return;
+			}
+
+			for(Map.Entry<K, List<DalFuture<V>>> entry: futures.entrySet())
+				for(DalFuture<V> future: entry.getValue())
+					future.onResult(values.get(entry.getKey()));
+		}
+	}
+}
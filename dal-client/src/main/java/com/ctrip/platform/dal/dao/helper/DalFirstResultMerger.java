@@ -6,8 +6,13 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.ctrip.platform.dal.dao.ResultMerger;
+import com.ctrip.platform.dal.dao.ShortCircuitMerger;
 
-public class DalFirstResultMerger<T> implements ResultMerger<T>{
+/**
+ * Without comparator, any non-null partial result is good enough. So the first one wins
+ * and the rest of the shards can be cancelled.
+ */
+public class DalFirstResultMerger<T> implements ResultMerger<T>, ShortCircuitMerger{
 	private List<T> result = new ArrayList<>();
 	private Comparator<T> comparator;
 	
@@ -24,6 +29,11 @@ public class DalFirstResultMerger<T> implements ResultMerger<T>{
 			result.add(partial);
 	}
 
+	@Override
+	public boolean isSatisfied() {
+		return comparator == null && result.size() > 0;
+	}
+
 	@Override
 	public T merge() {
 		if(comparator != null)
@@ -5,25 +5,38 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import com.ctrip.platform.dal.dao.ResultMerger;
 
+/**
+ * Merge partial results and return the rows in given range. Only the first start + count
+ * rows are kept. With comparator, they are kept in a bounded heap whose top is the largest
+ * row kept so far, so the memory is proportional to the range instead of the total rows.
+ *
+ * For cross shard query, each shard should only return its first start + count rows.
+ *
+ * @author jhhe
+ */
 public class DalRangedResultMerger<T> implements ResultMerger<List<T>>{
 	private Comparator<T> comparator;
 	private int start;
 	private int count;
+	private int limit;
+	private long sequence;
 	private List<T> results = new ArrayList<>();
-	
+	private PriorityQueue<Row<T>> heap;
+
 	// Select top
 	public DalRangedResultMerger(int count) {
 		this(null, count);
 	}
-	
+
 	// Select top
 	public DalRangedResultMerger(Comparator<T> comparator, int count) {
 		this(comparator, 0, count);
 	}
-	
+
 	public DalRangedResultMerger(int start, int count) {
 		this(null, start, count);
 	}
@@ -34,26 +47,82 @@ public class DalRangedResultMerger<T> implements ResultMerger<List<T>>{
 			throw new IllegalArgumentException("Start can not be negative number.");
 		if(count < 0)
 			throw new IllegalArgumentException("Count can not be negative number.");
-		
+
 		this.comparator = comparator;
 		this.start = start;
 		this.count = count;
+		// Avoid overflow of start + count
+		limit = Integer.MAX_VALUE - start > count ? start + count : Integer.MAX_VALUE;
+
+		if(comparator != null)
+			heap = new PriorityQueue<>(11, Collections.reverseOrder(new RowComparator()));
 	}
-	
+
 	@Override
 	public void addPartial(String shard, List<T> partial) throws SQLException {
-		if(partial!=null)
-			results.addAll(partial);
+		if(partial == null || limit == 0)
+			return;
+
+		if(comparator == null) {
+			for(T row: partial) {
+				if(results.size() >= limit)
+					return;
+				results.add(row);
+			}
+			return;
+		}
+
+		for(T row: partial) {
+			Row<T> candidate = new Row<>(row, sequence++);
+			if(heap.size() < limit) {
+				heap.add(candidate);
+				continue;
+			}
+
+			// Replace the largest one if the new row goes before it
+			if(heap.comparator().compare(candidate, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(candidate);
+			}
+		}
 	}
 
 	@Override
 	public List<T> merge() throws SQLException {
-		if(comparator != null)
-			Collections.sort(results, comparator);
+		if(comparator != null) {
+			List<Row<T>> rows = new ArrayList<>(heap);
+			Collections.sort(rows, new RowComparator());
+			for(Row<T> row: rows)
+				results.add(row.value);
+		}
 
 		if(start >= results.size())
 			return new ArrayList<>();
-			
+
 		return start + count > results.size() ? results.subList(start, results.size()) : results.subList(start, start + count);
 	}
+
+	private static class Row<T> {
+		private T value;
+		private long sequence;
+
+		private Row(T value, long sequence) {
+			this.value = value;
+			this.sequence = sequence;
+		}
+	}
+
+	/**
+	 * Rows with same order are kept in the order they are added, same as stable sort.
+	 */
+	private class RowComparator implements Comparator<Row<T>> {
+		@Override
+		public int compare(Row<T> o1, Row<T> o2) {
+			int result = comparator.compare(o1.value, o2.value);
+			if(result != 0)
+				return result;
+
+			return o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
+		}
+	}
 }
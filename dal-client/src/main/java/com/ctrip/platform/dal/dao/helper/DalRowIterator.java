@@ -0,0 +1,204 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.CloseableIterator;
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.dao.DalHintEnum;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Iterate over rows of one or more shards without loading all of them into memory.
+ *
+ * The query is executed asynchronously and each shard maps its rows with the extractor
+ * of this class into a bounded buffer. When the buffer is full, the shard waits with its
+ * result set open until the caller fetches more rows, so at most bufferSize rows are held
+ * no matter how many rows there are. Rows of different shards are interleaved in the order
+ * they are fetched.
+ *
+ * Closing the iterator cancels the query, so that the statements and connections are released.
+ * The statement of a shard that has rows not read is cancelled before its result set is closed,
+ * because closing a streaming result set of MySQL reads all the remaining rows.
+ *
+ * @author jhhe
+ */
+public class DalRowIterator<T> implements CloseableIterator<T> {
+	public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+	private static final long POLL_INTERVAL_MS = 100;
+	private static final Object NULL = new Object();
+
+	private DalRowMapper<T> mapper;
+	private BlockingQueue<Object> buffer;
+	private volatile boolean closed;
+	private Future<?> future;
+	private Object next;
+	private boolean finished;
+
+	public DalRowIterator(DalRowMapper<T> mapper) {
+		this(mapper, DEFAULT_BUFFER_SIZE);
+	}
+
+	public DalRowIterator(DalRowMapper<T> mapper, int bufferSize) {
+		if(bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be greater than 0.");
+
+		this.mapper = mapper;
+		buffer = new ArrayBlockingQueue<>(bufferSize);
+	}
+
+	/**
+	 * @return copy of the hints to execute the query asynchronously with streaming result set
+	 */
+	public static DalHints streamingHints(DalHints hints, DatabaseCategory dbCategory) {
+		// Rows can not be put into buffer by more than one query, nor be held as a whole
+		DalHints streamingHints = hints.clone().asyncExecution().set(DalHintEnum.hedgeDelay, null).set(DalHintEnum.coalesceRead, false);
+		if(!streamingHints.is(DalHintEnum.fetchSize))
+			streamingHints.set(DalHintEnum.fetchSize, dbCategory.getStreamingFetchSize());
+		return streamingHints;
+	}
+
+	/**
+	 * @return extractor that feeds the iterator with rows of the shard
+	 */
+	public DalResultSetExtractor<Integer> getExtractor() {
+		return new RowProducer();
+	}
+
+	/**
+	 * Start iterating over the result of the asynchronously executed query
+	 * @param future result of the query, it is done when all the rows are put into buffer
+	 */
+	public DalRowIterator<T> start(Future<?> future) {
+		this.future = future;
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(next != null)
+			return true;
+
+		if(finished)
+			return false;
+
+		try {
+			while(true) {
+				next = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+				if(next != null)
+					return true;
+
+				if(!future.isDone())
+					continue;
+
+				// Rows put before the query is done
+				next = buffer.poll();
+				if(next != null)
+					return true;
+
+				finished = true;
+				future.get();
+				return false;
+			}
+		} catch (ExecutionException e) {
+			close();
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			close();
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext())
+			throw new NoSuchElementException();
+
+		Object row = next;
+		next = null;
+		
+		@SuppressWarnings("unchecked")
+		T value = row == NULL ? null : (T)row;
+		return value;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() {
+		if(closed)
+			return;
+
+		closed = true;
+		finished = true;
+		next = null;
+		if(future != null && !future.isDone())
+			future.cancel(true);
+
+		buffer.clear();
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	private class RowProducer implements DalResultSetExtractor<Integer> {
+		@Override
+		public Integer extract(ResultSet rs) throws SQLException {
+			int rowNum = 0;
+			while(!closed) {
+				if(!rs.next())
+					return rowNum;
+
+				T row = mapper.map(rs, rowNum++);
+				if(!put(row == null ? NULL : row))
+					break;
+			}
+
+			cancel(rs);
+			throw new DalException(ErrorCode.IteratorClosed);
+		}
+
+		/**
+		 * @return false if the iterator is closed before the row is put
+		 */
+		private boolean put(Object row) {
+			try {
+				while(!buffer.offer(row, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+					if(closed)
+						return false;
+				}
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		private void cancel(ResultSet rs) {
+			try {
+				Statement statement = rs.getStatement();
+				if(statement != null)
+					statement.cancel();
+			} catch (Throwable e) {
+				DalClientFactory.getDalLogger().error("Cancel statement failed.", e);
+			}
+		}
+	}
+}
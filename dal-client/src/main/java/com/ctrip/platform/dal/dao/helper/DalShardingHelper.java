@@ -76,6 +76,30 @@ public class DalShardingHelper {
 		return true;
 	}
 	
+	/**
+	 * Locate DB shard id by hints.
+	 * @param logicDbName
+	 * @param hints
+	 * @return
+	 * @throws SQLException
+	 */
+	public static String locateShardId(String logicDbName, DalHints hints, StatementParameters parameters, Map<String, ?> fields) throws SQLException {
+		DalConfigure config = DalClientFactory.getDalConfigure();
+		DatabaseSet dbSet = config.getDatabaseSet(logicDbName);
+		DalShardingStrategy strategy = dbSet.getStrategy();
+		
+		// First check if we can locate the shard id with the original hints
+		String shard = strategy.locateDbShard(config, logicDbName, hints);
+		if(shard == null)
+			shard = strategy.locateDbShard(config, logicDbName, new DalHints().setParameters(parameters).setFields(fields));
+
+		if(shard == null)
+			throw new SQLException("Can not locate shard for " + logicDbName);
+
+		dbSet.validate(shard);
+		return shard;
+	}
+	
 	/**
 	 * Locate table shard id by hints.
 	 * @param logicDbName
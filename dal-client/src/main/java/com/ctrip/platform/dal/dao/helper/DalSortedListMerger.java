@@ -0,0 +1,106 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.ctrip.platform.dal.dao.ResultMerger;
+
+/**
+ * Merge shard results that are already sorted by the given comparator, usually by
+ * ORDER BY clause in the sql. Each partial result is treated as a sorted run and
+ * the runs are merged through a heap of k cursors, where k is the number of shards.
+ * It takes O(n log k) time and O(k) extra memory instead of sorting all the rows again.
+ *
+ * @author jhhe
+ */
+public class DalSortedListMerger<T> implements ResultMerger<List<T>> {
+	private Comparator<T> comparator;
+	private int start;
+	private int count;
+	private List<List<T>> runs = new ArrayList<>();
+
+	public DalSortedListMerger(Comparator<T> comparator) {
+		this(comparator, 0, Integer.MAX_VALUE);
+	}
+
+	// Select from to
+	public DalSortedListMerger(Comparator<T> comparator, int start, int count) {
+		if(comparator == null)
+			throw new IllegalArgumentException("Comparator can not be null.");
+		if(start < 0)
+			throw new IllegalArgumentException("Start can not be negative number.");
+		if(count < 0)
+			throw new IllegalArgumentException("Count can not be negative number.");
+
+		this.comparator = comparator;
+		this.start = start;
+		this.count = count;
+	}
+
+	@Override
+	public void addPartial(String shard, List<T> partial) {
+		if(partial != null && !partial.isEmpty())
+			runs.add(partial);
+	}
+
+	@Override
+	public List<T> merge() {
+		PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(Math.max(runs.size(), 1), new CursorComparator());
+		int total = 0;
+		for(int i = 0; i < runs.size(); i++) {
+			heap.add(new Cursor<>(i, runs.get(i)));
+			total += runs.get(i).size();
+		}
+
+		// Avoid overflow of start + count
+		int end = total - start > count ? start + count : total;
+		List<T> result = new ArrayList<>(Math.max(end - start, 0));
+
+		for(int i = 0; i < end; i++) {
+			Cursor<T> cursor = heap.poll();
+			if(i >= start)
+				result.add(cursor.head());
+
+			if(cursor.next())
+				heap.add(cursor);
+		}
+
+		return result;
+	}
+
+	private static class Cursor<T> {
+		private int run;
+		private Iterator<T> rows;
+		private T head;
+
+		private Cursor(int run, List<T> rows) {
+			this.run = run;
+			this.rows = rows.iterator();
+			head = this.rows.next();
+		}
+
+		private T head() {
+			return head;
+		}
+
+		private boolean next() {
+			if(!rows.hasNext())
+				return false;
+
+			head = rows.next();
+			return true;
+		}
+	}
+
+	private class CursorComparator implements Comparator<Cursor<T>> {
+		@Override
+		public int compare(Cursor<T> o1, Cursor<T> o2) {
+			int result = comparator.compare(o1.head(), o2.head());
+			// Keep it stable
+			return result != 0 ? result : o1.run - o2.run;
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package com.ctrip.platform.dal.dao.helper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctrip.platform.dal.dao.DalFuture;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Queue single pojo writes and flush them in batch. Pojos of the same group are written
+ * together when the batch reaches the max batch size, otherwise when the flush interval ends.
+ *
+ * The number of queued and in flight pojos is limited by the max queue size. When the queue
+ * is full, the caller waits until pojos are written or the max wait time is reached.
+ * The future of each pojo is completed after the batch containing it is written, so the
+ * callback in hints can be used to know when the pojo is durable.
+ *
+ * Batches are flushed in the given executor. If the executor rejects a full batch, it is flushed in
+ * the thread that adds the pojo. If it rejects a batch whose flush interval ends, the batch is
+ * submitted again after another interval, so that the shared scheduler of DalRequestExecutor
+ * never writes.
+ *
+ * @author jhhe
+ */
+public abstract class DalWriteBehindQueue<T> {
+	public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+	public static final long DEFAULT_FLUSH_MILLIS = 50;
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
+	public static final long DEFAULT_MAX_WAIT_MILLIS = 1000;
+
+	private final String name;
+	private final int maxBatchSize;
+	private final long flushMillis;
+	private final int maxQueueSize;
+	private final long maxWaitMillis;
+	private final Semaphore capacity;
+	private final Map<String, Batch> pending = new HashMap<>();
+
+	private final AtomicLong queuedCount = new AtomicLong();
+	private final AtomicLong writtenCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong batchCount = new AtomicLong();
+
+	public DalWriteBehindQueue(String name, int maxBatchSize, long flushMillis, int maxQueueSize, long maxWaitMillis) {
+		this.name = name;
+		this.maxBatchSize = Math.max(maxBatchSize, 1);
+		this.flushMillis = Math.max(flushMillis, 0);
+		this.maxQueueSize = Math.max(maxQueueSize, this.maxBatchSize);
+		this.maxWaitMillis = Math.max(maxWaitMillis, 0);
+		capacity = new Semaphore(this.maxQueueSize, true);
+	}
+
+	/**
+	 * Write the pojos of one batch.
+	 * @param hints hints of the group
+	 * @return affected rows of each pojo
+	 */
+	protected abstract int[] write(DalHints hints, List<T> pojos) throws SQLException;
+
+	/**
+	 * @return executor that flushes the batch
+	 */
+	protected abstract Executor getExecutor();
+
+	/**
+	 * @param group pojos of the same group are written together
+	 * @param groupHints hints used to write the group
+	 * @param hints hints of the caller. The callback in it will be notified with the affected rows
+	 * @throws DalException if the queue is full within max wait time
+	 */
+	public DalFuture<Integer> add(String group, DalHints groupHints, T pojo, DalHints hints) throws SQLException {
+		try {
+			if(!capacity.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				rejectedCount.incrementAndGet();
+				throw new DalException(ErrorCode.WriteBehindQueueFull, name, maxQueueSize, maxWaitMillis);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DalException.wrap(e);
+		}
+
+		DalFuture<Integer> future = new DalFuture<>(hints);
+		Batch closed = null;
+
+		synchronized (pending) {
+			Batch batch = pending.get(group);
+			if(batch == null) {
+				batch = new Batch(group, groupHints);
+				pending.put(group, batch);
+				batch.schedule();
+			}
+
+			batch.pojos.add(pojo);
+			batch.futures.add(future);
+			if(batch.pojos.size() >= maxBatchSize) {
+				pending.remove(group);
+				closed = batch;
+			}
+		}
+
+		queuedCount.incrementAndGet();
+		if(closed != null)
+			closed.submit(true);
+
+		return future;
+	}
+
+	/**
+	 * Write all the queued pojos in the current thread. Pojos that are already being
+	 * flushed by executor are not waited.
+	 */
+	public void flush() {
+		List<Batch> batches;
+		synchronized (pending) {
+			batches = new ArrayList<>(pending.values());
+			pending.clear();
+		}
+
+		for(Batch batch: batches) {
+			batch.timeout.cancel(false);
+			batch.run();
+		}
+	}
+
+	private void close(Batch batch) {
+		synchronized (pending) {
+			if(pending.get(batch.group) != batch)
+				return;
+			pending.remove(batch.group);
+		}
+
+		batch.submit(false);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public long getFlushMillis() {
+		return flushMillis;
+	}
+
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * @return number of pojos that are queued or being written
+	 */
+	public int getSize() {
+		return maxQueueSize - capacity.availablePermits();
+	}
+
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	private class Batch implements Runnable {
+		private String group;
+		private DalHints hints;
+		private List<T> pojos = new ArrayList<>();
+		private List<DalFuture<Integer>> futures = new ArrayList<>();
+		private ScheduledFuture<?> timeout;
+
+		private Batch(String group, DalHints hints) {
+			this.group = group;
+			this.hints = hints;
+		}
+
+		private void schedule() {
+			timeout = DalRequestExecutor.getScheduler().schedule(new Runnable() {
+				public void run() {
+					close(Batch.this);
+				}
+			}, flushMillis, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * @param inCaller true if it is called by the thread that adds the pojo
+		 */
+		private void submit(boolean inCaller) {
+			timeout.cancel(false);
+			try {
+				getExecutor().execute(this);
+			} catch (RejectedExecutionException e) {
+				if(inCaller)
+					run();
+				else
+					retry();
+			}
+		}
+
+		private void retry() {
+			timeout = DalRequestExecutor.getScheduler().schedule(new Runnable() {
+				public void run() {
+					submit(false);
+				}
+			}, Math.max(flushMillis, 1), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void run() {
+			batchCount.incrementAndGet();
+			int[] counts;
+			try {
+				counts = write(hints.clone(), pojos);
+			} catch (Throwable e) {
+				failedCount.addAndGet(pojos.size());
+				capacity.release(pojos.size());
+				for(DalFuture<Integer> future: futures)
+					future.onError(e);
+				return;
+			}
+
+			writtenCount.addAndGet(pojos.size());
+			capacity.release(pojos.size());
+			for(int i = 0; i < futures.size(); i++)
+				futures.get(i).onResult(counts == null || i >= counts.length ? null : counts[i]);
+		}
+	}
+}
@@ -1,10 +1,15 @@
 package com.ctrip.platform.dal.dao.sqlbuilder;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.DalHintEnum;
@@ -13,7 +18,9 @@ import com.ctrip.platform.dal.dao.DalResultSetExtractor;
 import com.ctrip.platform.dal.dao.DalRowMapper;
 import com.ctrip.platform.dal.dao.ResultMerger;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.helper.AggregateColumn;
 import com.ctrip.platform.dal.dao.helper.CustomizableMapper;
+import com.ctrip.platform.dal.dao.helper.DalAggregateMerger;
 import com.ctrip.platform.dal.dao.helper.DalFirstResultMerger;
 import com.ctrip.platform.dal.dao.helper.DalListMerger;
 import com.ctrip.platform.dal.dao.helper.DalObjectRowMapper;
@@ -21,17 +28,20 @@ import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
 import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
 import com.ctrip.platform.dal.dao.helper.DalSingleResultExtractor;
 import com.ctrip.platform.dal.dao.helper.DalSingleResultMerger;
+import com.ctrip.platform.dal.dao.helper.DalSortedListMerger;
 
 /**
  * This builder is only for internal use of DalTableDao
  * @author jhhe
  *
  */
-public class BaseTableSelectBuilder implements TableSelectBuilder {
+public class BaseTableSelectBuilder implements TableSelectBuilder, ShardPushdownBuilder {
 	private static final String ALL_COLUMNS = "*";
 	private static final String COUNT = "COUNT(1)";
 	private static final String SPACE = " ";
 	private static final String ORDER_BY = "ORDER BY ";
+	private static final String GROUP_BY = "GROUP BY ";
+	private static final String AS = " AS ";
 	private static final String ASC = " ASC";
 	private static final String DESC = " DESC";
 	private static final String ORDER_BY_SEPARATOR = ", ";
@@ -49,6 +59,8 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 	
 	private String whereClause;
 	private Map<String, Boolean> orderBys = new LinkedHashMap<>();
+	private List<String> groupBys = new ArrayList<>();
+	private List<AggregateColumn> aggregates = new ArrayList<>();
 
 	private StatementParameters parameters;
 	private DalRowMapper mapper;
@@ -61,6 +73,7 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 
 	private int count;
 	private int start;
+	private boolean pushdown = false;
 
 	public BaseTableSelectBuilder() {
 		selectAll();
@@ -116,6 +129,23 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 		return this;
 	}
 	
+	/**
+	 * In aggregate query, the selected columns are the group by columns followed by the aggregate columns.
+	 */
+	public BaseTableSelectBuilder groupBy(String... groupBys) {
+		this.groupBys.addAll(Arrays.asList(groupBys));
+		return this;
+	}
+	
+	public BaseTableSelectBuilder aggregate(AggregateColumn... aggregates) {
+		this.aggregates.addAll(Arrays.asList(aggregates));
+		return this;
+	}
+	
+	public boolean isAggregate() {
+		return !aggregates.isEmpty();
+	}
+	
 	public BaseTableSelectBuilder with(StatementParameters parameters) {
 		this.parameters = parameters;
 		return this;
@@ -146,20 +176,97 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 	private String internalBuild(String effectiveTableName) {
 		effectiveTableName = wrapField(effectiveTableName);
 		
+		// Range is applied by merger after partial aggregates are combined
+		if(isAggregate() && pushdown)
+			return buildList(effectiveTableName);
+		
 		if(requireFirst)
 			return buildFirst(effectiveTableName);
 		
 		if(start == 0 && count > 0)
-			return buildTop(effectiveTableName);
+			return buildTop(effectiveTableName, count);
 		
 		if(start > 0 && count > 0)
-			return buildPage(effectiveTableName);
+			return pushdown ? buildTop(effectiveTableName, start + count) : buildPage(effectiveTableName);
 		
 		return buildList(effectiveTableName);
 	}
 
 	private String getCompleteWhereExp() {
-		return orderBys.size() == 0 ? whereClause : whereClause + SPACE + buildOrderbyExp();
+		String whereExp = isAggregate() ? buildGroupbyExp(whereClause) : whereClause;
+		
+		// Partial aggregates are sorted by merger
+		if(orderBys.size() == 0 || (isAggregate() && pushdown))
+			return whereExp;
+		
+		return whereExp + SPACE + buildOrderbyExp();
+	}
+	
+	private String buildGroupbyExp(String whereExp) {
+		Set<String> columns = getGroupByColumns();
+		if(columns.isEmpty())
+			return whereExp;
+		
+		return whereExp + SPACE + GROUP_BY + joinWrapped(columns);
+	}
+	
+	/**
+	 * COUNT DISTINCT is pushed down by grouping on the column
+	 */
+	private Set<String> getGroupByColumns() {
+		Set<String> columns = new LinkedHashSet<>(groupBys);
+		if(!pushdown)
+			return columns;
+		
+		for(AggregateColumn aggregate: aggregates) {
+			if(aggregate.getFunction() == AggregateColumn.Function.COUNT_DISTINCT)
+				columns.add(aggregate.getColumn());
+		}
+		return columns;
+	}
+	
+	private String buildAggregateColumns() {
+		List<String> columns = new ArrayList<>();
+		for(String column: getGroupByColumns())
+			columns.add(wrapField(column));
+		
+		for(AggregateColumn aggregate: aggregates) {
+			String column = wrapField(aggregate.getColumn());
+			switch (aggregate.getFunction()) {
+			case AVG:
+				if(pushdown) {
+					columns.add("SUM(" + column + ")" + AS + wrapField(aggregate.getSumAlias()));
+					columns.add("COUNT(" + column + ")" + AS + wrapField(aggregate.getCountAlias()));
+				} else
+					columns.add("AVG(" + column + ")" + AS + wrapField(aggregate.getAlias()));
+				break;
+			case COUNT_DISTINCT:
+				if(!pushdown)
+					columns.add("COUNT(DISTINCT " + column + ")" + AS + wrapField(aggregate.getAlias()));
+				break;
+			default:
+				columns.add(aggregate.getFunction().name() + "(" + column + ")" + AS + wrapField(aggregate.getAlias()));
+			}
+		}
+		
+		return join(columns);
+	}
+	
+	private String joinWrapped(Iterable<String> columns) {
+		List<String> wrapped = new ArrayList<>();
+		for(String column: columns)
+			wrapped.add(wrapField(column));
+		return join(wrapped);
+	}
+	
+	private String join(List<String> columns) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < columns.size(); i++) {
+			if(i > 0)
+				sb.append(ORDER_BY_SEPARATOR);
+			sb.append(columns.get(i));
+		}
+		return sb.toString();
 	}
 	
 	private String buildOrderbyExp(){
@@ -208,10 +315,29 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 		if(merger != null)
 			return merger;
 		
+		if(isAggregate())
+			return createAggregateMerger(hints);
+		
 		if(isRequireSingle() || isRequireFirst())
 			return isRequireSingle() ? new DalSingleResultMerger() : new DalFirstResultMerger((Comparator)hints.getSorter());
 
-		return count > 0 ? new DalRangedResultMerger((Comparator)hints.getSorter(), count): new DalListMerger((Comparator)hints.getSorter());
+		if(hints.isShardResultsSorted())
+			return createSortedListMerger(hints);
+
+		return count > 0 ? new DalRangedResultMerger((Comparator)hints.getSorter(), start, count): new DalListMerger((Comparator)hints.getSorter());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> ResultMerger<T> createAggregateMerger(DalHints hints) {
+		ResultMerger<List<Map<String, Object>>> merger = new DalAggregateMerger(groupBys, aggregates, hints.<Map<String, Object>>getSorter(), start, count);
+		return (ResultMerger<T>)merger;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> ResultMerger<T> createSortedListMerger(DalHints hints) {
+		Comparator<Object> sorter = hints.getSorter();
+		ResultMerger<List<Object>> merger = count > 0 ? new DalSortedListMerger<>(sorter, start, count) : new DalSortedListMerger<>(sorter);
+		return (ResultMerger<T>)merger;
 	}
 
 	public <T> DalResultSetExtractor<T> getResultExtractor(DalHints hints) throws SQLException {
@@ -219,10 +345,11 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 			return extractor;
 		
 		DalRowMapper<T> mapper  = checkAllowPartial(hints);
-		if(isRequireSingle() || isRequireFirst())
+		if((isRequireSingle() || isRequireFirst()) && !isAggregate())
 			return new DalSingleResultExtractor<>(mapper, isRequireSingle());
 			
-		return count > 0 ? new DalRowMapperExtractor(mapper, count): new DalRowMapperExtractor(mapper);
+		// Each shard returns at most start + count rows when range is pushed down. Partial aggregates of each shard can not be limited
+		return count > 0 && !isAggregate() ? new DalRowMapperExtractor(mapper, start + count): new DalRowMapperExtractor(mapper);
 	}
 	
 	private <T> DalRowMapper<T> checkAllowPartial(DalHints hints) throws SQLException {
@@ -245,10 +372,10 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 	
 	private String buildFirst(String effectiveTableName){
 		count = 1;
-		return buildTop(effectiveTableName);
+		return buildTop(effectiveTableName, count);
 	}
 	
-	private String buildTop(String effectiveTableName){
+	private String buildTop(String effectiveTableName, int count){
 		return dbCategory.buildTop(effectiveTableName, buildColumns(), getCompleteWhereExp(), count);
 	}
 
@@ -261,6 +388,9 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 	}
 	
 	private String buildColumns() {
+		if(isAggregate())
+			return buildAggregateColumns();
+		
 		if(customized != null)
 			return customized;
 		
@@ -328,6 +458,11 @@ public class BaseTableSelectBuilder implements TableSelectBuilder {
 		return this;
 	}
 
+	@Override
+	public void pushdownToShards() {
+		pushdown = true;
+	}
+
 	public DatabaseCategory getDbCategory() {
 		return dbCategory;
 	}
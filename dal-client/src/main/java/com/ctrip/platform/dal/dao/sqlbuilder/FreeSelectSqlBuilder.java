@@ -2,6 +2,7 @@ package com.ctrip.platform.dal.dao.sqlbuilder;
 
 import java.sql.SQLException;
 import java.util.Comparator;
+import java.util.List;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.DalHintEnum;
@@ -17,8 +18,9 @@ import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
 import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
 import com.ctrip.platform.dal.dao.helper.DalSingleResultExtractor;
 import com.ctrip.platform.dal.dao.helper.DalSingleResultMerger;
+import com.ctrip.platform.dal.dao.helper.DalSortedListMerger;
 
-public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
+public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder, ShardPushdownBuilder {
 	private String selectSqlTemplate;
 	private DatabaseCategory dbCategory;
 	private StatementParameters parameters;
@@ -33,6 +35,7 @@ public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
 
 	private int count;
 	private int start;
+	private boolean pushdown = false;
 
 	public FreeSelectSqlBuilder(DatabaseCategory dbCategory) {
 		this.dbCategory = dbCategory;
@@ -63,6 +66,9 @@ public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
 		if(count  == 0)
 			return selectSqlTemplate;
 		
+		if(pushdown)
+			return dbCategory.buildPage(selectSqlTemplate, 0, start + count);
+		
 		return dbCategory.buildPage(selectSqlTemplate, start, count);
 	}
 
@@ -122,6 +128,11 @@ public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
 		return this;
 	}
 
+	@Override
+	public void pushdownToShards() {
+		pushdown = true;
+	}
+
 	public FreeSelectSqlBuilder<K> atPage(int pageNo, int pageSize) throws SQLException {
 		if(pageNo < 1 || pageSize < 1) 
 			throw new SQLException("Illigal pagesize or pageNo, please check");	
@@ -153,7 +164,17 @@ public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
 		if(isRequireSingle() || isRequireFirst())
 			return isRequireSingle() ? new DalSingleResultMerger() : new DalFirstResultMerger((Comparator)hints.getSorter());
 
-		return count > 0 ? new DalRangedResultMerger((Comparator)hints.getSorter(), count): new DalListMerger((Comparator)hints.getSorter());
+		if(hints.isShardResultsSorted())
+			return createSortedListMerger(hints);
+
+		return count > 0 ? new DalRangedResultMerger((Comparator)hints.getSorter(), start, count): new DalListMerger((Comparator)hints.getSorter());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> ResultMerger<T> createSortedListMerger(DalHints hints) {
+		Comparator<Object> sorter = hints.getSorter();
+		ResultMerger<List<Object>> merger = count > 0 ? new DalSortedListMerger<>(sorter, start, count) : new DalSortedListMerger<>(sorter);
+		return (ResultMerger<T>)merger;
 	}
 
 	public <T> DalResultSetExtractor<T> getResultExtractor(DalHints hints) throws SQLException { 
@@ -163,6 +184,7 @@ public class FreeSelectSqlBuilder<K> implements SqlBuilder, SelectBuilder {
 		if(isRequireSingle() || isRequireFirst())
 			return new DalSingleResultExtractor<>(mapper, isRequireSingle());
 			
-		return count > 0 ? new DalRowMapperExtractor(mapper, count) : new DalRowMapperExtractor(mapper);
+		// Each shard returns at most start + count rows when range is pushed down
+		return count > 0 ? new DalRowMapperExtractor(mapper, start + count) : new DalRowMapperExtractor(mapper);
 	}
 }
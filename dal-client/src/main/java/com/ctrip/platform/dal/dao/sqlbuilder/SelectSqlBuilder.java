@@ -8,7 +8,7 @@ import com.ctrip.platform.dal.dao.DalResultSetExtractor;
 import com.ctrip.platform.dal.dao.DalRowMapper;
 import com.ctrip.platform.dal.dao.ResultMerger;
 
-public class SelectSqlBuilder extends AbstractSqlBuilder implements TableSelectBuilder {
+public class SelectSqlBuilder extends AbstractSqlBuilder implements TableSelectBuilder, ShardPushdownBuilder {
 	private BaseTableSelectBuilder queryBuilder;
 	
 	private boolean isPagination = false;
@@ -137,6 +137,11 @@ public class SelectSqlBuilder extends AbstractSqlBuilder implements TableSelectB
 		return this;
 	}
 
+	@Override
+	public void pushdownToShards() {
+		queryBuilder.pushdownToShards();
+	}
+
 	@Override
 	public <T> ResultMerger<T> getResultMerger(DalHints hints) {
 		return queryBuilder.getResultMerger(hints);
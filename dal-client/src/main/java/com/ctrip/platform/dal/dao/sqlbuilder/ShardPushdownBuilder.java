@@ -0,0 +1,21 @@
+package com.ctrip.platform.dal.dao.sqlbuilder;
+
+/**
+ * Select builder that can push query down to shards. When the query is executed in more
+ * than one shard, each shard has to return a partial result that the result merger can combine:
+ * 
+ * For range query, rows in the given range of the final result can come from any shard, so each 
+ * shard has to return its first start + count rows. The range is then applied by the result merger.
+ * 
+ * For aggregate query, each shard returns partial aggregates, e.g. AVG as SUM and COUNT. They are
+ * then combined by the result merger.
+ *
+ * @author jhhe
+ */
+public interface ShardPushdownBuilder {
+	/**
+	 * Called by DalSqlTaskRequest when the query is going to be executed in more than one shard.
+	 * After this, the built sql will select the partial result of each shard.
+	 */
+	void pushdownToShards();
+}
@@ -1,6 +1,8 @@
 package com.ctrip.platform.dal.dao.status;
 
 import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -14,8 +16,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ctrip.platform.dal.dao.Version;
+import com.ctrip.platform.dal.dao.client.DataSourceLimiter;
 import com.ctrip.platform.dal.dao.configure.DalConfigure;
+import com.ctrip.platform.dal.dao.datasource.DefaultDalConnectionLocator;
 import com.ctrip.platform.dal.dao.markdown.MarkdownManager;
+import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.dao.task.DalThreadPoolExecutor;
 
 /**
  * TODO add logic DB level markdown control
@@ -29,6 +35,7 @@ public class DalStatusManager {
 	private static final String TYPE = "type";
 	private static final String LOGIC_DB_CONFIG_DOMAIN_PREFIX = "com.ctrip.dal.client.DatabaseSet";
 	private static final String DATASOURCE_CONFIG_DOMAIN_PREFIX = "com.ctrip.dal.client.DataSource";
+	private static final String EXECUTOR_POOL_DOMAIN_PREFIX = "com.ctrip.dal.client.ExecutorPool";
 	
 	private static AtomicBoolean initialized = new AtomicBoolean(false);
 	private static AtomicReference<TimeoutMarkdown> timeoutMarkDownRef = new AtomicReference<>();
@@ -36,6 +43,7 @@ public class DalStatusManager {
 	private static AtomicReference<MarkdownStatus> markdownStatusRef = new AtomicReference<>();
 	private static Map<String, DatabaseSetStatus> logicDbs = new ConcurrentHashMap<>();
 	private static Map<String, DataSourceStatus> dataSources = new ConcurrentHashMap<>();
+	private static Map<String, ExecutorPoolStatus> executorPools = new ConcurrentHashMap<>();
 	
 	public static void initialize(DalConfigure config) throws Exception {
 		if(initialized.get() == true)
@@ -48,7 +56,8 @@ public class DalStatusManager {
 			verifyRegistration();
 			registerGlobal();
 			registerDatabaseSets(config.getDatabaseSetNames());
-			registerDataSources(config.getDataSourceNames());
+			registerDataSources(config);
+			registerExecutorPools(DalRequestExecutor.getExecutors());
 			MarkdownManager.init();
 			
 			initialized.set(true);;
@@ -80,6 +89,8 @@ public class DalStatusManager {
 		
 		markdownStatusRef.set(new MarkdownStatus());
 		registerMBean(markdownStatusRef.get(), getGlobalName(MarkdownStatus.class));
+		
+		registerMBean(new StatementCacheStatus(), getGlobalName(StatementCacheStatus.class));
 	}
 
 	private static void registerDatabaseSets(Set<String> logicDbNames) throws Exception {
@@ -90,14 +101,47 @@ public class DalStatusManager {
 		}
 	}
 
-	private static void registerDataSources(Set<String> datasourceNames) throws Exception {
-		for(String name: datasourceNames) {
-			DataSourceStatus status = new DataSourceStatus(name);
+	private static void registerDataSources(DalConfigure config) throws Exception {
+		int maxConcurrency = DataSourceLimiter.DEFAULT_MAX_CONCURRENCY;
+		long maxWaitMillis = DataSourceLimiter.DEFAULT_MAX_WAIT_MILLIS;
+		if(config.getFacory() != null) {
+			String value = config.getFacory().getProperty(DataSourceLimiter.MAX_CONCURRENCY);
+			if(value != null)
+				maxConcurrency = Integer.parseInt(value);
+			
+			value = config.getFacory().getProperty(DataSourceLimiter.MAX_WAIT_MILLIS);
+			if(value != null)
+				maxWaitMillis = Long.parseLong(value);
+		}
+		
+		// Data sources on the same host share the limiter
+		Map<String, DataSourceLimiter> limiters = new HashMap<>();
+		for(String name: config.getDataSourceNames()) {
+			String host = null;
+			if(config.getLocator() instanceof DefaultDalConnectionLocator)
+				host = DataSourceLimiter.getHost(((DefaultDalConnectionLocator)config.getLocator()).getUrl(name));
+			
+			String key = host == null ? name : host;
+			DataSourceLimiter limiter = limiters.get(key);
+			if(limiter == null) {
+				limiter = new DataSourceLimiter(key, maxConcurrency, maxWaitMillis);
+				limiters.put(key, limiter);
+			}
+			
+			DataSourceStatus status = new DataSourceStatus(name, limiter);
 			registerMBean(status, new ObjectName(DATASOURCE_CONFIG_DOMAIN_PREFIX, TYPE, name));
 			dataSources.put(name, status);
 		}
 	}
 	
+	private static void registerExecutorPools(List<DalThreadPoolExecutor> executors) throws Exception {
+		for(DalThreadPoolExecutor executor: executors) {
+			ExecutorPoolStatus status = new ExecutorPoolStatus(executor);
+			registerMBean(status, new ObjectName(EXECUTOR_POOL_DOMAIN_PREFIX, TYPE, executor.getName()));
+			executorPools.put(executor.getName(), status);
+		}
+	}
+	
 	public static void shutdown() throws Exception {
 		if(initialized.get() == false)
 			return;
@@ -110,6 +154,7 @@ public class DalStatusManager {
 			mbs.unregisterMBean(getGlobalName(HAStatus.class));
 			mbs.unregisterMBean(getGlobalName(TimeoutMarkdown.class));
 			mbs.unregisterMBean(getGlobalName(MarkdownStatus.class));
+			mbs.unregisterMBean(getGlobalName(StatementCacheStatus.class));
 			
 			for(String name: dataSources.keySet())
 				mbs.unregisterMBean(new ObjectName(DATASOURCE_CONFIG_DOMAIN_PREFIX, TYPE, name));
@@ -119,6 +164,10 @@ public class DalStatusManager {
 				mbs.unregisterMBean(new ObjectName(LOGIC_DB_CONFIG_DOMAIN_PREFIX, TYPE, name));
 			logicDbs.clear();
 			
+			for(String name: executorPools.keySet())
+				mbs.unregisterMBean(new ObjectName(EXECUTOR_POOL_DOMAIN_PREFIX, TYPE, name));
+			executorPools.clear();
+			
 			initialized.set(false);
 		}
 	}
@@ -147,6 +196,10 @@ public class DalStatusManager {
 		return dataSources.get(dbName);
 	}
 	
+	public static ExecutorPoolStatus getExecutorPoolStatus(String name) {
+		return executorPools.get(name);
+	}
+	
 	public static boolean containsDataSourceStatus(String dbName) {
 		return dataSources.containsKey(dbName);
 	}
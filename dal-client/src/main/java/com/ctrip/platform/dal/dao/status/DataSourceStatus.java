@@ -5,6 +5,8 @@ import java.util.Date;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ctrip.platform.dal.dao.client.DataSourceLimiter;
+
 public class DataSourceStatus extends BaseStatus implements DataSourceStatusMBean {
 	private static Logger logger = LoggerFactory.getLogger(DataSourceStatus.class);
 	
@@ -13,9 +15,26 @@ public class DataSourceStatus extends BaseStatus implements DataSourceStatusMBea
 	private volatile Date manualMarkdownTime;
 	private volatile boolean autoMarkdown = false;
 	private volatile Date autoMarkdownTime;
+	private DataSourceLimiter limiter;
 	
 	public DataSourceStatus(String name) {
+		this(name, DataSourceLimiter.DEFAULT_MAX_CONCURRENCY, DataSourceLimiter.DEFAULT_MAX_WAIT_MILLIS);
+	}
+	
+	public DataSourceStatus(String name, int maxConcurrency, long maxWaitMillis) {
+		this(name, new DataSourceLimiter(name, maxConcurrency, maxWaitMillis));
+	}
+	
+	/**
+	 * @param limiter may be shared with other data sources on the same host
+	 */
+	public DataSourceStatus(String name, DataSourceLimiter limiter) {
 		this.name = name;
+		this.limiter = limiter;
+	}
+	
+	public DataSourceLimiter getLimiter() {
+		return limiter;
 	}
 	
 	public boolean isManualMarkdown() {
@@ -53,4 +72,51 @@ public class DataSourceStatus extends BaseStatus implements DataSourceStatusMBea
 	public Date getAutoMarkdownTime() {
 		return autoMarkdownTime;
 	}
+
+	public int getMaxConcurrency() {
+		return limiter.getMaxConcurrency();
+	}
+
+	public void setMaxConcurrency(int maxConcurrency) {
+		limiter.setMaxConcurrency(maxConcurrency);
+		logger.info(String.format("Max concurrency of database %s on %s has been changed to %d.", name, limiter.getName(), maxConcurrency));
+		changed();
+	}
+
+	public long getMaxWaitMillis() {
+		return limiter.getMaxWaitMillis();
+	}
+
+	public void setMaxWaitMillis(long maxWaitMillis) {
+		limiter.setMaxWaitMillis(maxWaitMillis);
+		changed();
+	}
+
+	public int getInFlight() {
+		return limiter.getInFlight();
+	}
+
+	public int getWaiting() {
+		return limiter.getWaiting();
+	}
+
+	public long getAcquiredCount() {
+		return limiter.getAcquiredCount();
+	}
+
+	public long getWaitedCount() {
+		return limiter.getWaitedCount();
+	}
+
+	public long getRejectedCount() {
+		return limiter.getRejectedCount();
+	}
+
+	public long getTotalWaitMillis() {
+		return limiter.getTotalWaitMillis();
+	}
+
+	public long getMaxWaitedMillis() {
+		return limiter.getMaxWaitedMillis();
+	}
 }
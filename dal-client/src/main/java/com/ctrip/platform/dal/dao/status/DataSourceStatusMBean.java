@@ -16,4 +16,26 @@ public interface DataSourceStatusMBean {
 
 	Date getAutoMarkdownTime();
 
+	int getMaxConcurrency();
+
+	void setMaxConcurrency(int maxConcurrency);
+
+	long getMaxWaitMillis();
+
+	void setMaxWaitMillis(long maxWaitMillis);
+
+	int getInFlight();
+
+	int getWaiting();
+
+	long getAcquiredCount();
+
+	long getWaitedCount();
+
+	long getRejectedCount();
+
+	long getTotalWaitMillis();
+
+	long getMaxWaitedMillis();
+
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.ctrip.platform.dal.dao.status;
+
+import com.ctrip.platform.dal.dao.task.DalThreadPoolExecutor;
+
+public class ExecutorPoolStatus extends BaseStatus implements ExecutorPoolStatusMBean {
+	private DalThreadPoolExecutor executor;
+	
+	public ExecutorPoolStatus(DalThreadPoolExecutor executor) {
+		this.executor = executor;
+	}
+	
+	public String getName() {
+		return executor.getName();
+	}
+
+	public String getMode() {
+		return executor.getMode();
+	}
+
+	public int getMaxPoolSize() {
+		return executor.getMaximumPoolSize();
+	}
+	public void setMaxPoolSize(int maxPoolSize) {
+		executor.resize(maxPoolSize);
+		changed();
+	}
+
+	public int getPoolSize() {
+		return executor.getPoolSize();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public int getLargestPoolSize() {
+		return executor.getLargestPoolSize();
+	}
+
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public int getMaxQueueSize() {
+		return executor.getMaxQueueSize();
+	}
+
+	public String getRejectPolicy() {
+		return executor.getRejectPolicy();
+	}
+
+	public int getMaxConcurrency() {
+		return executor.getMaxConcurrency();
+	}
+
+	public long getCompletedTaskCount() {
+		return executor.getCompletedTaskCount();
+	}
+
+	public long getRejectedCount() {
+		return executor.getRejectedCount();
+	}
+}
@@ -0,0 +1,31 @@
+package com.ctrip.platform.dal.dao.status;
+
+public interface ExecutorPoolStatusMBean {
+
+	String getName();
+
+	String getMode();
+
+	int getMaxPoolSize();
+
+	void setMaxPoolSize(int maxPoolSize);
+
+	int getPoolSize();
+
+	int getActiveCount();
+
+	int getLargestPoolSize();
+
+	int getQueueSize();
+
+	int getMaxQueueSize();
+
+	String getRejectPolicy();
+
+	int getMaxConcurrency();
+
+	long getCompletedTaskCount();
+
+	long getRejectedCount();
+
+}
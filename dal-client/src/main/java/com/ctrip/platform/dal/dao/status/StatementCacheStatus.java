@@ -0,0 +1,18 @@
+package com.ctrip.platform.dal.dao.status;
+
+import com.ctrip.platform.dal.dao.client.DalStatementCache;
+
+public class StatementCacheStatus extends BaseStatus implements StatementCacheStatusMBean {
+
+	public long getHitCount() {
+		return DalStatementCache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return DalStatementCache.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return DalStatementCache.getEvictionCount();
+	}
+}
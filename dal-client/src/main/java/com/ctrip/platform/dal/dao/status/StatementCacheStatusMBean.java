@@ -0,0 +1,11 @@
+package com.ctrip.platform.dal.dao.status;
+
+public interface StatementCacheStatusMBean {
+
+	long getHitCount();
+
+	long getMissCount();
+
+	long getEvictionCount();
+
+}
@@ -1,24 +1,178 @@
 package com.ctrip.platform.dal.dao.task;
 
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.client.DalDirectClient;
+import com.ctrip.platform.dal.dao.helper.DalRowMapperExtractor;
 import com.ctrip.platform.dal.exceptions.DalException;
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
 
 
 public abstract class AbstractIntArrayBulkTask<T> extends TaskAdapter<T> implements BulkTask<int[], T> {
+	protected static final String TVP_TARGET = "t";
+	protected static final String TVP_SOURCE = "v";
+
 	public int[] getEmptyValue() {
 		return new int[0];
 	}
-	
+
 	@Override
 	public BulkTaskContext<T> createTaskContext(DalHints hints, List<Map<String, ?>> daoPojos, List<T> rawPojos) throws DalException{
 		return new BulkTaskContext<T>(rawPojos);
 	}
-	
+
 	@Override
 	public BulkTaskResultMerger<int[]> createMerger() {
 		return new ShardedIntArrayResultMerger();
 	}
+
+	/**
+	 * Table valued parameter is used if the table type is set in hints and the database is SQL Server
+	 */
+	protected boolean isTvpEnabled(DalHints hints) {
+		return dbCategory == DatabaseCategory.SqlServer && hints.getTableType() != null && client instanceof DalDirectClient;
+	}
+
+	/**
+	 * The table type should have all the columns of parser in the same order
+	 */
+	protected SQLServerDataTable createTvp(DalHints hints) throws SQLException {
+		SQLServerDataTable tvp = new SQLServerDataTable();
+		tvp.setTvpName(hints.getTableType());
+		for(String column: parser.getColumnNames())
+			tvp.addColumnMetadata(column, getColumnType(column));
+		return tvp;
+	}
+
+	/**
+	 * @return t.pk1=v.pk1 AND t.pk2=v.pk2, plus version if required
+	 */
+	protected String buildTvpJoinCondition(boolean withVersion) {
+		StringBuilder sb = new StringBuilder();
+		for(String pk: parser.getPrimaryKeyNames())
+			appendColumnMatch(sb, pk);
+
+		if(withVersion && hasVersion)
+			appendColumnMatch(sb, parser.getVersionColumn());
+
+		return sb.toString();
+	}
+
+	private void appendColumnMatch(StringBuilder sb, String column) {
+		if(sb.length() > 0)
+			sb.append(AND);
+		String quoted = quote(column);
+		sb.append(TVP_TARGET).append('.').append(quoted).append('=').append(TVP_SOURCE).append('.').append(quoted);
+	}
+
+	/**
+	 * @param prefix inserted or deleted
+	 * @return output clause of the primary keys
+	 */
+	protected String buildTvpOutput(String prefix) {
+		StringBuilder sb = new StringBuilder();
+		for(String pk: parser.getPrimaryKeyNames()) {
+			if(sb.length() > 0)
+				sb.append(COLUMN_SEPARATOR);
+			sb.append(prefix).append('.').append(quote(pk));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Execute the set based statement with the table valued parameter. The statement outputs
+	 * the primary keys of affected rows, which are used to tell the affected rows of each pojo.
+	 * The statement is executed as update, so it is sent to master and not retried.
+	 *
+	 * @return affected rows of each pojo
+	 */
+	protected int[] executeByTvp(DalHints hints, String sql, SQLServerDataTable tvp, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
+		StatementParameters parameters = new StatementParameters();
+		parameters.set(1, hints.getTableType(), DatabaseCategory.SQL_SERVER_TYPE_TVP, tvp);
+
+		List<String> keys = ((DalDirectClient)client).updateWithOutput(sql, parameters, hints, new DalRowMapperExtractor<>(new DalRowMapper<String>() {
+			@Override
+			public String map(ResultSet rs, int rowNum) throws SQLException {
+				Object[] values = new Object[parser.getPrimaryKeyNames().length];
+				for(int i = 0; i < values.length; i++)
+					values[i] = rs.getObject(i + 1);
+				return getPrimaryKeyString(values);
+			}
+		}));
+
+		return getAffectedCounts(keys, daoPojos);
+	}
+
+	/**
+	 * If several pojos have the same key, only the first one is counted as affected
+	 * @param keys primary key strings of the affected rows
+	 * @return affected rows of each pojo
+	 */
+	protected int[] getAffectedCounts(List<String> keys, Map<Integer, Map<String, ?>> daoPojos) {
+		Set<String> affectedKeys = new HashSet<>(keys);
+
+		int[] counts = new int[daoPojos.size()];
+		int i = 0;
+		for(Map<String, ?> pojo: daoPojos.values())
+			counts[i++] = affectedKeys.remove(getPrimaryKeyString(pojo)) ? 1 : 0;
+
+		return counts;
+	}
+
+	/**
+	 * Values are compared by normalized string, because the type of the same key may differ between
+	 * pojo and result set. Numbers are compared by value regardless of scale, dates by the instant.
+	 */
+	protected String getPrimaryKeyString(Map<String, ?> fields) {
+		String[] pkNames = parser.getPrimaryKeyNames();
+		Object[] values = new Object[pkNames.length];
+		for(int i = 0; i < values.length; i++)
+			values[i] = fields.get(pkNames[i]);
+		return getPrimaryKeyString(values);
+	}
+
+	private String getPrimaryKeyString(Object[] values) {
+		StringBuilder sb = new StringBuilder();
+		for(Object value: values)
+			sb.append(normalize(value)).append('\u0000');
+		return sb.toString();
+	}
+
+	private static String normalize(Object value) {
+		if(value instanceof Number) {
+			BigDecimal number;
+			if(value instanceof BigDecimal)
+				number = (BigDecimal)value;
+			else if(value instanceof Double || value instanceof Float)
+				number = BigDecimal.valueOf(((Number)value).doubleValue());
+			else
+				number = new BigDecimal(value.toString());
+			return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+		}
+
+		if(value instanceof Date) {
+			long time = ((Date)value).getTime();
+			long seconds = time / 1000 - (time % 1000 < 0 ? 1 : 0);
+			long nanos = value instanceof Timestamp ? ((Timestamp)value).getNanos() : (time - seconds * 1000) * 1000000;
+			return seconds + "." + nanos;
+		}
+
+		if(value instanceof byte[])
+			return Arrays.toString((byte[])value);
+
+		return String.valueOf(value);
+	}
 }
@@ -0,0 +1,81 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decide whether a cross shard request should be executed sequentially in the caller thread
+ * or in parallel, from the observed latency of each shard of the same request identity.
+ *
+ * Parallel execution saves (shardCount - 1) * latency at most, but pays the cost of handing
+ * tasks over to the pool. If the saving is not beyond the inline threshold, the request
+ * runs sequentially. Requests never seen before are executed in parallel.
+ *
+ * Latency is kept as exponentially weighted moving average, so it follows the change of
+ * data volume and database load.
+ *
+ * @author jhhe
+ */
+public class AdaptiveExecutionPolicy {
+	public static final long DEFAULT_INLINE_THRESHOLD_MICROS = 1000;
+
+	// To prevent unbounded growth by ad-hoc sql
+	private static final int MAX_IDENTITIES = 10000;
+	// Weight of the newest sample is 1/WEIGHT_DIVISOR
+	private static final int WEIGHT_DIVISOR = 5;
+
+	private final long inlineThresholdNanos;
+	private final ConcurrentHashMap<String, AtomicLong> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * @param inlineThresholdMicros 0 or negative value means always in parallel
+	 */
+	public AdaptiveExecutionPolicy(long inlineThresholdMicros) {
+		inlineThresholdNanos = TimeUnit.MICROSECONDS.toNanos(inlineThresholdMicros);
+	}
+
+	public boolean isSequential(String identity, int shardCount) {
+		if(inlineThresholdNanos <= 0 || identity == null)
+			return false;
+
+		long latency = getLatency(identity);
+		if(latency < 0)
+			return false;
+
+		// Avoid overflow
+		return latency <= inlineThresholdNanos / Math.max(shardCount - 1, 1);
+	}
+
+	/**
+	 * Record execution time of one shard
+	 */
+	public void record(String identity, long elapsedNanos) {
+		if(inlineThresholdNanos <= 0 || identity == null)
+			return;
+
+		AtomicLong latency = latencies.get(identity);
+		if(latency == null) {
+			if(latencies.size() >= MAX_IDENTITIES)
+				return;
+
+			latency = latencies.putIfAbsent(identity, new AtomicLong(elapsedNanos));
+			if(latency == null)
+				return;
+		}
+
+		while(true) {
+			long current = latency.get();
+			if(latency.compareAndSet(current, current + (elapsedNanos - current) / WEIGHT_DIVISOR))
+				return;
+		}
+	}
+
+	/**
+	 * @return average latency of each shard in nanoseconds, -1 if not known yet
+	 */
+	public long getLatency(String identity) {
+		AtomicLong latency = latencies.get(identity);
+		return latency == null ? -1 : latency.get();
+	}
+}
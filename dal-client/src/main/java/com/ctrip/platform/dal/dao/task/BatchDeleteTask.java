@@ -1,18 +1,30 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
 
 public class BatchDeleteTask<T> extends AbstractIntArrayBulkTask<T> {
 	private static final String TMPL_SQL_DELETE = "DELETE FROM %s WHERE %s";
+	private static final String TMPL_SQL_DELETE_IN = "DELETE FROM %s WHERE %s IN (%s)";
+	private static final String TMPL_SQL_TVP_DELETE = "DELETE " + TVP_TARGET + " OUTPUT %s FROM %s " + TVP_TARGET + " INNER JOIN ? " + TVP_SOURCE + " ON %s";
 
 	@Override
 	public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos, BulkTaskContext<T> taskContext) throws SQLException {
+		if(isTvpEnabled(hints))
+			return deleteByTvp(hints, daoPojos);
+
+		if(hints.getDeleteInListSize() > 0 && parser.getPrimaryKeyNames().length == 1)
+			return deleteByInList(hints, daoPojos, hints.getDeleteInListSize());
+
 		StatementParameters[] parametersList = new StatementParameters[daoPojos.size()];
 		List<String> pkNames = Arrays.asList(parser.getPrimaryKeyNames());
 
@@ -28,6 +40,105 @@ public class BatchDeleteTask<T> extends AbstractIntArrayBulkTask<T> {
 		return result;
 	}
 	
+	/**
+	 * Send all pojos as one table valued parameter and delete them by joining with the table.
+	 * Only primary keys are sent, other columns are null.
+	 */
+	private int[] deleteByTvp(DalHints hints, Map<Integer, Map<String, ?>> daoPojos) throws SQLException {
+		SQLServerDataTable tvp = createTvp(hints);
+		String[] columns = parser.getColumnNames();
+		List<String> pkNames = Arrays.asList(parser.getPrimaryKeyNames());
+
+		for (Map<String, ?> pojo: daoPojos.values()) {
+			Object[] row = new Object[columns.length];
+			for(int i = 0; i < columns.length; i++) {
+				if(pkNames.contains(columns[i]))
+					row[i] = pojo.get(columns[i]);
+			}
+			tvp.addRow(row);
+		}
+
+		String tableName = getTableName(hints);
+		String sql = String.format(TMPL_SQL_TVP_DELETE, buildTvpOutput("deleted"), tableName, buildTvpJoinCondition(false));
+		return executeByTvp(hints, sql, tvp, daoPojos);
+	}
+
+	/**
+	 * Delete pojos by chunks of distinct primary keys. Duplicate keys are counted once for the
+	 * first pojo, the same as the batch. If a chunk deletes fewer rows than its keys, which key
+	 * is missing is unknown, so each pojo of the chunk gets Statement.SUCCESS_NO_INFO.
+	 */
+	private int[] deleteByInList(DalHints hints, Map<Integer, Map<String, ?>> daoPojos, int maxKeys) throws SQLException {
+		String pkName = parser.getPrimaryKeyNames()[0];
+		String tableName = getTableName(hints);
+
+		// Key to the positions of the pojos with the key, in the order of daoPojos
+		Map<Object, List<Integer>> keys = new LinkedHashMap<>();
+		int i = 0;
+		for (Map<String, ?> pojo: daoPojos.values()) {
+			Object key = pojo.get(pkName);
+			List<Integer> positions = keys.get(key);
+			if(positions == null) {
+				positions = new ArrayList<>(1);
+				keys.put(key, positions);
+			}
+			positions.add(i++);
+		}
+
+		int[] counts = new int[daoPojos.size()];
+		List<Object> chunk = new ArrayList<>(Math.min(maxKeys, keys.size()));
+		List<List<Integer>> chunkPositions = new ArrayList<>(Math.min(maxKeys, keys.size()));
+		for (Map.Entry<Object, List<Integer>> entry: keys.entrySet()) {
+			chunk.add(entry.getKey());
+			chunkPositions.add(entry.getValue());
+			if(chunk.size() == maxKeys) {
+				deleteChunk(hints, tableName, pkName, chunk, chunkPositions, counts);
+				chunk.clear();
+				chunkPositions.clear();
+			}
+		}
+
+		if(chunk.size() > 0)
+			deleteChunk(hints, tableName, pkName, chunk, chunkPositions, counts);
+
+		return counts;
+	}
+
+	private void deleteChunk(DalHints hints, String tableName, String pkName, List<Object> chunk, List<List<Integer>> chunkPositions, int[] counts) throws SQLException {
+		StatementParameters parameters = new StatementParameters();
+		int index = 1;
+		for(Object key: chunk)
+			addParameter(parameters, index++, pkName, key);
+
+		int deleted = client.update(buildDeleteInSql(tableName, pkName, chunk.size()), parameters, hints);
+
+		for(List<Integer> positions: chunkPositions) {
+			for(int j = 0; j < positions.size(); j++) {
+				if(deleted == chunk.size())
+					counts[positions.get(j)] = j == 0 ? 1 : 0;
+				else
+					counts[positions.get(j)] = deleted == 0 ? 0 : Statement.SUCCESS_NO_INFO;
+			}
+		}
+	}
+
+	private String buildDeleteInSql(String tableName, String pkName, int keyCount) {
+		int[] signature = getColumnSignature(Arrays.asList(pkName));
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_DELETE_IN, tableName, signature, keyCount);
+		if(sql != null)
+			return sql;
+
+		StringBuilder values = new StringBuilder();
+		for(int i = 0; i < keyCount; i++) {
+			if(i > 0)
+				values.append(COLUMN_SEPARATOR);
+			values.append('?');
+		}
+
+		sql = String.format(TMPL_SQL_DELETE_IN, tableName, quote(pkName), values);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_DELETE_IN, tableName, signature, keyCount, sql);
+	}
+
 	private String buildDeleteSql(String tableName) {
 		return String.format(TMPL_SQL_DELETE, tableName, pkSql);
 	}
@@ -48,11 +48,17 @@ public class BatchInsertTask<T> extends InsertTaskAdapter<T> implements BulkTask
 	
 	private String buildBatchInsertSql(DalHints hints, Set<String> unqualifiedColumns) throws SQLException {
 		List<String> finalInsertableColumns = buildValidColumnsForInsert(unqualifiedColumns);
+		String tableName = getTableName(hints);
+		int[] signature = getColumnSignature(finalInsertableColumns);
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_INSERT, tableName, signature, 0);
+		if(sql != null)
+			return sql;
 		
 		String values = combine(PLACE_HOLDER, finalInsertableColumns.size(), COLUMN_SEPARATOR);
 		String insertColumns = combineColumns(finalInsertableColumns, COLUMN_SEPARATOR);
 		
-		return String.format(TMPL_SQL_INSERT, getTableName(hints), insertColumns, values);
+		sql = String.format(TMPL_SQL_INSERT, tableName, insertColumns, values);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_INSERT, tableName, signature, 0, sql);
 	}
 	
 	@Override
@@ -1,7 +1,9 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -15,9 +17,11 @@ import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.UpdatableEntity;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
 
 public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 	public static final String TMPL_SQL_UPDATE = "UPDATE %s SET %s WHERE %s";
+	public static final String TMPL_SQL_TVP_UPDATE = "UPDATE " + TVP_TARGET + " SET %s OUTPUT %s FROM %s " + TVP_TARGET + " INNER JOIN ? " + TVP_SOURCE + " ON %s";
 
 	@Override
 	public BulkTaskContext<T> createTaskContext(DalHints hints, List<Map<String, ?>> daoPojos, List<T> rawPojos) throws DalException {
@@ -40,6 +44,9 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 		boolean isUpdatableEntity = taskContext.isUpdatableEntity();
 		Map<String, Boolean> pojoFieldStatus = taskContext.getPojoFieldStatus();
 
+		if(isTvpEnabled(hints))
+			return updateByTvp(hints, daoPojos, rawPojos, isUpdatableEntity, pojoFieldStatus);
+
 		StatementParameters[] parametersList = new StatementParameters[daoPojos.size()];
 		int i = 0;
 		String[] updateColumnNames = pojoFieldStatus.keySet().toArray(new String[pojoFieldStatus.size()]);
@@ -65,6 +72,69 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 		return result;
 	}
 	
+	/**
+	 * Send all pojos as one table valued parameter and update them by joining with the table.
+	 * Columns not updated of UpdatableEntity are sent as null and kept by ISNULL.
+	 */
+	private int[] updateByTvp(DalHints hints, Map<Integer, Map<String, ?>> daoPojos, List<T> rawPojos, 
+			boolean isUpdatableEntity, Map<String, Boolean> pojoFieldStatus) throws SQLException {
+		SQLServerDataTable tvp = createTvp(hints);
+		String[] columns = parser.getColumnNames();
+		Set<String> keyColumns = new HashSet<>(Arrays.asList(parser.getPrimaryKeyNames()));
+		if(hasVersion)
+			keyColumns.add(parser.getVersionColumn());
+
+		for (Integer index :daoPojos.keySet()) {
+			Map<String, ?> pojo = daoPojos.get(index);
+			if(hasVersion && pojo.get(parser.getVersionColumn()) == null)
+				throw new DalException(ErrorCode.ValidateVersion);
+
+			Set<String> updatedColumns = isUpdatableEntity && !hints.isUpdateUnchangedField() ?
+					((UpdatableEntity)rawPojos.get(index)).getUpdatedColumns() : null;
+
+			Object[] row = new Object[columns.length];
+			for(int i = 0; i < columns.length; i++) {
+				String column = columns[i];
+				if(updatedColumns == null || updatedColumns.contains(column) || keyColumns.contains(column))
+					row[i] = pojo.get(column);
+			}
+			tvp.addRow(row);
+		}
+
+		return executeByTvp(hints, buildTvpUpdateSql(getTableName(hints), pojoFieldStatus), tvp, daoPojos);
+	}
+
+	private String buildTvpUpdateSql(String tableName, Map<String, Boolean> pojoFieldStatus) {
+		int[] signature = getUpdateSignature(pojoFieldStatus);
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_TVP_UPDATE, tableName, signature, 0);
+		if(sql != null)
+			return sql;
+
+		List<String> updateColumnTmpls = new ArrayList<>(pojoFieldStatus.size());
+		for(Map.Entry<String, Boolean> fieldStatus: pojoFieldStatus.entrySet()) {
+			String target = TVP_TARGET + "." + quote(fieldStatus.getKey());
+			String source = TVP_SOURCE + "." + quote(fieldStatus.getKey());
+
+			// If the field contains null value
+			if(fieldStatus.getValue())
+				updateColumnTmpls.add(String.format("%s=ISNULL(%s,%s)", target, source, target));
+			else
+				updateColumnTmpls.add(target + "=" + source);
+		}
+
+		if(isVersionUpdatable) {
+			String version = TVP_TARGET + "." + quote(parser.getVersionColumn());
+			if(getColumnType(parser.getVersionColumn()) == Types.TIMESTAMP)
+				updateColumnTmpls.add(version + "=" + dbCategory.getTimestampExp());
+			else
+				updateColumnTmpls.add(version + "=" + version + "+1");
+		}
+
+		String updateColumnsTmpl = StringUtils.join(updateColumnTmpls, COLUMN_SEPARATOR);
+		sql = String.format(TMPL_SQL_TVP_UPDATE, updateColumnsTmpl, buildTvpOutput("inserted"), tableName, buildTvpJoinCondition(true));
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_TVP_UPDATE, tableName, signature, 0, sql);
+	}
+
 	public void addParameters(StatementParameters parameters,
 			Map<String, ?> entries, String[] validColumns, Set<String> updatedColumns) {
 		int index = parameters.size() + 1;
@@ -167,7 +237,25 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 		return columnStatus;
 	}
 
+	private int[] getUpdateSignature(Map<String, Boolean> pojoFieldStatus) {
+		// Nullable column has different template, so it is part of the signature
+		int[] signature = getColumnSignature(pojoFieldStatus.keySet());
+		if(signature != null) {
+			int i = 0;
+			for(Boolean nullable: pojoFieldStatus.values()) {
+				signature[i] = signature[i] * 2 + (nullable ? 1 : 0);
+				i++;
+			}
+		}
+		return signature;
+	}
+
 	private String buildBatchUpdateSql(String tableName, Map<String, Boolean> pojoFieldStatus) {
+		int[] signature = getUpdateSignature(pojoFieldStatus);
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_UPDATE, tableName, signature, 0);
+		if(sql != null)
+			return sql;
+		
 		List<String> updateColumnTmpls = new ArrayList<>(pojoFieldStatus.size());
 
 		for(Map.Entry<String, Boolean> fieldStatus: pojoFieldStatus.entrySet()) {
@@ -185,7 +273,8 @@ public class BatchUpdateTask<T> extends AbstractIntArrayBulkTask<T> {
 			updateColumnTmpls.add(setVersionValueTmpl);
 		
 		String updateColumnsTmpl = StringUtils.join(updateColumnTmpls, COLUMN_SEPARATOR);
-		return String.format(TMPL_SQL_UPDATE, tableName, updateColumnsTmpl, updateCriteriaTmpl);
+		sql = String.format(TMPL_SQL_UPDATE, tableName, updateColumnsTmpl, updateCriteriaTmpl);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_UPDATE, tableName, signature, 0, sql);
 	}
 	
 	private void addVersion(StatementParameters parameters, Map<String, ?> pojo) throws DalException {
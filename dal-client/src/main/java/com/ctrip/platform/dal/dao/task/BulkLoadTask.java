@@ -0,0 +1,70 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.DalParser;
+import com.ctrip.platform.dal.dao.client.BulkCopy;
+import com.ctrip.platform.dal.dao.client.DalDirectClient;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+/**
+ * Insert pojos through BulkCopy of the database. Columns are decided the same way as
+ * batch insert, pojos are shuffled to shards and chunked by DalBulkTaskRequest.
+ *
+ * @author jhhe
+ */
+public class BulkLoadTask<T> extends InsertTaskAdapter<T> implements BulkTask<Integer, T> {
+	private BulkCopy bulkCopy;
+
+	@Override
+	public void initialize(DalParser<T> parser) {
+		super.initialize(parser);
+		bulkCopy = BulkCopy.getInstance(dbCategory);
+	}
+
+	@Override
+	public Integer getEmptyValue() {
+		return 0;
+	}
+
+	@Override
+	public BulkTaskContext<T> createTaskContext(DalHints hints, List<Map<String, ?>> daoPojos, List<T> rawPojos) {
+		BulkTaskContext<T> context = new BulkTaskContext<T>(rawPojos);
+		Set<String> unqualifiedColumns = filterUnqualifiedColumns(hints, daoPojos, rawPojos);
+		context.setUnqualifiedColumns(unqualifiedColumns);
+		return context;
+	}
+
+	@Override
+	public Integer execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos, BulkTaskContext<T> taskContext) throws SQLException {
+		if(bulkCopy == null || !(client instanceof DalDirectClient))
+			throw new DalException(ErrorCode.BulkLoadNotSupported, dbCategory);
+
+		List<String> finalInsertableColumns = buildValidColumnsForInsert(taskContext.getUnqualifiedColumns());
+		String[] columns = finalInsertableColumns.toArray(new String[finalInsertableColumns.size()]);
+		int[] types = new int[columns.length];
+		for(int i = 0; i < columns.length; i++)
+			types[i] = columnTypes.get(columns[i]);
+
+		List<Object[]> rows = new ArrayList<>(daoPojos.size());
+		for(Map<String, ?> pojo: daoPojos.values()) {
+			Object[] row = new Object[columns.length];
+			for(int i = 0; i < columns.length; i++)
+				row[i] = pojo.get(columns[i]);
+			rows.add(row);
+		}
+
+		return ((DalDirectClient)client).bulkCopy(bulkCopy, getTableName(hints), columns, types, rows, hints);
+	}
+
+	@Override
+	public BulkTaskResultMerger<Integer> createMerger() {
+		return new ShardedIntResultMerger();
+	}
+}
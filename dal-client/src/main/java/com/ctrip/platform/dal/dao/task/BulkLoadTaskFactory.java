@@ -0,0 +1,14 @@
+package com.ctrip.platform.dal.dao.task;
+
+import com.ctrip.platform.dal.dao.DalParser;
+
+/**
+ * Optional interface of DalTaskFactory to create the task of DalTableDao.bulkLoad. It is kept 
+ * out of DalTaskFactory so that existing factories need no change. DalTableDao uses the task 
+ * of DefaultTaskFactory if the configured factory does not implement it.
+ * 
+ * @author jhhe
+ */
+public interface BulkLoadTaskFactory {
+	<T> BulkTask<Integer, T> createBulkLoadTask(DalParser<T> parser);
+}
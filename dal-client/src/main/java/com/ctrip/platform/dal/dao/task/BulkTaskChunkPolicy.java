@@ -0,0 +1,114 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Split the pojos of a bulk task into chunks so that each statement or batch stays under the
+ * limits of the database, like 2100 parameters of SQL Server or max_allowed_packet of MySQL.
+ * A chunk is closed when adding the next pojo exceeds the max rows, the max parameters or the
+ * max estimated bytes. Limit that is not positive is ignored. A pojo that exceeds the limits
+ * alone still makes a chunk of its own.
+ *
+ * The parameters of a pojo are estimated by the number of its fields, the bytes by the size of
+ * field values, both are upper bound of what is sent for the pojo.
+ *
+ * The index of each pojo is kept in the chunk, so the affected rows and generated keys of the
+ * chunks can be merged the same way as those of shards.
+ *
+ * @author jhhe
+ */
+public class BulkTaskChunkPolicy {
+	private static final int PARAMETER_OVERHEAD = 4;
+	private static final int DEFAULT_VALUE_SIZE = 16;
+
+	private int maxRows;
+	private int maxParameters;
+	private long maxBytes;
+
+	public BulkTaskChunkPolicy(int maxRows, int maxParameters, long maxBytes) {
+		this.maxRows = maxRows;
+		this.maxParameters = maxParameters;
+		this.maxBytes = maxBytes;
+	}
+
+	public List<Map<Integer, Map<String, ?>>> split(Map<Integer, Map<String, ?>> pojos) {
+		List<Map<Integer, Map<String, ?>>> chunks = new ArrayList<>();
+		Map<Integer, Map<String, ?>> chunk = new LinkedHashMap<>();
+		int parameters = 0;
+		long bytes = 0;
+
+		for(Map.Entry<Integer, Map<String, ?>> entry: pojos.entrySet()) {
+			Map<String, ?> pojo = entry.getValue();
+			int pojoParameters = pojo.size();
+			long pojoBytes = maxBytes > 0 ? estimateBytes(pojo) : 0;
+
+			if(!chunk.isEmpty() && (
+					exceeds(chunk.size() + 1, maxRows) ||
+					exceeds(parameters + pojoParameters, maxParameters) ||
+					exceeds(bytes + pojoBytes, maxBytes))) {
+				chunks.add(chunk);
+				chunk = new LinkedHashMap<>();
+				parameters = 0;
+				bytes = 0;
+			}
+
+			chunk.put(entry.getKey(), pojo);
+			parameters += pojoParameters;
+			bytes += pojoBytes;
+		}
+
+		if(!chunk.isEmpty())
+			chunks.add(chunk);
+
+		return chunks;
+	}
+
+	private boolean exceeds(long value, long limit) {
+		return limit > 0 && value > limit;
+	}
+
+	public static long estimateBytes(Map<String, ?> pojo) {
+		long bytes = 0;
+		for(Object value: pojo.values())
+			bytes += estimateBytes(value) + PARAMETER_OVERHEAD;
+		return bytes;
+	}
+
+	/**
+	 * @return size of the value in UTF-8 for text, length for binary, or fixed size for other types
+	 */
+	public static int estimateBytes(Object value) {
+		if(value == null)
+			return 0;
+
+		if(value instanceof byte[])
+			return ((byte[])value).length;
+
+		if(value instanceof CharSequence) {
+			CharSequence text = (CharSequence)value;
+			int bytes = 0;
+			for(int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+			}
+			return bytes;
+		}
+
+		return DEFAULT_VALUE_SIZE;
+	}
+
+	public int getMaxRows() {
+		return maxRows;
+	}
+
+	public int getMaxParameters() {
+		return maxParameters;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+}
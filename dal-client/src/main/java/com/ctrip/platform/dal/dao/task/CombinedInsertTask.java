@@ -28,14 +28,11 @@ public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkT
 	@Override
 	public Integer execute(DalHints hints, Map<Integer, Map<String, ?>> daoPojos, BulkTaskContext<T> taskContext) throws SQLException {
 		StatementParameters parameters = new StatementParameters();
-		StringBuilder values = new StringBuilder();
 
 		Set<String> unqualifiedColumns = taskContext.getUnqualifiedColumns();
 		
 		List<String> finalInsertableColumns = buildValidColumnsForInsert(unqualifiedColumns);
 		
-		String insertColumns = combineColumns(finalInsertableColumns, COLUMN_SEPARATOR);
-		
 		int startIndex = 1;
 		for (Integer index :daoPojos.keySet()) {
 			Map<String, ?> pojo = daoPojos.get(index);
@@ -44,12 +41,9 @@ public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkT
 			
 			int paramCount = addParameters(startIndex, parameters, pojo, finalInsertableColumns);
 			startIndex += paramCount;
-			values.append(String.format("(%s),", combine("?", paramCount, ",")));
 		}
 
-		String sql = String.format(TMPL_SQL_MULTIPLE_INSERT,
-				getTableName(hints), insertColumns,
-				values.substring(0, values.length() - 2) + ")");
+		String sql = buildCombinedInsertSql(getTableName(hints), finalInsertableColumns, daoPojos.size());
 
 		KeyHolder keyHolder = hints.getKeyHolder();
 		KeyHolder tmpHolder = keyHolder != null && keyHolder.isRequireMerge() ? new KeyHolder() : keyHolder;
@@ -63,6 +57,29 @@ public class CombinedInsertTask<T> extends InsertTaskAdapter<T> implements BulkT
 		return count;
 	}
 
+	/**
+	 * Each pojo has the same number of parameters as the insertable columns
+	 */
+	private String buildCombinedInsertSql(String tableName, List<String> finalInsertableColumns, int rowCount) {
+		int[] signature = getColumnSignature(finalInsertableColumns);
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_MULTIPLE_INSERT, tableName, signature, rowCount);
+		if(sql != null)
+			return sql;
+		
+		String insertColumns = combineColumns(finalInsertableColumns, COLUMN_SEPARATOR);
+		String value = "(" + combine("?", finalInsertableColumns.size(), ",") + ")";
+		
+		StringBuilder values = new StringBuilder(rowCount * (value.length() + 1));
+		for(int i = 0; i < rowCount; i++) {
+			if(i > 0)
+				values.append(",");
+			values.append(value);
+		}
+		
+		sql = String.format(TMPL_SQL_MULTIPLE_INSERT, tableName, insertColumns, values);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_MULTIPLE_INSERT, tableName, signature, rowCount, sql);
+	}
+
 	@Override
 	public BulkTaskResultMerger<Integer> createMerger() {
 		return new ShardedIntResultMerger();
@@ -8,11 +8,17 @@ import static com.ctrip.platform.dal.dao.helper.DalShardingHelper.shuffleByTable
 
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.KeyHolder;
+import com.ctrip.platform.dal.dao.client.DalTransactionManager;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
@@ -35,6 +41,16 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 		this.task = task;
 	}
 
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
+	@Override
+	public String getIdentity() {
+		return logicDbName + ":" + rawTableName + ":" + task.getClass().getName();
+	}
+	
 	@Override
 	public void validate() throws SQLException {
 		if(null == rawPojos)
@@ -140,7 +156,7 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 			if(isTableShardingEnabled(logicDbName, rawTableName)) {
 				return executeByTableShards();
 			}else{
-				return task.execute(hints, shaffled, taskContext);
+				return executeByChunks(hints, shaffled);
 			}
 		}
 
@@ -161,11 +177,90 @@ public class DalBulkTaskRequest<K, T> implements DalRequest<K>{
 				tmpHints.inTableShard(curTableShardId);
 				merger.recordPartial(curTableShardId, pojosInShard.keySet().toArray(new Integer[pojosInShard.size()]));
 				
-				K partial = task.execute(tmpHints, pojosInShard, taskContext);
+				K partial = executeByChunks(tmpHints, pojosInShard);
 				merger.addPartial(curTableShardId, partial);
 				
 			}
 			return merger.merge();
 		}
+
+		/**
+		 * Execute the pojos chunk by chunk if chunk policy is set. When pipelined, up to the given
+		 * number of chunks are executed in the executor of the logic DB. A chunk that is not started
+		 * by the executor when its result is required is executed in the current thread.
+		 * 
+		 * Each chunk gets its own key holder, the keys of which are merged to the key holder in 
+		 * hints by the pojo indexes of the chunk.
+		 */
+		private K executeByChunks(DalHints hints, Map<Integer, Map<String, ?>> pojos) throws SQLException {
+			BulkTaskChunkPolicy policy = hints.getChunkPolicy();
+			List<Map<Integer, Map<String, ?>>> chunks = policy == null ? null : policy.split(pojos);
+			if(chunks == null || chunks.size() <= 1)
+				return task.execute(hints, pojos, taskContext);
+
+			final KeyHolder keyHolder = hints.getKeyHolder();
+			if(keyHolder != null)
+				keyHolder.requireMerge();
+
+			BulkTaskResultMerger<K> merger = task.createMerger();
+			int depth = DalTransactionManager.isInTransaction() ? 1 : Math.max(hints.getPipelineChunks(), 1);
+			LinkedList<FutureTask<K>> executions = new LinkedList<>();
+			int completed = 0;
+			
+			try {
+				for(int i = 0; i < chunks.size(); i++) {
+					final Map<Integer, Map<String, ?>> chunk = chunks.get(i);
+					final Integer[] indexes = chunk.keySet().toArray(new Integer[chunk.size()]);
+					final KeyHolder chunkHolder = keyHolder == null ? null : new KeyHolder();
+					final DalHints chunkHints = hints.clone().setKeyHolder(chunkHolder);
+					merger.recordPartial(String.valueOf(i), indexes);
+					
+					FutureTask<K> execution = new FutureTask<>(new Callable<K>() {
+						public K call() throws Exception {
+							K partial = task.execute(chunkHints, chunk, taskContext);
+							if(chunkHolder != null)
+								keyHolder.addPatial(indexes, chunkHolder);
+							return partial;
+						}
+					});
+					executions.add(execution);
+					
+					if(depth > 1)
+						submit(execution);
+					
+					if(executions.size() >= depth)
+						merger.addPartial(String.valueOf(completed++), complete(executions.poll()));
+				}
+				
+				while(!executions.isEmpty())
+					merger.addPartial(String.valueOf(completed++), complete(executions.poll()));
+			} finally {
+				for(FutureTask<K> execution: executions)
+					execution.cancel(false);
+			}
+
+			return merger.merge();
+		}
+
+		private void submit(FutureTask<K> execution) {
+			try {
+				DalRequestExecutor.getExecutor(logicDbName).execute(execution);
+			} catch (RejectedExecutionException e) {
+				// Will be executed when its result is required
+			}
+		}
+
+		private K complete(FutureTask<K> execution) throws SQLException {
+			execution.run();
+			try {
+				return execution.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				throw cause instanceof SQLException ? (SQLException)cause : DalException.wrap(cause);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw DalException.wrap(e);
+			}
+		}
 	}
 }
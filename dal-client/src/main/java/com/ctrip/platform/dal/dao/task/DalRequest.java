@@ -7,6 +7,16 @@ import java.util.concurrent.Callable;
 import com.ctrip.platform.dal.dao.ResultMerger;
 
 public interface DalRequest<T> {
+	/**
+	 * @return the logic DB this request is executed against. It is used to locate the executor pool
+	 */
+	String getLogicDbName();
+	
+	/**
+	 * @return identity shared by requests of the same sql template. It is used to collect execution statistics
+	 */
+	String getIdentity();
+	
 	/**
 	 * Validate request
 	 * @throws SQLException
@@ -1,21 +1,34 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.ctrip.platform.dal.dao.DalClientFactory;
 import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalResultCallback;
+import com.ctrip.platform.dal.dao.PartialResultAware;
+import com.ctrip.platform.dal.dao.PartialResultStatus;
 import com.ctrip.platform.dal.dao.ResultMerger;
+import com.ctrip.platform.dal.dao.ShortCircuitMerger;
 import com.ctrip.platform.dal.dao.client.DalWatcher;
+import com.ctrip.platform.dal.dao.client.StatementCanceller;
+import com.ctrip.platform.dal.dao.configure.DalConfigure;
 import com.ctrip.platform.dal.exceptions.DalException;
 import com.ctrip.platform.dal.exceptions.ErrorCode;
 
@@ -26,12 +39,73 @@ import com.ctrip.platform.dal.exceptions.ErrorCode;
  * @author jhhe
  */
 public class DalRequestExecutor {
-	private static AtomicReference<ExecutorService> serviceRef = new AtomicReference<>();
+	private static AtomicReference<DalThreadPoolExecutor> serviceRef = new AtomicReference<>();
+	private static Map<String, DalThreadPoolExecutor> serviceByLogicDb = new ConcurrentHashMap<>();
 	
 	public static final String MAX_POOL_SIZE = "maxPoolSize";
+	public static final String MAX_QUEUE_SIZE = "maxQueueSize";
+	public static final String REJECT_POLICY = "rejectPolicy";
+	public static final String INLINE_THRESHOLD_MICROS = "inlineThresholdMicros";
+	public static final String EXECUTOR_MODE = "executorMode";
+	public static final String MAX_CONCURRENCY = "maxConcurrency";
+	
+	public static final String DEFAULT_POOL_NAME = "default";
 	public static final int DEFAULT_MAX_POOL_SIZE = 50;
+	public static final int DEFAULT_MAX_QUEUE_SIZE = Integer.MAX_VALUE;
+	
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+	
+	// Deadline of the request whose task is executed by current thread
+	private static ThreadLocal<Long> currentDeadline = new ThreadLocal<>();
+	
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "DAL-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private static volatile AdaptiveExecutionPolicy policy = new AdaptiveExecutionPolicy(AdaptiveExecutionPolicy.DEFAULT_INLINE_THRESHOLD_MICROS);
 
 	public static void init(String maxPoolSizeStr){
+		Map<String, String> settings = new HashMap<>();
+		if(maxPoolSizeStr != null)
+			settings.put(MAX_POOL_SIZE, maxPoolSizeStr);
+
+		init(settings, new HashMap<String, Map<String, String>>());
+	}
+	
+	/**
+	 * Create the shared pool from TaskFactory settings and one dedicated pool for each 
+	 * database set that has executor element configured in dal.xml
+	 * @param config
+	 */
+	public static void init(DalConfigure config){
+		DalTaskFactory factory = config.getFacory();
+		Map<String, String> settings = new HashMap<>();
+		putIfNotNull(settings, MAX_POOL_SIZE, factory.getProperty(MAX_POOL_SIZE));
+		putIfNotNull(settings, MAX_QUEUE_SIZE, factory.getProperty(MAX_QUEUE_SIZE));
+		putIfNotNull(settings, REJECT_POLICY, factory.getProperty(REJECT_POLICY));
+		putIfNotNull(settings, EXECUTOR_MODE, factory.getProperty(EXECUTOR_MODE));
+		putIfNotNull(settings, MAX_CONCURRENCY, factory.getProperty(MAX_CONCURRENCY));
+		
+		String inlineThreshold = factory.getProperty(INLINE_THRESHOLD_MICROS);
+		if(inlineThreshold != null)
+			policy = new AdaptiveExecutionPolicy(Long.parseLong(inlineThreshold));
+		
+		Map<String, Map<String, String>> settingsByLogicDb = new HashMap<>();
+		for(String logicDbName: config.getDatabaseSetNames()) {
+			Map<String, String> executorSettings = config.getDatabaseSet(logicDbName).getExecutorSettings();
+			if(executorSettings != null)
+				settingsByLogicDb.put(logicDbName, executorSettings);
+		}
+		
+		init(settings, settingsByLogicDb);
+	}
+	
+	private static void init(Map<String, String> settings, Map<String, Map<String, String>> settingsByLogicDb){
 		if(serviceRef.get() != null)
 			return;
 		
@@ -39,13 +113,40 @@ public class DalRequestExecutor {
 			if(serviceRef.get() != null)
 				return;
 			
-			int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
-			if(maxPoolSizeStr != null)
-				maxPoolSize = Integer.parseInt(maxPoolSizeStr);
+			for(Map.Entry<String, Map<String, String>> entry: settingsByLogicDb.entrySet())
+				serviceByLogicDb.put(entry.getKey(), createPool(entry.getKey(), entry.getValue()));
 			
-			serviceRef.set(new ThreadPoolExecutor(5, maxPoolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()));
+			serviceRef.set(createPool(DEFAULT_POOL_NAME, settings));
 		}
-	} 
+	}
+	
+	private static DalThreadPoolExecutor createPool(String name, Map<String, String> settings) {
+		int maxConcurrency = 0;
+		if(settings.containsKey(MAX_CONCURRENCY))
+			maxConcurrency = Integer.parseInt(settings.get(MAX_CONCURRENCY));
+		
+		String mode = settings.get(EXECUTOR_MODE);
+		if(DalThreadPoolExecutor.UNBOUNDED.equalsIgnoreCase(mode))
+			return DalThreadPoolExecutor.unbounded(name, maxConcurrency);
+		
+		if(mode != null && !DalThreadPoolExecutor.BOUNDED.equalsIgnoreCase(mode))
+			throw new IllegalArgumentException("Unknown executor mode: " + mode + ". Supported are " + DalThreadPoolExecutor.BOUNDED + " and " + DalThreadPoolExecutor.UNBOUNDED);
+		
+		int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+		if(settings.containsKey(MAX_POOL_SIZE))
+			maxPoolSize = Integer.parseInt(settings.get(MAX_POOL_SIZE));
+		
+		int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+		if(settings.containsKey(MAX_QUEUE_SIZE))
+			maxQueueSize = Integer.parseInt(settings.get(MAX_QUEUE_SIZE));
+
+		return new DalThreadPoolExecutor(name, maxPoolSize, maxQueueSize, settings.get(REJECT_POLICY), maxConcurrency);
+	}
+	
+	private static void putIfNotNull(Map<String, String> settings, String key, String value) {
+		if(value != null)
+			settings.put(key, value);
+	}
 	
 	public static void shutdown() {
 		if (serviceRef.get() == null)
@@ -55,10 +156,57 @@ public class DalRequestExecutor {
 			if (serviceRef.get() == null)
 				return;
 			
+			for(DalThreadPoolExecutor service: serviceByLogicDb.values())
+				service.shutdown();
+			serviceByLogicDb.clear();
+			
 			serviceRef.get().shutdown();
 			serviceRef.set(null);
 		}
 	}
+	
+	/**
+	 * @return all the pools. The shared pool is the first one
+	 */
+	public static List<DalThreadPoolExecutor> getExecutors() {
+		List<DalThreadPoolExecutor> executors = new ArrayList<>();
+		if(serviceRef.get() != null)
+			executors.add(serviceRef.get());
+		executors.addAll(serviceByLogicDb.values());
+		return executors;
+	}
+	
+	/**
+	 * @param logicDbName
+	 * @return the dedicated pool of given logic DB or the shared pool if there is none
+	 */
+	public static DalThreadPoolExecutor getExecutor(String logicDbName) {
+		DalThreadPoolExecutor service = logicDbName == null ? null : serviceByLogicDb.get(logicDbName);
+		if(service != null)
+			return service;
+		
+		if(serviceRef.get() == null)
+			init((String)null);
+		
+		return serviceRef.get();
+	}
+	
+	/**
+	 * The single thread scheduler shared by DAL components for delayed tasks. Scheduled tasks must
+	 * be short and never access database, they only hand over the work to the pools.
+	 */
+	public static ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+	
+	private <T> Future<T> submit(String logicDbName, Callable<T> task) throws SQLException {
+		DalThreadPoolExecutor service = getExecutor(logicDbName);
+		try {
+			return service.submit(task);
+		} catch (RejectedExecutionException e) {
+			throw new DalException(ErrorCode.ExecutorRejected, e, service.getName());
+		}
+	}
 
 	public <T> T execute(final DalHints hints, final DalRequest<T> request) throws SQLException {
 		return execute(hints, request, false);
@@ -66,11 +214,12 @@ public class DalRequestExecutor {
 	
 	public <T> T execute(final DalHints hints, final DalRequest<T> request, final boolean nullable) throws SQLException {
 		// TODO add performance tracking DalWatcher.begin();
+		final long deadline = getDeadline(hints);
 
 		if (hints.isAsyncExecution()) {
-			Future<T> future = serviceRef.get().submit(new Callable<T>() {
+			Future<T> future = submit(request.getLogicDbName(), new Callable<T>() {
 				public T call() throws Exception {
-					return internalExecute(hints, request, nullable);
+					return internalExecute(hints, request, nullable, deadline);
 				}
 			});
 			
@@ -79,10 +228,10 @@ public class DalRequestExecutor {
 			return null;
 		}
 		
-		return internalExecute(hints, request, nullable);
+		return internalExecute(hints, request, nullable, deadline);
 	}
 
-	private <T> T internalExecute(DalHints hints, DalRequest<T> request, boolean nullable) throws SQLException {
+	private <T> T internalExecute(DalHints hints, DalRequest<T> request, boolean nullable, long deadline) throws SQLException {
 		T result = null;
 		Throwable error = null;
 		
@@ -93,9 +242,9 @@ public class DalRequestExecutor {
 			 * TODO make sure detect distributed transaction 
 			 */
 			if(request.isCrossShard())
-				result = crossShardExecute(hints, request);
+				result = crossShardExecute(hints, request, deadline);
 			else
-				result = nonCrossShardExecute(hints, request);
+				result = nonCrossShardExecute(hints, request, deadline);
 
 			if(result == null && !nullable)
 				throw new DalException(ErrorCode.AssertNull);
@@ -109,26 +258,117 @@ public class DalRequestExecutor {
 		
 		return result;
 	}
+	
+	private long getDeadline(DalHints hints) {
+		Long requestTimeout = hints.getRequestTimeout();
+		return requestTimeout == null ? NO_DEADLINE : System.currentTimeMillis() + requestTimeout;
+	}
+	
+	/**
+	 * @return deadline of the request whose task is executed by current thread, or NO_DEADLINE
+	 */
+	public static long getCurrentDeadline() {
+		Long deadline = currentDeadline.get();
+		return deadline == null ? NO_DEADLINE : deadline;
+	}
+	
+	/**
+	 * Execute the task with the deadline bound to current thread, so that statements created by
+	 * the task do not time out beyond it. The hints of caller are left untouched.
+	 */
+	public static <T> T callBeforeDeadline(Callable<T> task, long deadline) throws Exception {
+		if(deadline == NO_DEADLINE)
+			return task.call();
+		
+		Long outer = currentDeadline.get();
+		currentDeadline.set(deadline);
+		try {
+			return task.call();
+		} finally {
+			if(outer == null)
+				currentDeadline.remove();
+			else
+				currentDeadline.set(outer);
+		}
+	}
+	
+	/**
+	 * Make sure statement timeout is not beyond the deadline bound to current thread.
+	 * @param timeout statement timeout in seconds, null or negative if not set, zero for no limit
+	 * @return the timeout capped by the deadline
+	 */
+	public static Integer capTimeout(Integer timeout) {
+		long deadline = getCurrentDeadline();
+		if(deadline == NO_DEADLINE)
+			return timeout;
+		
+		long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+		int remainingSeconds = (int)Math.max((remaining + 999) / 1000, 1);
+		return timeout == null || timeout <= 0 || timeout > remainingSeconds ? remainingSeconds : timeout;
+	}
 
-	private <T> T nonCrossShardExecute(DalHints hints, DalRequest<T> request) throws SQLException {
+	private <T> T nonCrossShardExecute(DalHints hints, DalRequest<T> request, long deadline) throws SQLException {
 		try {
-			return request.createTask().call();
+			return callWithPermit(getPermits(request), request.getLogicDbName(), request.createTask(), deadline);
 		} catch (Exception e) {
 			throw DalException.wrap(e);
 		}
 	}
 	
-	private <T> T crossShardExecute(DalHints hints, DalRequest<T> request) throws SQLException {
+	private <T> Semaphore getPermits(DalRequest<T> request) {
+		return getExecutor(request.getLogicDbName()).getPermits(request.getLogicDbName());
+	}
+	
+	/**
+	 * Execute the task when there is permit of the logic DB. The permit is held only during the 
+	 * execution of one shard, so that it will never be waited by the one who holds it. 
+	 */
+	private static <T> T callWithPermit(Semaphore permits, String logicDbName, Callable<T> task, long deadline) throws Exception {
+		if(permits == null)
+			return callBeforeDeadline(task, deadline);
+		
+		if(deadline == NO_DEADLINE)
+			permits.acquire();
+		else if(!permits.tryAcquire(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS))
+			throw new DalException(ErrorCode.ConcurrencyLimited, logicDbName, deadline - System.currentTimeMillis());
+		
+		try {
+			return callBeforeDeadline(task, deadline);
+		} finally {
+			permits.release();
+		}
+	}
+	
+	private <T> T crossShardExecute(DalHints hints, DalRequest<T> request, long deadline) throws SQLException {
 		DalWatcher.crossShardBegin();
 		
-		T result = hints.is(DalHintEnum.sequentialExecution)?
-				seqncialExecute(hints, request):
-				parallelExecute(hints, request);
+		Map<String, Callable<T>> tasks = request.createTasks();
+		T result = isSequential(hints, request, tasks.size(), deadline)?
+				seqncialExecute(hints, request, tasks, deadline):
+				parallelExecute(hints, request, tasks, deadline);
 		
 		DalWatcher.crossShardEnd();
 		return result;
 			
 	}
+	
+	/**
+	 * Without explicit hint, cheap requests are executed sequentially in caller thread. 
+	 * Requests with deadline are always executed in parallel to enforce the deadline on each shard.
+	 */
+	private <T> boolean isSequential(DalHints hints, DalRequest<T> request, int shardCount, long deadline) {
+		if(hints.is(DalHintEnum.sequentialExecution))
+			return true;
+		
+		if(hints.is(DalHintEnum.parallelExecution) || deadline != NO_DEADLINE)
+			return false;
+		
+		return policy.isSequential(request.getIdentity(), shardCount);
+	}
+	
+	public static AdaptiveExecutionPolicy getPolicy() {
+		return policy;
+	}
 
 	private <T> void handleCallback(final DalHints hints, T result, Throwable error) {
 		DalResultCallback qc = (DalResultCallback)hints.get(DalHintEnum.resultCallback);
@@ -141,37 +381,198 @@ public class DalRequestExecutor {
 			qc.onError(error);
 	}
 
-	private <T> T parallelExecute(DalHints hints, DalRequest<T> request) throws SQLException {
-		Map<String, Callable<T>> tasks = request.createTasks();
-		Map<String, Future<T>> resultFutures = new HashMap<>();
+	/**
+	 * Shard results are passed to merger in the order they complete. The merger is always 
+	 * called from current thread, so it can merge incrementally without synchronization.
+	 */
+	private <T> T parallelExecute(DalHints hints, DalRequest<T> request, Map<String, Callable<T>> tasks, long deadline) throws SQLException {
+		Map<Future<T>, ShardTask<T>> shardTasks = new HashMap<>();
 		
-		for(final String shard: tasks.keySet())
-			resultFutures.put(shard, serviceRef.get().submit(tasks.get(shard)));
+		DalThreadPoolExecutor service = getExecutor(request.getLogicDbName());
+		Semaphore permits = service.getPermits(request.getLogicDbName());
+		CompletionService<T> completionService = new ExecutorCompletionService<>(service);
+		try {
+			for(final String shard: tasks.keySet()) {
+				ShardTask<T> shardTask = new ShardTask<>(shard, tasks.get(shard), request.getLogicDbName(), permits, deadline);
+				shardTask.future = completionService.submit(shardTask);
+				shardTasks.put(shardTask.future, shardTask);
+			}
+		} catch (RejectedExecutionException e) {
+			// Do not leave the accepted shards running if the pool is saturated
+			cancelUnfinished(shardTasks);
+			throw new DalException(ErrorCode.ExecutorRejected, e, service.getName());
+		}
 
-		// TODO Handle timeout and execution exception
 		ResultMerger<T> merger = request.getMerger();
-		for(Map.Entry<String, Future<T>> entry: resultFutures.entrySet()) {
-			try {
-				merger.addPartial(entry.getKey(), entry.getValue().get());
-			} catch (Throwable e) {
-				hints.handleError("There is error during parallel execution: ", e);
+		PartialResultStatus status = new PartialResultStatus();
+		try {
+			for(int i = 0; i < shardTasks.size(); i++) {
+				Future<T> future = poll(completionService, deadline);
+				if(future == null)
+					break;
+				
+				ShardTask<T> shardTask = shardTasks.get(future);
+				shardTask.merged = true;
+				String shard = shardTask.shard;
+				try {
+					merger.addPartial(shard, future.get());
+					status.addCompleted(shard);
+					policy.record(request.getIdentity(), shardTask.elapsed);
+				} catch (Throwable e) {
+					handleShardError(hints, status, shard, "There is error during parallel execution: ", e);
+				}
+				
+				if(isSatisfied(merger))
+					break;
 			}
+			
+			// The rest shards are either no longer needed or missed the deadline
+			boolean satisfied = isSatisfied(merger);
+			for(ShardTask<T> shardTask: shardTasks.values()) {
+				if(shardTask.merged)
+					continue;
+				
+				shardTask.cancel();
+				if(satisfied)
+					status.addSkipped(shardTask.shard);
+				else
+					status.addTimeout(shardTask.shard);
+			}
+		} catch (InterruptedException e) {
+			throw DalException.wrap(e);
+		} finally {
+			// In case of stop on error, the rest of shards are no longer needed
+			cancelUnfinished(shardTasks);
 		}
 		
+		handleStatus(hints, merger, status);
+		
 		return merger.merge();
 	}
+	
+	private <T> boolean isSatisfied(ResultMerger<T> merger) {
+		return merger instanceof ShortCircuitMerger && ((ShortCircuitMerger)merger).isSatisfied();
+	}
+	
+	private <T> Future<T> poll(CompletionService<T> completionService, long deadline) throws InterruptedException {
+		if(deadline == NO_DEADLINE)
+			return completionService.take();
+		
+		return completionService.poll(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+	}
+	
+	private <T> void cancelUnfinished(Map<Future<T>, ShardTask<T>> shardTasks) {
+		for(ShardTask<T> shardTask: shardTasks.values()) {
+			if(!shardTask.future.isDone())
+				shardTask.cancel();
+		}
+	}
+	
+	private void handleShardError(DalHints hints, PartialResultStatus status, String shard, String msg, Throwable e) throws SQLException {
+		status.addFailed(shard, e);
+		
+		if(hints.isPartialResult())
+			DalClientFactory.getDalLogger().error(msg + shard, e);
+		else
+			hints.handleError(msg, e);
+	}
+	
+	/**
+	 * Report the missing shards to caller and merger. In partial result mode, 
+	 * the request only fails if none of the shards completed.
+	 */
+	private <T> void handleStatus(DalHints hints, ResultMerger<T> merger, PartialResultStatus status) throws SQLException {
+		hints.set(DalHintEnum.partialResultStatus, status);
+		if(!status.isPartial())
+			return;
+
+		if(!hints.isPartialResult()) {
+			if(!status.getTimeoutShards().isEmpty())
+				hints.handleError("There is timeout during cross shard execution: ", 
+						new DalException(ErrorCode.RequestTimeout, hints.getRequestTimeout(), status.getTimeoutShards()));
+		} else if(status.getCompletedShards().isEmpty()) {
+			throw new DalException(ErrorCode.NoShardCompleted, status.getTimeoutShards(), status.getFailedShards().keySet());
+		}
+		
+		if(merger instanceof PartialResultAware)
+			((PartialResultAware)merger).onPartialResult(status);
+	}
 
-	private <T> T seqncialExecute(DalHints hints, DalRequest<T> request) throws SQLException {
-		Map<String, Callable<T>> tasks = request.createTasks();
+	private <T> T seqncialExecute(DalHints hints, DalRequest<T> request, Map<String, Callable<T>> tasks, long deadline) throws SQLException {
+		Semaphore permits = getPermits(request);
 		ResultMerger<T> merger = request.getMerger();
+		PartialResultStatus status = new PartialResultStatus();
 		for(final String shard: tasks.keySet()) {
+			if(isSatisfied(merger)) {
+				status.addSkipped(shard);
+				continue;
+			}
+			
+			if(System.currentTimeMillis() >= deadline) {
+				status.addTimeout(shard);
+				continue;
+			}
+			
 			try {
-				merger.addPartial(shard, tasks.get(shard).call());
+				long start = System.nanoTime();
+				T partial = callWithPermit(permits, request.getLogicDbName(), tasks.get(shard), deadline);
+				policy.record(request.getIdentity(), System.nanoTime() - start);
+				merger.addPartial(shard, partial);
+				status.addCompleted(shard);
 			} catch (Throwable e) {
-				hints.handleError("There is error during sequential execution: ", e);
+				handleShardError(hints, status, shard, "There is error during sequential execution: ", e);
 			}
 		}
 		
+		handleStatus(hints, merger, status);
+		
 		return merger.merge();
 	}
+	
+	/**
+	 * Shard task that can be cancelled while its statement is executing
+	 */
+	private static class ShardTask<T> implements Callable<T> {
+		private String shard;
+		private Callable<T> task;
+		private String logicDbName;
+		private Semaphore permits;
+		private long deadline;
+		private StatementCanceller canceller = new StatementCanceller();
+		private Future<T> future;
+		private boolean merged;
+		// Execution time in nanoseconds, it is visible to the thread got the result from future
+		private long elapsed;
+		
+		private ShardTask(String shard, Callable<T> task, String logicDbName, Semaphore permits, long deadline) {
+			this.shard = shard;
+			this.task = task;
+			this.logicDbName = logicDbName;
+			this.permits = permits;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public T call() throws Exception {
+			canceller.bind();
+			try {
+				// Time waiting for permit is not counted in elapsed
+				return callWithPermit(permits, logicDbName, new Callable<T>() {
+					public T call() throws Exception {
+						long start = System.nanoTime();
+						T result = task.call();
+						elapsed = System.nanoTime() - start;
+						return result;
+					}
+				}, deadline);
+			} finally {
+				canceller.unbind();
+			}
+		}
+		
+		private void cancel() {
+			canceller.cancel();
+			future.cancel(true);
+		}
+	}
 }
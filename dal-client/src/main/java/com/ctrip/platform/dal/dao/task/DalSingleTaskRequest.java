@@ -42,6 +42,16 @@ public class DalSingleTaskRequest<T> implements DalRequest<int[]>{
 		isList = true;
 	}
 	
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
+	@Override
+	public String getIdentity() {
+		return logicDbName + ":" + task.getClass().getName();
+	}
+	
 	@Override
 	public void validate() throws SQLException {
 		if(isList && null == rawPojos)
@@ -22,6 +22,7 @@ import com.ctrip.platform.dal.dao.StatementParameter;
 import com.ctrip.platform.dal.dao.StatementParameters;
 import com.ctrip.platform.dal.dao.client.DalLogger;
 import com.ctrip.platform.dal.dao.helper.DalShardingHelper;
+import com.ctrip.platform.dal.dao.sqlbuilder.ShardPushdownBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.SqlBuilder;
 import com.ctrip.platform.dal.dao.sqlbuilder.TableSqlBuilder;
 
@@ -35,6 +36,7 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 	private ResultMerger<T> merger;
 	private Set<String> shards;
 	private Map<String, List<?>> parametersByShard;
+	private String identity;
 	
 	public DalSqlTaskRequest(String logicDbName, SqlBuilder builder, DalHints hints, SqlTask<T> task, ResultMerger<T> merger)
 			 throws SQLException {
@@ -46,6 +48,25 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 		this.task = task;
 		this.merger = merger;
 		shards = getShards();
+		
+		// Each shard only needs to return partial result for the merger
+		if(isCrossShard() && builder instanceof ShardPushdownBuilder)
+			((ShardPushdownBuilder)builder).pushdownToShards();
+	}
+	
+	@Override
+	public String getLogicDbName() {
+		return logicDbName;
+	}
+	
+	/**
+	 * The identity is the sql of the first task created, so that the sql is not built again for it
+	 */
+	@Override
+	public String getIdentity() {
+		if(identity == null)
+			identity = logicDbName + ":" + builder.build();
+		return identity;
 	}
 	
 	@Override
@@ -89,12 +110,18 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 	}
 	
 	private Callable<T> create(StatementParameters parameters, DalHints hints) throws SQLException {
+		String sql;
 		if(builder instanceof TableSqlBuilder && isTableShardingEnabled(logicDbName, ((TableSqlBuilder)builder).getTableName())){
 			String tableShardStr = buildShardStr(logicDbName, locateTableShardId(logicDbName, hints, parameters, null));
-			return new SqlTaskCallable<>(DalClientFactory.getClient(logicDbName), ((TableSqlBuilder)builder).build(tableShardStr), parameters, hints, task);
-		}
+			sql = ((TableSqlBuilder)builder).build(tableShardStr);
+		} else
+			sql = builder.build();
 
-		return new SqlTaskCallable<>(DalClientFactory.getClient(logicDbName), builder.build(), parameters, hints, task);
+		if(identity == null)
+			identity = logicDbName + ":" + sql;
+
+		int maxParameters = SQLCompiler.getMaxParameters(DalClientFactory.getDalConfigure().getDatabaseSet(logicDbName).getDatabaseCategory());
+		return new SqlTaskCallable<>(DalClientFactory.getClient(logicDbName), sql, parameters, hints, task, maxParameters);
 	}
 
 	@Override
@@ -132,7 +159,7 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 		private DalHints hints;
 		private SqlTask<T> task;
 
-		public SqlTaskCallable(DalClient client, String sql, StatementParameters parameters, DalHints hints, SqlTask<T> task)
+		public SqlTaskCallable(DalClient client, String sql, StatementParameters parameters, DalHints hints, SqlTask<T> task, int maxParameters)
 				throws SQLException {
 			this.client = client;
 			this.sql = sql;
@@ -140,14 +167,17 @@ public class DalSqlTaskRequest<T> implements DalRequest<T>{
 			this.task = task;
 			this.parameters = parameters;
 			
-			compile();
+			compile(maxParameters);
 		}
 		
-		private void compile() throws SQLException {
+		private void compile(int maxParameters) throws SQLException {
 			// If there is no in clause, just return
 			if(!parameters.containsInParameter())
 				return;
 			
+			if(hints.isPadInParameters())
+				parameters.padInParameters(maxParameters);
+			
 			sql = SQLCompiler.compile(sql, parameters.getAllInParameters());
 			parameters.compile();
 		}
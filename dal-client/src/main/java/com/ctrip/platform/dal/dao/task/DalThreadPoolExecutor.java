@@ -0,0 +1,179 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread pool used by DalRequestExecutor. A pool is either shared by all the logic DBs
+ * or dedicated to one logic DB, so that a degraded database set can not stall the others.
+ *
+ * Core size is always equal to max size and idle core threads are allowed to time out. This makes
+ * the pool grow to max size before queueing, which is not the case for a ThreadPoolExecutor whose
+ * core size is less than max size and whose queue is unbounded.
+ *
+ * In unbounded mode, every task gets a thread as soon as it is submitted and idle threads are
+ * reused or time out. The thread count is then no longer a limit of concurrent shard I/O, which is
+ * left to the connection pool and the optional per logic DB concurrency limit.
+ *
+ * @author jhhe
+ */
+public class DalThreadPoolExecutor extends ThreadPoolExecutor {
+	public static final String ABORT = "abort";
+	public static final String CALLER_RUNS = "callerRuns";
+
+	public static final String BOUNDED = "bounded";
+	public static final String UNBOUNDED = "unbounded";
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private final String name;
+	private final String mode;
+	private final int maxQueueSize;
+	private final String rejectPolicy;
+	private final int maxConcurrency;
+	private final ConcurrentHashMap<String, Semaphore> permitsByLogicDb = new ConcurrentHashMap<>();
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	public DalThreadPoolExecutor(String name, int maxPoolSize, int maxQueueSize, String rejectPolicy) {
+		this(name, maxPoolSize, maxQueueSize, rejectPolicy, 0);
+	}
+
+	/**
+	 * @param maxConcurrency max concurrent tasks of each logic DB, 0 or negative value means no limit
+	 */
+	public DalThreadPoolExecutor(String name, int maxPoolSize, int maxQueueSize, String rejectPolicy, int maxConcurrency) {
+		this(name, BOUNDED, maxPoolSize, maxPoolSize, createQueue(maxQueueSize), maxQueueSize, rejectPolicy, maxConcurrency);
+		allowCoreThreadTimeOut(true);
+	}
+
+	private DalThreadPoolExecutor(String name, String mode, int corePoolSize, int maxPoolSize, BlockingQueue<Runnable> queue, int maxQueueSize, String rejectPolicy, int maxConcurrency) {
+		super(corePoolSize, maxPoolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, new DalThreadFactory(name));
+		this.name = name;
+		this.mode = mode;
+		this.maxQueueSize = maxQueueSize;
+		this.rejectPolicy = rejectPolicy == null ? ABORT : rejectPolicy;
+		this.maxConcurrency = maxConcurrency;
+
+		setRejectedExecutionHandler(new CountingRejectedHandler(createHandler(this.rejectPolicy)));
+	}
+
+	/**
+	 * Create pool that starts a thread for each task that can not be handed over to an idle thread
+	 * @param maxConcurrency max concurrent tasks of each logic DB, 0 or negative value means no limit
+	 */
+	public static DalThreadPoolExecutor unbounded(String name, int maxConcurrency) {
+		return new DalThreadPoolExecutor(name, UNBOUNDED, 0, Integer.MAX_VALUE, new SynchronousQueue<Runnable>(), 0, ABORT, maxConcurrency);
+	}
+
+	private static BlockingQueue<Runnable> createQueue(int maxQueueSize) {
+		return new LinkedBlockingQueue<Runnable>(maxQueueSize);
+	}
+
+	private static RejectedExecutionHandler createHandler(String rejectPolicy) {
+		if(ABORT.equalsIgnoreCase(rejectPolicy))
+			return new ThreadPoolExecutor.AbortPolicy();
+
+		if(CALLER_RUNS.equalsIgnoreCase(rejectPolicy))
+			return new ThreadPoolExecutor.CallerRunsPolicy();
+
+		throw new IllegalArgumentException("Unknown reject policy: " + rejectPolicy + ". Supported are " + ABORT + " and " + CALLER_RUNS);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public boolean isUnbounded() {
+		return UNBOUNDED.equals(mode);
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return permits of concurrent tasks of the logic DB, null if there is no limit
+	 */
+	public Semaphore getPermits(String logicDbName) {
+		if(maxConcurrency <= 0 || logicDbName == null)
+			return null;
+
+		Semaphore permits = permitsByLogicDb.get(logicDbName);
+		if(permits != null)
+			return permits;
+
+		permitsByLogicDb.putIfAbsent(logicDbName, new Semaphore(maxConcurrency, true));
+		return permitsByLogicDb.get(logicDbName);
+	}
+
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	public String getRejectPolicy() {
+		return rejectPolicy;
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * Change both core and max pool size. The order matters because core size
+	 * can not be greater than max size at any time.
+	 * @param maxPoolSize
+	 */
+	public synchronized void resize(int maxPoolSize) {
+		if(isUnbounded())
+			throw new UnsupportedOperationException("Pool " + name + " is unbounded and can not be resized");
+
+		if(maxPoolSize > getMaximumPoolSize()) {
+			setMaximumPoolSize(maxPoolSize);
+			setCorePoolSize(maxPoolSize);
+		} else {
+			setCorePoolSize(maxPoolSize);
+			setMaximumPoolSize(maxPoolSize);
+		}
+	}
+
+	private class CountingRejectedHandler implements RejectedExecutionHandler {
+		private RejectedExecutionHandler handler;
+
+		private CountingRejectedHandler(RejectedExecutionHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			rejectedCount.incrementAndGet();
+			handler.rejectedExecution(r, executor);
+		}
+	}
+
+	private static class DalThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		private DalThreadFactory(String name) {
+			prefix = "DAL-" + name + "-";
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Thread(r, prefix + count.incrementAndGet());
+		}
+	}
+}
@@ -6,7 +6,7 @@ import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 import com.ctrip.platform.dal.dao.DalClientFactory;
 import com.ctrip.platform.dal.dao.DalParser;
 
-public class DefaultTaskFactory implements DalTaskFactory {
+public class DefaultTaskFactory implements DalTaskFactory, BulkLoadTaskFactory {
 	private Map<String, String> settings;
 	
 	@Override
@@ -78,6 +78,13 @@ public class DefaultTaskFactory implements DalTaskFactory {
 		return batchUpdateTask;
 	}
 
+	@Override
+	public <T> BulkTask<Integer, T> createBulkLoadTask(DalParser<T> parser) {
+		BulkLoadTask<T> bulkLoadTask = new BulkLoadTask<T>();
+		bulkLoadTask.initialize(parser);
+		return bulkLoadTask;
+	}
+
 	@Override
 	public <T> DeleteSqlTask<T> createDeleteSqlTask(DalParser<T> parser) {
 		DeleteSqlTask<T> deleteSqlTask = new DeleteSqlTask<T>();
@@ -0,0 +1,191 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+
+/**
+ * Choose how a list of pojos is inserted into one table: combined insert with multi-row VALUES,
+ * JDBC batch, or single inserts when generated keys are required. Only MySQL driver returns
+ * the generated keys of every row of a combined insert, SQL Server driver returns only the
+ * last identity, so combined insert is used for generated keys only on MySQL. Combined and batch insert are split into chunks when the rows exceed the limits
+ * of the database.
+ *
+ * When generated keys are not required, the strategy with lower observed latency per row is
+ * chosen. Combined insert is preferred until both strategies are measured. The strategy not
+ * measured yet is tried once every EXPLORE_INTERVAL plans. After both are measured, the slower
+ * one is still tried once every EXPLORE_INTERVAL plans, so that its latency is not left stale
+ * when the table or the database changes.
+ *
+ * Latency is kept as exponentially weighted moving average, the same way as
+ * AdaptiveExecutionPolicy.
+ *
+ * @author jhhe
+ */
+public class InsertPlanner {
+	public enum Strategy {
+		COMBINED, BATCH, SINGLE
+	}
+
+	// SQL Server allows 2100 parameters and 1000 rows of VALUES in one statement
+	public static final int SQLSVR_MAX_PARAMETERS = 2000;
+	public static final int SQLSVR_MAX_ROWS = 1000;
+	// MySQL allows 65535 placeholders, bytes are kept well under the default max_allowed_packet
+	public static final int MYSQL_MAX_PARAMETERS = 65535;
+	public static final long MYSQL_MAX_BYTES = 1024 * 1024;
+
+	public static final int EXPLORE_INTERVAL = 50;
+
+	// Weight of the newest sample is 1/WEIGHT_DIVISOR
+	private static final int WEIGHT_DIVISOR = 5;
+
+	private final DatabaseCategory dbCategory;
+	private final ConcurrentHashMap<Strategy, AtomicLong> latencies = new ConcurrentHashMap<>();
+	private final AtomicLong planCount = new AtomicLong();
+
+	public InsertPlanner(DatabaseCategory dbCategory) {
+		this.dbCategory = dbCategory;
+	}
+
+	/**
+	 * @param rowCount number of pojos to insert
+	 * @param columnCount number of insertable columns
+	 * @param rowBytes estimated bytes of one pojo
+	 * @param requireKeys if generated keys are required
+	 */
+	public Plan plan(int rowCount, int columnCount, long rowBytes, boolean requireKeys) {
+		boolean combinedSupported = dbCategory != DatabaseCategory.Oracle;
+		if(requireKeys) {
+			if(dbCategory == DatabaseCategory.MySql)
+				return plan(Strategy.COMBINED, rowCount, columnCount, rowBytes, "generated keys required");
+
+			return new Plan(Strategy.SINGLE, rowCount, 0, "generated keys required and not returned by combined insert of " + dbCategory);
+		}
+
+		if(!combinedSupported)
+			return plan(Strategy.BATCH, rowCount, columnCount, rowBytes, "combined insert not supported by " + dbCategory);
+
+		long combined = getLatency(Strategy.COMBINED);
+		long batch = getLatency(Strategy.BATCH);
+		if(combined >= 0 && batch >= 0) {
+			String latency = String.format("combined %dns/row, batch %dns/row", combined, batch);
+			Strategy faster = batch < combined ? Strategy.BATCH : Strategy.COMBINED;
+			if(planCount.incrementAndGet() % EXPLORE_INTERVAL != 0)
+				return plan(faster, rowCount, columnCount, rowBytes, latency);
+
+			Strategy slower = faster == Strategy.BATCH ? Strategy.COMBINED : Strategy.BATCH;
+			return plan(slower, rowCount, columnCount, rowBytes, "remeasuring " + slower.name().toLowerCase() + ", " + latency);
+		}
+
+		Strategy unknown = combined < 0 ? Strategy.COMBINED : Strategy.BATCH;
+		if(unknown == Strategy.BATCH && planCount.incrementAndGet() % EXPLORE_INTERVAL != 0)
+			return plan(Strategy.COMBINED, rowCount, columnCount, rowBytes, "batch not measured yet");
+
+		return plan(unknown, rowCount, columnCount, rowBytes, "measuring " + unknown.name().toLowerCase());
+	}
+
+	private Plan plan(Strategy strategy, int rowCount, int columnCount, long rowBytes, String reason) {
+		int chunkRows = strategy == Strategy.COMBINED ?
+				getMaxCombinedRows(columnCount, rowBytes) :
+				getMaxBatchRows(rowBytes);
+
+		return new Plan(strategy, rowCount, chunkRows >= rowCount ? 0 : chunkRows, reason);
+	}
+
+	/**
+	 * @return max number of rows in one combined insert statement
+	 */
+	public int getMaxCombinedRows(int columnCount, long rowBytes) {
+		long rows = Integer.MAX_VALUE;
+		columnCount = Math.max(columnCount, 1);
+		rowBytes = Math.max(rowBytes, 1);
+
+		switch (dbCategory) {
+		case SqlServer:
+			rows = Math.min(SQLSVR_MAX_ROWS, SQLSVR_MAX_PARAMETERS / columnCount);
+			break;
+		case MySql:
+			rows = Math.min(MYSQL_MAX_PARAMETERS / columnCount, MYSQL_MAX_BYTES / rowBytes);
+			break;
+		default:
+			break;
+		}
+
+		return (int)Math.max(rows, 1);
+	}
+
+	/**
+	 * MySQL driver may rewrite batch into multi-row statement, so the batch is limited by bytes
+	 * @return max number of rows in one batch
+	 */
+	public int getMaxBatchRows(long rowBytes) {
+		if(dbCategory != DatabaseCategory.MySql)
+			return Integer.MAX_VALUE;
+
+		return (int)Math.max(MYSQL_MAX_BYTES / Math.max(rowBytes, 1), 1);
+	}
+
+	/**
+	 * Record execution time of one insert
+	 */
+	public void record(Strategy strategy, int rowCount, long elapsedNanos) {
+		if(rowCount <= 0)
+			return;
+
+		long sample = elapsedNanos / rowCount;
+		AtomicLong latency = latencies.get(strategy);
+		if(latency == null) {
+			latency = latencies.putIfAbsent(strategy, new AtomicLong(sample));
+			if(latency == null)
+				return;
+		}
+
+		while(true) {
+			long current = latency.get();
+			if(latency.compareAndSet(current, current + (sample - current) / WEIGHT_DIVISOR))
+				return;
+		}
+	}
+
+	/**
+	 * @return average latency per row in nanoseconds, -1 if not known yet
+	 */
+	public long getLatency(Strategy strategy) {
+		AtomicLong latency = latencies.get(strategy);
+		return latency == null ? -1 : latency.get();
+	}
+
+	public static class Plan {
+		private Strategy strategy;
+		private int rowCount;
+		private int chunkRows;
+		private String reason;
+
+		private Plan(Strategy strategy, int rowCount, int chunkRows, String reason) {
+			this.strategy = strategy;
+			this.rowCount = rowCount;
+			this.chunkRows = chunkRows;
+			this.reason = reason;
+		}
+
+		public Strategy getStrategy() {
+			return strategy;
+		}
+
+		/**
+		 * @return max rows of each chunk, 0 if not chunked
+		 */
+		public int getChunkRows() {
+			return chunkRows;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(strategy.name().toLowerCase()).append(" insert of ").append(rowCount).append(" rows");
+			if(chunkRows > 0)
+				sb.append(" in chunks of ").append(chunkRows);
+			return sb.append(": ").append(reason).toString();
+		}
+	}
+}
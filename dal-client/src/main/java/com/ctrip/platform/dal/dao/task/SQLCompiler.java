@@ -2,11 +2,13 @@ package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang.StringUtils;
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
 
 public class SQLCompiler {
 	private static String regEx = null;
@@ -16,6 +18,32 @@ public class SQLCompiler {
 		 inRegxPattern = Pattern.compile(regEx);
 	}
 	
+	/**
+	 * Max number of SQL templates kept in cache. The least recently used template is evicted beyond that
+	 */
+	public static final int MAX_TEMPLATE_CACHE_SIZE = 1024;
+	
+	/**
+	 * Max number of parameters of one statement. Padding in parameters never goes beyond it
+	 */
+	public static final int SQLSVR_MAX_PARAMETERS = 2100;
+	public static final int MYSQL_MAX_PARAMETERS = 65535;
+	
+	/**
+	 * Lists larger than this are padded to multiple of it
+	 */
+	public static final int MAX_BUCKET_SIZE = 1024;
+	
+	private static final Map<String, String[]> templates = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+			return size() > MAX_TEMPLATE_CACHE_SIZE;
+		}
+	};
+	private static final String[] placeholders = new String[MAX_BUCKET_SIZE + 1];
+	
 	/**
 	 * Combine the parameters into SQL according to the IN Keyword
 	 * TODO: Deal with the situation of null/empty of IN parameter specified;
@@ -31,33 +59,97 @@ public class SQLCompiler {
 	{
 		if(null == parms || parms.size() == 0)
 			return original;
-		StringBuffer temp = new StringBuffer();
+		StringBuilder temp = new StringBuilder(original.length() + 16);
+		String[] plains = getTemplate(original);
+		
+		if(plains.length != parms.size() + 1){
+			throw new SQLException(String.format("SQL Parser failed. The count of in parameters[%s] not match parameter count[%s]", 
+					plains.length - 1, parms.size()));
+		}
+		
+		int index = 0;
+		for (; index < parms.size(); index++) {
+			temp.append(plains[index])
+				.append("In (").append(getPlaceholders(parms.get(index).size())).append(")")
+				.append(" ");
+		}
+		temp.append(plains[index]);
+		
+		return temp.toString();
+	}
+	
+	/**
+	 * Bucket sizes are 1, 2, 4, 8 ... up to MAX_BUCKET_SIZE, and multiple of MAX_BUCKET_SIZE beyond.
+	 * @return the smallest bucket size that is not less than the given size
+	 */
+	public static int getBucketSize(int size) {
+		if(size <= 1)
+			return size;
+		
+		if(size > MAX_BUCKET_SIZE)
+			return (size + MAX_BUCKET_SIZE - 1) / MAX_BUCKET_SIZE * MAX_BUCKET_SIZE;
+		
+		return Integer.highestOneBit(size - 1) << 1;
+	}
+	
+	/**
+	 * @return max number of parameters of one statement of the database
+	 */
+	public static int getMaxParameters(DatabaseCategory dbCategory) {
+		switch (dbCategory) {
+		case SqlServer:
+			return SQLSVR_MAX_PARAMETERS;
+		case MySql:
+			return MYSQL_MAX_PARAMETERS;
+		default:
+			return Integer.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * @return the SQL split by IN clauses
+	 */
+	private static String[] getTemplate(String original) {
+		String[] plains;
+		synchronized (templates) {
+			plains = templates.get(original);
+		}
+		if(plains != null)
+			return plains;
+		
 		Matcher m = inRegxPattern.matcher(original);
-		List<String> plains = new ArrayList<String>();
+		List<String> parts = new ArrayList<String>();
 		int start = 0;
 		while(m.find(start))
     	{
-			plains.add(original.substring(start, m.start()));
+			parts.add(original.substring(start, m.start()));
 			start = m.end();		
     	}
-		plains.add(original.substring(start, original.length()));
+		parts.add(original.substring(start, original.length()));
 		
-		if(plains.size() != parms.size() + 1){
-			throw new SQLException(String.format("SQL Parser failed. The count of in parameters[%s] not match parameter count[%s]", 
-					plains.size() - 1, parms.size()));
+		plains = parts.toArray(new String[parts.size()]);
+		synchronized (templates) {
+			templates.put(original, plains);
 		}
 		
-		int index = 0;
-		for (; index < parms.size(); index++) {
-			List<String> qus = new ArrayList<String>(parms.get(index).size());
-			for(int j = 0; j < parms.get(index).size(); j ++)
-				qus.add("?");
-			temp.append(plains.get(index))
-				.append(String.format("In (%s)", StringUtils.join(qus, ",")))
-				.append(" ");
+		return plains;
+	}
+	
+	private static String getPlaceholders(int count) {
+		if(count <= MAX_BUCKET_SIZE && placeholders[count] != null)
+			return placeholders[count];
+		
+		StringBuilder sb = new StringBuilder(count * 2);
+		for(int i = 0; i < count; i++) {
+			if(i > 0)
+				sb.append(',');
+			sb.append('?');
 		}
-		temp.append(plains.get(index));
 		
-		return temp.toString();
+		String result = sb.toString();
+		if(count <= MAX_BUCKET_SIZE)
+			placeholders[count] = result;
+		
+		return result;
 	}
-}
\ No newline at end of file
+}
@@ -1,16 +1,20 @@
 package com.ctrip.platform.dal.dao.task;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
+import com.ctrip.platform.dal.dao.PartialResultAware;
+import com.ctrip.platform.dal.dao.PartialResultStatus;
+
 /**
  * Can be used for both DB and Table shard
  * @author jhhe
  *
  */
-public class ShardedIntArrayResultMerger implements BulkTaskResultMerger<int[]>{
+public class ShardedIntArrayResultMerger implements BulkTaskResultMerger<int[]>, PartialResultAware {
 	private Map<String , Integer[]> indexByShard = new HashMap<>();
 	private Map<Integer, Integer> affectedRowsMap = new TreeMap<>();
 	
@@ -26,6 +30,21 @@ public class ShardedIntArrayResultMerger implements BulkTaskResultMerger<int[]>{
 			affectedRowsMap.put(index, affectedRows[i++]);
 	}
 
+	/**
+	 * Keep position of pojos in missing shards so that the result still matches the given pojos
+	 */
+	@Override
+	public void onPartialResult(PartialResultStatus status) {
+		for(String shard: status.getMissingShards()) {
+			Integer[] indexList = indexByShard.get(shard);
+			if(indexList == null)
+				continue;
+			
+			for(Integer index: indexList)
+				affectedRowsMap.put(index, Statement.EXECUTE_FAILED);
+		}
+	}
+
 	@Override
 	public int[] merge() throws SQLException {
 		int[] affectedRowsList = new int[affectedRowsMap.size()];
@@ -19,6 +19,7 @@ public class SingleDeleteTask<T> extends TaskAdapter<T> implements SingleTask<T>
 	}
 
 	private String buildDeleteSql(String tableName) {
-		return String.format(TMPL_SQL_DELETE, tableName, pkSql);
+		String sql = sqlTemplates.get(TMPL_SQL_DELETE, tableName, null, 0);
+		return sql != null ? sql : sqlTemplates.put(TMPL_SQL_DELETE, tableName, null, 0, String.format(TMPL_SQL_DELETE, tableName, pkSql));
 	}
 }
@@ -39,9 +39,16 @@ public class SingleInsertTask<T> extends InsertTaskAdapter<T> implements SingleT
 	
 	private String buildInsertSql(DalHints hints, Map<String, ?> fields) throws SQLException {
 		Set<String> remainedColumns = fields.keySet();
+		String tableName = getTableName(hints, fields);
+		int[] signature = getColumnSignature(remainedColumns);
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_INSERT, tableName, signature, 0);
+		if(sql != null)
+			return sql;
+		
 		String cloumns = combineColumns(remainedColumns, COLUMN_SEPARATOR);
 		String values = combine(PLACE_HOLDER, remainedColumns.size(), COLUMN_SEPARATOR);
 
-		return String.format(TMPL_SQL_INSERT, getTableName(hints, fields), cloumns, values);
+		sql = String.format(TMPL_SQL_INSERT, tableName, cloumns, values);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_INSERT, tableName, signature, 0, sql);
 	}
 }
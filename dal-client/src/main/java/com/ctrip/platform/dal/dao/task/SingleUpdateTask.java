@@ -90,6 +90,11 @@ public class SingleUpdateTask<T> extends TaskAdapter<T> implements SingleTask<T>
 	}
 	
 	private String buildUpdateSql(String tableName, Map<String, ?> fields, DalHints hints) {
+		int[] signature = getColumnSignature(fields.keySet());
+		String sql = signature == null ? null : sqlTemplates.get(TMPL_SQL_UPDATE, tableName, signature, 0);
+		if(sql != null)
+			return sql;
+		
 		String columns = String.format(
 				combine(TMPL_SET_VALUE, fields.size(), COLUMN_SEPARATOR),
 				quote(fields.keySet()));
@@ -97,7 +102,8 @@ public class SingleUpdateTask<T> extends TaskAdapter<T> implements SingleTask<T>
 		if(isVersionUpdatable)
 			columns += COLUMN_SEPARATOR + setVersionValueTmpl;
 
-		return String.format(TMPL_SQL_UPDATE, tableName, columns, updateCriteriaTmpl);
+		sql = String.format(TMPL_SQL_UPDATE, tableName, columns, updateCriteriaTmpl);
+		return signature == null ? sql : sqlTemplates.put(TMPL_SQL_UPDATE, tableName, signature, 0, sql);
 	}
 	
 	private void addVersion(StatementParameters parameters, Object version) throws DalException {
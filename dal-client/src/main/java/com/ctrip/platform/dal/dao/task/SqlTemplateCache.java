@@ -0,0 +1,149 @@
+package com.ctrip.platform.dal.dao.task;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+
+/**
+ * Cache of SQL generated by table DAO and its tasks. The SQL of one operation only depends on
+ * the effective table name, the columns involved and the number of rows, so it is built once
+ * and reused. The columns are identified by their indexes in parser column names in the order
+ * they appear in the SQL.
+ *
+ * The cached SQL is already prefixed with the app id comment, so ConnectionAction does not
+ * need to wrap it again. The least recently used SQL is evicted when the cache is full.
+ * SQL for more rows than the max row count is built each time, because it is long and the
+ * row count of large batches rarely repeats.
+ *
+ * Select SQL of BaseTableSelectBuilder is not cached. It depends on the free where clause,
+ * order by and range set on each builder, and a key of all of them costs as much as building.
+ *
+ * @author jhhe
+ */
+public class SqlTemplateCache {
+	public static final int DEFAULT_MAX_SIZE = 512;
+	public static final int DEFAULT_MAX_ROW_COUNT = 100;
+
+	private static volatile String appIdPrefix;
+
+	private final int maxRowCount;
+	private final Map<Key, String> templates;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public SqlTemplateCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_MAX_ROW_COUNT);
+	}
+
+	public SqlTemplateCache(final int maxSize, int maxRowCount) {
+		this.maxRowCount = maxRowCount;
+		templates = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param columns signature of the columns, null if the SQL does not depend on columns
+	 * @param rowCount number of rows, 0 if the SQL does not depend on it
+	 * @return the cached SQL or null if it is not cached yet
+	 */
+	public String get(String operation, String tableName, int[] columns, int rowCount) {
+		String sql = null;
+		if(rowCount <= maxRowCount) {
+			Key key = new Key(operation, tableName, columns, rowCount);
+			synchronized (templates) {
+				sql = templates.get(key);
+			}
+		}
+
+		if(sql == null)
+			missCount.incrementAndGet();
+		else
+			hitCount.incrementAndGet();
+		return sql;
+	}
+
+	/**
+	 * @return the SQL with app id comment
+	 */
+	public String put(String operation, String tableName, int[] columns, int rowCount, String sql) {
+		sql = wrapAppId(sql);
+		if(rowCount > maxRowCount)
+			return sql;
+
+		Key key = new Key(operation, tableName, columns, rowCount);
+		synchronized (templates) {
+			templates.put(key, sql);
+		}
+		return sql;
+	}
+
+	public int size() {
+		synchronized (templates) {
+			return templates.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Prefix the SQL with the app id comment unless it is already prefixed
+	 */
+	public static String wrapAppId(String sql) {
+		String prefix = getAppIdPrefix();
+		return sql.startsWith(prefix) ? sql : prefix + sql;
+	}
+
+	private static String getAppIdPrefix() {
+		String appId = DalClientFactory.getDalLogger().getAppID();
+		String prefix = appIdPrefix;
+		if(prefix == null || prefix.length() != appId.length() + 4 || !prefix.regionMatches(2, appId, 0, appId.length()))
+			appIdPrefix = prefix = "/*" + appId + "*/";
+		return prefix;
+	}
+
+	private static class Key {
+		private String operation;
+		private String tableName;
+		private int[] columns;
+		private int rowCount;
+		private int hash;
+
+		private Key(String operation, String tableName, int[] columns, int rowCount) {
+			this.operation = operation;
+			this.tableName = tableName;
+			this.columns = columns;
+			this.rowCount = rowCount;
+			hash = ((operation.hashCode() * 31 + tableName.hashCode()) * 31 + Arrays.hashCode(columns)) * 31 + rowCount;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+
+			Key other = (Key)obj;
+			return hash == other.hash && rowCount == other.rowCount && operation.equals(other.operation) &&
+					tableName.equals(other.tableName) && Arrays.equals(columns, other.columns);
+		}
+	}
+}
@@ -53,6 +53,8 @@ public class TaskAdapter<T> implements DaoTask<T> {
 	protected Set<String> pkColumns;
 	protected Set<String> sensitiveColumns;
 	protected Map<String, Integer> columnTypes = new HashMap<String, Integer>();
+	protected Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+	protected SqlTemplateCache sqlTemplates = new SqlTemplateCache();
 	
 	protected String updateCriteriaTmpl;
 	protected String setValueTmpl;
@@ -386,9 +388,30 @@ public class TaskAdapter<T> implements DaoTask<T> {
 		int[] columnsTypes = parser.getColumnTypes();
 		for (int i = 0; i < cloumnNames.length; i++) {
 			columnTypes.put(cloumnNames[i], columnsTypes[i]);
+			columnIndexes.put(cloumnNames[i], i);
 		}
 	}
 	
+	/**
+	 * @return indexes of the columns in parser column names in the given order, 
+	 * null if any of the columns is unknown
+	 */
+	public int[] getColumnSignature(Collection<String> columns) {
+		int[] signature = new int[columns.size()];
+		int i = 0;
+		for(String column: columns) {
+			Integer index = columnIndexes.get(column);
+			if(index == null)
+				return null;
+			signature[i++] = index;
+		}
+		return signature;
+	}
+	
+	public SqlTemplateCache getSqlTemplates() {
+		return sqlTemplates;
+	}
+	
 	public Map<String, ?> getPrimaryKeys(Map<String, ?> fields) {
 		Map<String, Object> pks = new LinkedHashMap<>();
 		for(String pkName: parser.getPrimaryKeyNames())
@@ -178,6 +178,56 @@ public enum ErrorCode {
 	
 	InvalidDatabaseKeyName(ErrorClassify.Connection, 5306, "The given database key name is not qualified: %s"),
 	
+	/**
+	 * The executor pool %s is saturated and rejected the request
+	 */
+	ExecutorRejected(ErrorClassify.Statement, 5400, "The executor pool %s is saturated and rejected the request. Please check maxPoolSize and maxQueueSize settings"),
+	
+	/**
+	 * The request can not complete within %s ms. Shards missed the deadline: %s
+	 */
+	RequestTimeout(ErrorClassify.Statement, 5401, "The request can not complete within %s ms. Shards missed the deadline: %s"),
+	
+	/**
+	 * The statement is cancelled because the request is timeout
+	 */
+	StatementCancelled(ErrorClassify.Statement, 5402, "The statement is cancelled because the request is timeout"),
+	
+	/**
+	 * None of the shards completed. Shards missed the deadline: %s. Shards failed: %s
+	 */
+	NoShardCompleted(ErrorClassify.Statement, 5403, "None of the shards completed. Shards missed the deadline: %s. Shards failed: %s"),
+	
+	/**
+	 * The iterator is closed before all the rows are fetched
+	 */
+	IteratorClosed(ErrorClassify.Statement, 5404, "The iterator is closed before all the rows are fetched"),
+	
+	/**
+	 * Can not access logic DB %s within %s ms because of the concurrency limit
+	 */
+	ConcurrencyLimited(ErrorClassify.Statement, 5405, "Can not access logic DB %s within %s ms because of the concurrency limit. Please check maxConcurrency setting"),
+	
+	/**
+	 * Data source %s is busy with %s connections in use and can not be accessed within %s ms
+	 */
+	DataSourceBusy(ErrorClassify.Connection, 5406, "Data source %s is busy with %s connections in use and can not be accessed within %s ms. Please check maxDataSourceConcurrency setting"),
+	
+	/**
+	 * The write behind queue of %s is full with %s pojos and can not accept more within %s ms
+	 */
+	WriteBehindQueueFull(ErrorClassify.Statement, 5407, "The write behind queue of %s is full with %s pojos and can not accept more within %s ms. Please check the max queue size"),
+	
+	/**
+	 * Bulk load is not supported for %s
+	 */
+	BulkLoadNotSupported(ErrorClassify.Statement, 5408, "Bulk load is not supported for %s. Please use batchInsert or combinedInsert instead"),
+	
+	/**
+	 * The shared read of the same query can not complete before the deadline of the request
+	 */
+	CoalescedReadTimeout(ErrorClassify.Statement, 5409, "The shared read of the same query can not complete before the deadline of the request"),
+	
 	Unknown(ErrorClassify.Unknown, 9999 , "Unknown Exception, caused by: %s");
 	
 	private final ErrorClassify classify;
@@ -13,6 +13,12 @@ import org.junit.runners.Suite.SuiteClasses;
 	DalTransactionTest.class,
 	DalShardingHelperTest.class,
 	DalConfigureFactoryTest.class,
+	HedgedReadTest.class,
+	DataSourceLimiterTest.class,
+	ReadCoalescerTest.class,
+	DalStatementCacheTest.class,
+	StatementCancellerTest.class,
+	MySqlBulkCopyTest.class,
 })
 public class AllTest {
 
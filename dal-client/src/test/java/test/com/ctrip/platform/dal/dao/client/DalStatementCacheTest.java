@@ -0,0 +1,213 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.DalStatementCache;
+import com.ctrip.platform.dal.dao.configure.DatabasePoolConfigParser;
+
+public class DalStatementCacheTest {
+	private static class StatementHandler implements InvocationHandler {
+		private List<String> calls = new ArrayList<>();
+		private boolean closed;
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			calls.add(name);
+			switch (name) {
+			case "hashCode": return System.identityHashCode(proxy);
+			case "equals": return proxy == args[0];
+			case "close": closed = true; return null;
+			case "isClosed": return closed;
+			case "getFetchSize": return 0;
+			default: return null;
+			}
+		}
+	}
+	
+	private static class ConnectionHandler implements InvocationHandler {
+		private List<StatementHandler> statements = new ArrayList<>();
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "hashCode": return System.identityHashCode(proxy);
+			case "equals": return proxy == args[0];
+			case "isWrapperFor": return false;
+			case "prepareStatement":
+				StatementHandler handler = new StatementHandler();
+				statements.add(handler);
+				return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, handler);
+			default: return null;
+			}
+		}
+	}
+	
+	private Connection createConnection(ConnectionHandler handler) {
+		return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, handler);
+	}
+	
+	private PreparedStatement prepare(DalStatementCache cache, String sql) throws Exception {
+		return cache.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, false);
+	}
+	
+	@Test
+	public void testGetCache() throws Exception {
+		Connection conn = createConnection(new ConnectionHandler());
+		assertNull(DalStatementCache.getCache(conn, 0));
+		// Not from tomcat pool
+		assertNull(DalStatementCache.getCache(conn, 10));
+	}
+	
+	@Test
+	public void testGetCacheFromPool() throws Exception {
+		final ConnectionHandler handler = new ConnectionHandler();
+		PoolProperties p = new PoolProperties();
+		p.setDataSource(Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataSource.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				return "getConnection".equals(method.getName()) ? createConnection(handler) : null;
+			}
+		}));
+		p.setInitialSize(1);
+		p.setMaxActive(1);
+		p.setMaxIdle(1);
+		p.setMinIdle(1);
+		p.setJdbcInterceptors(DatabasePoolConfigParser.DEFAULT_JDBCINTERCEPTORS);
+		org.apache.tomcat.jdbc.pool.DataSource ds = new org.apache.tomcat.jdbc.pool.DataSource(p);
+		
+		try {
+			Connection conn = ds.getConnection();
+			DalStatementCache cache = DalStatementCache.getCache(conn, 10);
+			assertNotNull(cache);
+			PreparedStatement s1 = prepare(cache, "select 1");
+			assertTrue(DalStatementCache.checkin(s1));
+			conn.close();
+			
+			// The cache goes with the physical connection back and forth the pool
+			conn = ds.getConnection();
+			assertSame(cache, DalStatementCache.getCache(conn, 10));
+			assertSame(s1, prepare(cache, "select 1"));
+			assertEquals(1, handler.statements.size());
+			assertFalse(handler.statements.get(0).closed);
+			conn.close();
+		} finally {
+			ds.close();
+		}
+	}
+	
+	@Test
+	public void testReuse() throws Exception {
+		ConnectionHandler conn = new ConnectionHandler();
+		DalStatementCache test = new DalStatementCache(createConnection(conn), 10);
+		long hit = DalStatementCache.getHitCount();
+		long miss = DalStatementCache.getMissCount();
+		
+		PreparedStatement s1 = prepare(test, "select 1");
+		assertTrue(DalStatementCache.checkin(s1));
+		assertEquals(1, test.size());
+		
+		PreparedStatement s2 = prepare(test, "select 1");
+		assertSame(s1, s2);
+		assertEquals(0, test.size());
+		assertTrue(DalStatementCache.checkin(s2));
+		
+		assertEquals(1, conn.statements.size());
+		assertTrue(conn.statements.get(0).calls.contains("clearParameters"));
+		assertTrue(conn.statements.get(0).calls.contains("clearBatch"));
+		assertFalse(conn.statements.get(0).closed);
+		assertEquals(hit + 1, DalStatementCache.getHitCount());
+		assertEquals(miss + 1, DalStatementCache.getMissCount());
+	}
+	
+	@Test
+	public void testKey() throws Exception {
+		ConnectionHandler conn = new ConnectionHandler();
+		DalStatementCache test = new DalStatementCache(createConnection(conn), 10);
+		
+		PreparedStatement s1 = prepare(test, "select 1");
+		DalStatementCache.checkin(s1);
+		
+		assertNotSame(s1, prepare(test, "select 2"));
+		assertNotSame(s1, test.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY, false));
+		assertNotSame(s1, test.prepareStatement("select 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, true));
+		assertEquals(4, conn.statements.size());
+	}
+	
+	@Test
+	public void testConcurrentUse() throws Exception {
+		ConnectionHandler conn = new ConnectionHandler();
+		DalStatementCache test = new DalStatementCache(createConnection(conn), 10);
+		
+		// Statement checked out can not be used by others
+		PreparedStatement s1 = prepare(test, "select 1");
+		PreparedStatement s2 = prepare(test, "select 1");
+		assertNotSame(s1, s2);
+		
+		DalStatementCache.checkin(s1);
+		DalStatementCache.checkin(s2);
+		assertEquals(1, test.size());
+		assertTrue(conn.statements.get(0).closed);
+		assertFalse(conn.statements.get(1).closed);
+	}
+	
+	@Test
+	public void testEviction() throws Exception {
+		ConnectionHandler conn = new ConnectionHandler();
+		DalStatementCache test = new DalStatementCache(createConnection(conn), 2);
+		long eviction = DalStatementCache.getEvictionCount();
+		
+		PreparedStatement s1 = prepare(test, "select 1");
+		PreparedStatement s2 = prepare(test, "select 2");
+		PreparedStatement s3 = prepare(test, "select 3");
+		DalStatementCache.checkin(s1);
+		DalStatementCache.checkin(s2);
+		
+		// Make select 1 the most recently used
+		DalStatementCache.checkin(prepare(test, "select 1"));
+		DalStatementCache.checkin(s3);
+		
+		assertEquals(2, test.size());
+		assertFalse(conn.statements.get(0).closed);
+		assertTrue(conn.statements.get(1).closed);
+		assertFalse(conn.statements.get(2).closed);
+		assertEquals(eviction + 1, DalStatementCache.getEvictionCount());
+	}
+	
+	@Test
+	public void testClosed() throws Exception {
+		ConnectionHandler conn = new ConnectionHandler();
+		DalStatementCache test = new DalStatementCache(createConnection(conn), 10);
+		
+		PreparedStatement s1 = prepare(test, "select 1");
+		s1.close();
+		assertTrue(DalStatementCache.checkin(s1));
+		assertEquals(0, test.size());
+		
+		PreparedStatement s2 = prepare(test, "select 1");
+		DalStatementCache.discard(s2);
+		assertFalse(DalStatementCache.checkin(s2));
+		assertEquals(0, test.size());
+	}
+}
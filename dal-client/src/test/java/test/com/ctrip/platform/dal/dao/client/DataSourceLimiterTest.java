@@ -0,0 +1,131 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.DataSourceLimiter;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+public class DataSourceLimiterTest {
+	private Thread acquireAsync(final DataSourceLimiter limiter, final CountDownLatch acquired) {
+		Thread thread = new Thread() {
+			public void run() {
+				try {
+					limiter.acquire();
+					acquired.countDown();
+				} catch (DalException e) {
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+	
+	private void waitForWaiting(DataSourceLimiter limiter, int waiting) throws InterruptedException {
+		for(int i = 0; i < 1000 && limiter.getWaiting() < waiting; i++)
+			Thread.sleep(1);
+		assertEquals(waiting, limiter.getWaiting());
+	}
+
+	@Test
+	public void testNoLimit() throws Exception {
+		DataSourceLimiter test = new DataSourceLimiter("test", 0, 0);
+		for(int i = 0; i < 100; i++)
+			test.acquire();
+		
+		assertEquals(100, test.getInFlight());
+		assertEquals(100, test.getAcquiredCount());
+		assertEquals(0, test.getWaitedCount());
+	}
+
+	@Test
+	public void testWaitForRelease() throws Exception {
+		DataSourceLimiter test = new DataSourceLimiter("test", 1, 10000);
+		test.acquire();
+		
+		CountDownLatch acquired = new CountDownLatch(1);
+		acquireAsync(test, acquired);
+		waitForWaiting(test, 1);
+		assertEquals(1, acquired.getCount());
+		
+		Thread.sleep(20);
+		test.release();
+		assertTrue(acquired.await(1, TimeUnit.SECONDS));
+		assertEquals(1, test.getInFlight());
+		assertEquals(0, test.getWaiting());
+		assertEquals(2, test.getAcquiredCount());
+		assertEquals(1, test.getWaitedCount());
+		assertTrue(test.getMaxWaitedMillis() >= 20);
+		assertTrue(test.getTotalWaitMillis() >= test.getMaxWaitedMillis());
+	}
+
+	@Test
+	public void testRejectAfterMaxWait() throws Exception {
+		DataSourceLimiter test = new DataSourceLimiter("test", 1, 50);
+		test.acquire();
+		
+		try {
+			test.acquire();
+			fail();
+		} catch (DalException e) {
+			assertEquals(ErrorCode.DataSourceBusy.getCode(), e.getErrorCode());
+		}
+		assertEquals(1, test.getInFlight());
+		assertEquals(1, test.getRejectedCount());
+	}
+
+	@Test
+	public void testRejectAtDeadline() throws Exception {
+		DataSourceLimiter test = new DataSourceLimiter("test", 1, 10000);
+		test.acquire();
+		
+		long start = System.currentTimeMillis();
+		try {
+			test.acquire(start + 50);
+			fail();
+		} catch (DalException e) {
+			assertEquals(ErrorCode.DataSourceBusy.getCode(), e.getErrorCode());
+		}
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		assertEquals(1, test.getRejectedCount());
+		
+		// Deadline already passed
+		try {
+			test.acquire(start - 1);
+			fail();
+		} catch (DalException e) {
+			assertEquals(ErrorCode.DataSourceBusy.getCode(), e.getErrorCode());
+		}
+	}
+
+	@Test
+	public void testGetHost() throws Exception {
+		assertEquals("db1:3306", DataSourceLimiter.getHost("jdbc:mysql://DB1:3306/shard_0?useUnicode=true"));
+		assertEquals("db1:3306", DataSourceLimiter.getHost("jdbc:mysql://db1:3306/shard_1"));
+		assertEquals("db2:1433", DataSourceLimiter.getHost("jdbc:sqlserver://db2:1433;DatabaseName=shard_0"));
+		assertEquals(null, DataSourceLimiter.getHost("jdbc:oracle:thin:@db3:1521:orcl"));
+		assertEquals(null, DataSourceLimiter.getHost(null));
+	}
+
+	@Test
+	public void testRaiseLimit() throws Exception {
+		DataSourceLimiter test = new DataSourceLimiter("test", 1, 10000);
+		test.acquire();
+		
+		CountDownLatch acquired = new CountDownLatch(2);
+		acquireAsync(test, acquired);
+		acquireAsync(test, acquired);
+		waitForWaiting(test, 2);
+		
+		test.setMaxConcurrency(3);
+		assertTrue(acquired.await(1, TimeUnit.SECONDS));
+		assertEquals(3, test.getInFlight());
+	}
+}
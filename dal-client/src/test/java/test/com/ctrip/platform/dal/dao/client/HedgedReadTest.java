@@ -0,0 +1,180 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.HedgedRead;
+import com.ctrip.platform.dal.dao.client.StatementCanceller;
+
+public class HedgedReadTest {
+	private static ExecutorService executor = Executors.newCachedThreadPool();
+	
+	@AfterClass
+	public static void tearDownAfterClass() {
+		executor.shutdown();
+	}
+	
+	private Callable<Integer> value(final int value, final AtomicReference<Thread> thread) {
+		return new Callable<Integer>() {
+			public Integer call() throws Exception {
+				thread.set(Thread.currentThread());
+				return value;
+			}
+		};
+	}
+	
+	private Callable<Integer> error(final String message) {
+		return new Callable<Integer>() {
+			public Integer call() throws Exception {
+				throw new SQLException(message);
+			}
+		};
+	}
+	
+	/**
+	 * Simulate statement that blocks until it is cancelled
+	 */
+	private Callable<Integer> blocking(final AtomicBoolean cancelled) {
+		return new Callable<Integer>() {
+			public Integer call() throws Exception {
+				final CountDownLatch latch = new CountDownLatch(1);
+				Statement statement = (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Statement.class}, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if(method.getName().equals("hashCode"))
+							return System.identityHashCode(proxy);
+						if(method.getName().equals("equals"))
+							return proxy == args[0];
+						if(method.getName().equals("cancel")) {
+							cancelled.set(true);
+							latch.countDown();
+						}
+						return null;
+					}
+				});
+				
+				StatementCanceller.register(statement);
+				try {
+					if(latch.await(5, TimeUnit.SECONDS))
+						throw new SQLException("Cancelled");
+					return 1;
+				} finally {
+					StatementCanceller.unregister(statement);
+				}
+			}
+		};
+	}
+
+	@Test
+	public void testPrimaryWins() throws Exception {
+		AtomicReference<Thread> primary = new AtomicReference<>();
+		AtomicReference<Thread> hedge = new AtomicReference<>();
+		
+		HedgedRead<Integer> test = new HedgedRead<>(executor, 1000);
+		assertEquals(1, test.execute(value(1, primary), value(2, hedge)).intValue());
+		assertFalse(Thread.currentThread() == primary.get());
+		
+		Thread.sleep(1200);
+		assertEquals(null, hedge.get());
+	}
+
+	@Test
+	public void testHedgeWins() throws Exception {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		AtomicReference<Thread> hedge = new AtomicReference<>();
+		
+		long start = System.currentTimeMillis();
+		HedgedRead<Integer> test = new HedgedRead<>(executor, 50);
+		assertEquals(2, test.execute(blocking(cancelled), value(2, hedge)).intValue());
+		
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertTrue(cancelled.get());
+		assertFalse(Thread.currentThread() == hedge.get());
+		assertFalse(StatementCanceller.isCurrentCancelled());
+	}
+
+	@Test
+	public void testPrimaryIgnoresCancel() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		Callable<Integer> primary = new Callable<Integer>() {
+			public Integer call() throws Exception {
+				release.await(5, TimeUnit.SECONDS);
+				return 1;
+			}
+		};
+		
+		long start = System.currentTimeMillis();
+		HedgedRead<Integer> test = new HedgedRead<>(executor, 50);
+		assertEquals(2, test.execute(primary, value(2, new AtomicReference<Thread>())).intValue());
+		
+		// The caller does not wait for the primary attempt
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		release.countDown();
+	}
+
+	@Test
+	public void testPrimaryFails() throws Exception {
+		AtomicReference<Thread> hedge = new AtomicReference<>();
+		
+		// Hedge attempt runs at once in caller thread
+		HedgedRead<Integer> test = new HedgedRead<>(executor, 60000);
+		assertEquals(2, test.execute(error("primary"), value(2, hedge)).intValue());
+		assertEquals(Thread.currentThread(), hedge.get());
+	}
+
+	@Test
+	public void testBothFail() throws Exception {
+		HedgedRead<Integer> test = new HedgedRead<>(executor, 10);
+		try {
+			test.execute(error("primary"), error("hedge"));
+			fail();
+		} catch (SQLException e) {
+			assertEquals("primary", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testNestedCanceller() throws Exception {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		final StatementCanceller outer = new StatementCanceller();
+		outer.bind();
+		try {
+			// Cancel the request after hedge attempt is started
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+					}
+					outer.cancel();
+				}
+			});
+			
+			HedgedRead<Integer> test = new HedgedRead<>(executor, 60000);
+			test.execute(blocking(cancelled), blocking(new AtomicBoolean()));
+			fail();
+		} catch (SQLException e) {
+			assertTrue(cancelled.get());
+		} finally {
+			outer.unbind();
+		}
+		assertFalse(StatementCanceller.isCurrentCancelled());
+	}
+}
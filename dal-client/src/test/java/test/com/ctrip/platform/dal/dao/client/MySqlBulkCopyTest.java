@@ -0,0 +1,61 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.client.BulkCopy;
+import com.ctrip.platform.dal.dao.client.MySqlBulkCopy;
+import com.ctrip.platform.dal.dao.client.SqlServerBulkCopy;
+
+public class MySqlBulkCopyTest {
+	private String read(InputStream in, int bufferSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[bufferSize];
+		int count;
+		while((count = in.read(buffer, 0, bufferSize)) != -1)
+			out.write(buffer, 0, count);
+		return new String(out.toByteArray(), "UTF-8");
+	}
+
+	@Test
+	public void testGetInstance() {
+		assertTrue(BulkCopy.getInstance(DatabaseCategory.MySql) instanceof MySqlBulkCopy);
+		assertTrue(BulkCopy.getInstance(DatabaseCategory.SqlServer) instanceof SqlServerBulkCopy);
+		assertEquals(null, BulkCopy.getInstance(DatabaseCategory.Oracle));
+	}
+
+	@Test
+	public void testDescription() {
+		String sql = new MySqlBulkCopy().getDescription("`person`", new String[]{"id", "name"});
+		assertTrue(sql.startsWith("LOAD DATA LOCAL INFILE 'dal_bulk_load' IGNORE INTO TABLE `person` "));
+		assertTrue(sql.endsWith("(`id`, `name`)"));
+	}
+
+	@Test
+	public void testInfileStream() throws IOException {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{1, "a\tb\\c\nd", null});
+		rows.add(new Object[]{2L, "中文", new BigDecimal("1E+3")});
+		rows.add(new Object[]{true, Timestamp.valueOf("2017-01-02 03:04:05.0"), new byte[]{'x', 0}});
+
+		String expected = "1\ta\\\tb\\\\c\\nd\t\\N\n" +
+				"2\t中文\t1000\n" +
+				"1\t2017-01-02 03:04:05.0\tx\\0\n";
+
+		MySqlBulkCopy test = new MySqlBulkCopy();
+		assertEquals(expected, read(test.toInfileStream(rows), 1024));
+		assertEquals(expected, read(test.toInfileStream(rows), 3));
+		assertEquals("", read(test.toInfileStream(new ArrayList<Object[]>()), 3));
+	}
+}
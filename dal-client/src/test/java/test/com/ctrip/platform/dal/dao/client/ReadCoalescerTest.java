@@ -0,0 +1,222 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.ReadCoalescer;
+import com.ctrip.platform.dal.dao.client.StatementCanceller;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+public class ReadCoalescerTest {
+	private Thread executeAsync(final ReadCoalescer coalescer, final String key, final Callable<Object> read, final AtomicReference<Object> result) {
+		Thread thread = new Thread() {
+			public void run() {
+				try {
+					result.set(coalescer.execute(key, read));
+				} catch (SQLException e) {
+					result.set(e);
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+	
+	private Callable<Object> blockingRead(final CountDownLatch release, final AtomicInteger count, final Object result) {
+		return new Callable<Object>() {
+			public Object call() throws Exception {
+				count.incrementAndGet();
+				release.await();
+				if(result instanceof SQLException)
+					throw (SQLException)result;
+				return result;
+			}
+		};
+	}
+	
+	private void waitForCoalesced(ReadCoalescer coalescer, long count) throws InterruptedException {
+		for(int i = 0; i < 1000 && coalescer.getCoalescedCount() < count; i++)
+			Thread.sleep(1);
+		assertEquals(count, coalescer.getCoalescedCount());
+	}
+
+	@Test
+	public void testCoalesce() throws Exception {
+		ReadCoalescer test = new ReadCoalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger count = new AtomicInteger();
+		Object value = new Object();
+		
+		AtomicReference<Object> leader = new AtomicReference<>();
+		Thread leaderThread = executeAsync(test, "key", blockingRead(release, count, value), leader);
+		while(count.get() == 0)
+			Thread.sleep(1);
+		
+		AtomicReference<Object>[] followers = new AtomicReference[5];
+		Thread[] threads = new Thread[followers.length];
+		for(int i = 0; i < followers.length; i++) {
+			followers[i] = new AtomicReference<>();
+			threads[i] = executeAsync(test, "key", blockingRead(release, count, new Object()), followers[i]);
+		}
+		
+		waitForCoalesced(test, followers.length);
+		release.countDown();
+		
+		leaderThread.join();
+		for(int i = 0; i < followers.length; i++) {
+			threads[i].join();
+			assertSame(value, followers[i].get());
+		}
+		
+		assertSame(value, leader.get());
+		assertEquals(1, count.get());
+		assertEquals(1, test.getExecutedCount());
+	}
+	
+	@Test
+	public void testCoalesceError() throws Exception {
+		ReadCoalescer test = new ReadCoalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger count = new AtomicInteger();
+		SQLException error = new SQLException("test");
+		
+		AtomicReference<Object> leader = new AtomicReference<>();
+		Thread leaderThread = executeAsync(test, "key", blockingRead(release, count, error), leader);
+		while(count.get() == 0)
+			Thread.sleep(1);
+		
+		AtomicReference<Object> follower = new AtomicReference<>();
+		Thread followerThread = executeAsync(test, "key", blockingRead(release, count, null), follower);
+		waitForCoalesced(test, 1);
+		release.countDown();
+		
+		leaderThread.join();
+		followerThread.join();
+		assertSame(error, leader.get());
+		assertSame(error, follower.get());
+		assertEquals(1, count.get());
+	}
+	
+	@Test
+	public void testFollowerDeadline() throws Exception {
+		ReadCoalescer test = new ReadCoalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger count = new AtomicInteger();
+		
+		AtomicReference<Object> leader = new AtomicReference<>();
+		Thread leaderThread = executeAsync(test, "key", blockingRead(release, count, "1"), leader);
+		while(count.get() == 0)
+			Thread.sleep(1);
+		
+		long start = System.currentTimeMillis();
+		try {
+			test.execute("key", blockingRead(release, count, "2"), start + 100);
+			fail();
+		} catch (SQLException e) {
+			assertEquals(ErrorCode.CoalescedReadTimeout.getCode(), e.getErrorCode());
+		}
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		
+		release.countDown();
+		leaderThread.join();
+		assertEquals("1", leader.get());
+	}
+	
+	@Test
+	public void testLeaderCancelled() throws Exception {
+		final ReadCoalescer test = new ReadCoalescer();
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger count = new AtomicInteger();
+		final StatementCanceller canceller = new StatementCanceller();
+		final AtomicReference<Object> leader = new AtomicReference<>();
+		
+		Thread leaderThread = new Thread() {
+			public void run() {
+				canceller.bind();
+				try {
+					leader.set(test.execute("key", blockingRead(release, count, new SQLException("cancelled"))));
+				} catch (SQLException e) {
+					leader.set(e);
+				} finally {
+					canceller.unbind();
+				}
+			}
+		};
+		leaderThread.start();
+		while(count.get() == 0)
+			Thread.sleep(1);
+		
+		AtomicReference<Object> follower = new AtomicReference<>();
+		Thread followerThread = executeAsync(test, "key", blockingRead(release, count, "2"), follower);
+		waitForCoalesced(test, 1);
+		
+		// The leader fails by its own deadline, the follower reads by itself
+		canceller.cancel();
+		release.countDown();
+		leaderThread.join();
+		followerThread.join();
+		
+		assertTrue(leader.get() instanceof SQLException);
+		assertEquals("2", follower.get());
+		assertEquals(2, test.getExecutedCount());
+	}
+	
+	@Test
+	public void testDifferentKey() throws Exception {
+		ReadCoalescer test = new ReadCoalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger count = new AtomicInteger();
+		
+		AtomicReference<Object> first = new AtomicReference<>();
+		Thread firstThread = executeAsync(test, "key1", blockingRead(release, count, "1"), first);
+		AtomicReference<Object> second = new AtomicReference<>();
+		Thread secondThread = executeAsync(test, "key2", blockingRead(release, count, "2"), second);
+		
+		while(count.get() < 2)
+			Thread.sleep(1);
+		release.countDown();
+		
+		firstThread.join();
+		secondThread.join();
+		assertEquals("1", first.get());
+		assertEquals("2", second.get());
+		assertEquals(2, test.getExecutedCount());
+		assertEquals(0, test.getCoalescedCount());
+	}
+	
+	@Test
+	public void testNotCached() throws Exception {
+		ReadCoalescer test = new ReadCoalescer();
+		final AtomicInteger count = new AtomicInteger();
+		Callable<Object> read = new Callable<Object>() {
+			public Object call() throws Exception {
+				return count.incrementAndGet();
+			}
+		};
+		
+		assertEquals(1, test.execute("key", read));
+		assertEquals(2, test.execute("key", read));
+		assertEquals(0, test.getCoalescedCount());
+		
+		try {
+			test.execute("key", new Callable<Object>() {
+				public Object call() throws Exception {
+					throw new RuntimeException("test");
+				}
+			});
+			fail();
+		} catch (SQLException e) {
+		}
+		assertEquals(3, test.execute("key", read));
+	}
+}
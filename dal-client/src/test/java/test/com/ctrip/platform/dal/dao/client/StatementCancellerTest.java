@@ -0,0 +1,111 @@
+package test.com.ctrip.platform.dal.dao.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.client.StatementCanceller;
+
+public class StatementCancellerTest {
+	private static class StatementHandler implements InvocationHandler {
+		private AtomicInteger cancelCount = new AtomicInteger();
+		private CountDownLatch entered = new CountDownLatch(1);
+		private CountDownLatch release = new CountDownLatch(0);
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "hashCode": return System.identityHashCode(proxy);
+			case "equals": return proxy == args[0];
+			case "cancel":
+				cancelCount.incrementAndGet();
+				entered.countDown();
+				release.await();
+				return null;
+			default: return null;
+			}
+		}
+	}
+
+	private Statement createStatement(StatementHandler handler) {
+		return (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Statement.class}, handler);
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		StatementHandler handler = new StatementHandler();
+		Statement statement = createStatement(handler);
+		StatementCanceller test = new StatementCanceller();
+		test.bind();
+		try {
+			StatementCanceller.register(statement);
+			test.cancel();
+			assertEquals(1, handler.cancelCount.get());
+			assertTrue(StatementCanceller.unregister(statement));
+		} finally {
+			test.unbind();
+		}
+	}
+
+	@Test
+	public void testNoCancelAfterUnregister() throws Exception {
+		StatementHandler handler = new StatementHandler();
+		Statement statement = createStatement(handler);
+		StatementCanceller test = new StatementCanceller();
+		test.bind();
+		try {
+			StatementCanceller.register(statement);
+			assertFalse(StatementCanceller.unregister(statement));
+		} finally {
+			test.unbind();
+		}
+
+		// The statement may already be reused by another query
+		test.cancel();
+		assertEquals(0, handler.cancelCount.get());
+	}
+
+	@Test
+	public void testUnregisterWaitsForCancel() throws Exception {
+		final StatementHandler handler = new StatementHandler();
+		handler.release = new CountDownLatch(1);
+		Statement statement = createStatement(handler);
+		final StatementCanceller test = new StatementCanceller();
+		test.bind();
+		try {
+			StatementCanceller.register(statement);
+			new Thread() {
+				public void run() {
+					test.cancel();
+				}
+			}.start();
+			assertTrue(handler.entered.await(1, TimeUnit.SECONDS));
+
+			new Thread() {
+				public void run() {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+					}
+					handler.release.countDown();
+				}
+			}.start();
+
+			// Unregister returns only after the cancel completes
+			assertTrue(StatementCanceller.unregister(statement));
+			assertEquals(0, handler.release.getCount());
+		} finally {
+			test.unbind();
+		}
+	}
+}
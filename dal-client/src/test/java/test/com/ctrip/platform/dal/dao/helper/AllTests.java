@@ -8,11 +8,17 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	DalFirstResultMergerTest.class,
 	DalSingleResultMergerTest.class,
+	DalSortedListMergerTest.class,
+	DalRangedResultMergerTest.class,
+	DalAggregateMergerTest.class,
+	DalRowIteratorTest.class,
 	PartialQueryTableDaoUnitTest.class,
 	PartialQueryQueryDaoTest.class,
 	DalColumnMapRowMapperTest.class,
 	DalCustomRowMapperTest.class,
 	SQLCompilerTest.class,
+	DalBatchLoaderTest.class,
+	DalWriteBehindQueueTest.class,
 	
 })
 public class AllTests {}
@@ -0,0 +1,98 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.AggregateColumn;
+import com.ctrip.platform.dal.dao.helper.DalAggregateMerger;
+
+public class DalAggregateMergerTest {
+	private Map<String, Object> row(Object... values) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		for(int i = 0; i < values.length; i += 2)
+			row.put((String)values[i], values[i + 1]);
+		return row;
+	}
+
+	private DalAggregateMerger create(Comparator<Map<String, Object>> comparator, int start, int count) {
+		return new DalAggregateMerger(Arrays.asList("city"), Arrays.asList(
+				AggregateColumn.sum("age", "total"),
+				AggregateColumn.min("age", "youngest"),
+				AggregateColumn.max("age", "oldest"),
+				AggregateColumn.count("*", "cnt"),
+				AggregateColumn.avg("age", "average"),
+				AggregateColumn.countDistinct("name", "names")), comparator, start, count);
+	}
+
+	private void addShards(DalAggregateMerger test) throws SQLException {
+		// Partial rows are grouped by city and name
+		test.addPartial("0", Arrays.asList(
+				row("city", "SH", "name", "a", "total", 30L, "youngest", 10, "oldest", 20, "cnt", 2L, "average__SUM", 30L, "average__COUNT", 2L),
+				row("city", "BJ", "name", "b", "total", 40L, "youngest", 40, "oldest", 40, "cnt", 1L, "average__SUM", 40L, "average__COUNT", 1L)));
+		test.addPartial("1", null);
+		test.addPartial("2", Arrays.asList(
+				row("CITY", "SH", "NAME", "a", "TOTAL", 5L, "YOUNGEST", 5, "OLDEST", 5, "CNT", 1L, "AVERAGE__SUM", 5L, "AVERAGE__COUNT", 1L),
+				row("CITY", "SH", "NAME", "c", "TOTAL", 25L, "YOUNGEST", 25, "OLDEST", 25, "CNT", 1L, "AVERAGE__SUM", 25L, "AVERAGE__COUNT", 1L)));
+	}
+
+	@Test
+	public void testMerge() throws SQLException {
+		DalAggregateMerger test = create(null, 0, 0);
+		addShards(test);
+
+		List<Map<String, Object>> result = test.merge();
+		Assert.assertEquals(2, result.size());
+
+		Map<String, Object> sh = result.get(0);
+		Assert.assertEquals("SH", sh.get("city"));
+		Assert.assertEquals(60L, sh.get("total"));
+		Assert.assertEquals(5, sh.get("youngest"));
+		Assert.assertEquals(25, sh.get("oldest"));
+		Assert.assertEquals(4L, sh.get("cnt"));
+		Assert.assertEquals(0, new BigDecimal(15).compareTo((BigDecimal)sh.get("average")));
+		Assert.assertEquals(2L, sh.get("names"));
+
+		Map<String, Object> bj = result.get(1);
+		Assert.assertEquals("BJ", bj.get("city"));
+		Assert.assertEquals(40L, bj.get("total"));
+		Assert.assertEquals(1L, bj.get("names"));
+	}
+
+	@Test
+	public void testMergeSortedRange() throws SQLException {
+		DalAggregateMerger test = create(new Comparator<Map<String, Object>>() {
+			@Override
+			public int compare(Map<String, Object> o1, Map<String, Object> o2) {
+				return ((String)o1.get("city")).compareTo((String)o2.get("city"));
+			}
+		}, 1, 1);
+		addShards(test);
+
+		List<Map<String, Object>> result = test.merge();
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals("SH", result.get(0).get("city"));
+	}
+
+	@Test
+	public void testMergeMixedNumber() throws SQLException {
+		DalAggregateMerger test = new DalAggregateMerger(Arrays.<String>asList(), Arrays.asList(
+				AggregateColumn.sum("price", "total"),
+				AggregateColumn.avg("price", "average")));
+		test.addPartial("0", Arrays.asList(row("total", new BigDecimal("1.5"), "average__SUM", 1.5d, "average__COUNT", 1)));
+		test.addPartial("1", Arrays.asList(row("total", 2L, "average__SUM", null, "average__COUNT", 0)));
+
+		List<Map<String, Object>> result = test.merge();
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(new BigDecimal("3.5"), result.get(0).get("total"));
+		Assert.assertEquals(1.5d, result.get(0).get("average"));
+	}
+}
@@ -0,0 +1,169 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalFuture;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.helper.DalBatchLoader;
+import com.ctrip.platform.dal.dao.helper.DefaultResultCallback;
+
+public class DalBatchLoaderTest {
+	private static Executor executor = Executors.newCachedThreadPool();
+	
+	private static class TestLoader extends DalBatchLoader<Integer, String> {
+		private List<List<Integer>> batches = new ArrayList<>();
+		private List<DalHints> hints = new ArrayList<>();
+		private boolean fail;
+		private Executor executor = DalBatchLoaderTest.executor;
+		
+		private TestLoader(int maxBatchSize, long windowMillis) {
+			super(maxBatchSize, windowMillis);
+		}
+
+		@Override
+		protected synchronized Map<Integer, String> load(DalHints hints, List<Integer> keys) throws SQLException {
+			batches.add(keys);
+			this.hints.add(hints);
+			if(fail)
+				throw new SQLException("test");
+			
+			Map<Integer, String> values = new HashMap<>();
+			for(Integer key: keys)
+				if(key >= 0)
+					values.put(key, "v" + key);
+			return values;
+		}
+
+		@Override
+		protected Executor getExecutor() {
+			return executor;
+		}
+	}
+	
+	@Test
+	public void testWindow() throws Exception {
+		TestLoader test = new TestLoader(100, 50);
+		DalHints groupHints = new DalHints();
+		List<DalFuture<String>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++)
+			futures.add(test.load("g", groupHints, i, new DalHints()));
+		
+		for(int i = 0; i < 10; i++)
+			assertEquals("v" + i, futures.get(i).get(1, TimeUnit.SECONDS));
+		
+		assertEquals(1, test.batches.size());
+		assertEquals(10, test.batches.get(0).size());
+		assertSame(groupHints, test.hints.get(0));
+		assertEquals(10, test.getKeyCount());
+		assertEquals(1, test.getBatchCount());
+	}
+	
+	@Test
+	public void testMaxBatchSize() throws Exception {
+		// Window is long enough that only full batches are loaded in time
+		TestLoader test = new TestLoader(5, 10000);
+		List<DalFuture<String>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++)
+			futures.add(test.load("g", new DalHints(), i, new DalHints()));
+		
+		for(int i = 0; i < 10; i++)
+			assertEquals("v" + i, futures.get(i).get(1, TimeUnit.SECONDS));
+		
+		assertEquals(2, test.batches.size());
+		assertEquals(5, test.batches.get(0).size());
+		assertEquals(5, test.batches.get(1).size());
+	}
+	
+	@Test
+	public void testGroup() throws Exception {
+		TestLoader test = new TestLoader(100, 20);
+		DalFuture<String> f1 = test.load("g1", new DalHints(), 1, new DalHints());
+		DalFuture<String> f2 = test.load("g2", new DalHints(), 2, new DalHints());
+		DalFuture<String> f3 = test.load("g1", new DalHints(), 3, new DalHints());
+		
+		assertEquals("v1", f1.get(1, TimeUnit.SECONDS));
+		assertEquals("v2", f2.get(1, TimeUnit.SECONDS));
+		assertEquals("v3", f3.get(1, TimeUnit.SECONDS));
+		assertEquals(2, test.batches.size());
+	}
+	
+	@Test
+	public void testSameKeyAndMissing() throws Exception {
+		TestLoader test = new TestLoader(100, 20);
+		DalFuture<String> f1 = test.load("g", new DalHints(), 1, new DalHints());
+		DalFuture<String> f2 = test.load("g", new DalHints(), 1, new DalHints());
+		DalFuture<String> f3 = test.load("g", new DalHints(), -1, new DalHints());
+		
+		assertEquals("v1", f1.get(1, TimeUnit.SECONDS));
+		assertEquals("v1", f2.get(1, TimeUnit.SECONDS));
+		assertNull(f3.get(1, TimeUnit.SECONDS));
+		assertEquals(1, test.batches.size());
+		assertEquals(2, test.batches.get(0).size());
+	}
+	
+	@Test
+	public void testRejected() throws Exception {
+		TestLoader test = new TestLoader(2, 20);
+		test.executor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		};
+		
+		// Full batch is loaded by the caller
+		DalFuture<String> f1 = test.load("g", new DalHints(), 1, new DalHints());
+		DalFuture<String> f2 = test.load("g", new DalHints(), 2, new DalHints());
+		assertTrue(f1.isDone());
+		assertEquals("v1", f1.get());
+		assertEquals("v2", f2.get());
+		
+		// Batch closed by the window fails instead of loading in the timer thread
+		DalFuture<String> f3 = test.load("g", new DalHints(), 3, new DalHints());
+		try {
+			f3.get(1, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+		assertEquals(1, test.batches.size());
+	}
+	
+	@Test
+	public void testError() throws Exception {
+		TestLoader test = new TestLoader(100, 20);
+		test.fail = true;
+		DefaultResultCallback callback = new DefaultResultCallback();
+		DalFuture<String> f1 = test.load("g", new DalHints(), 1, new DalHints().callbackWith(callback));
+		DalFuture<String> f2 = test.load("g", new DalHints(), 2, new DalHints());
+		
+		for(DalFuture<String> future: new DalFuture[]{f1, f2}) {
+			try {
+				future.get(1, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof SQLException);
+			}
+		}
+		
+		callback.waitForDone(1000);
+		assertTrue(callback.getError() instanceof SQLException);
+	}
+}
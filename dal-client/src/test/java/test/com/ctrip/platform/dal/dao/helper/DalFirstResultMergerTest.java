@@ -38,4 +38,22 @@ public class DalFirstResultMergerTest {
 		test.addPartial("", null);
 		Assert.assertNull(test.merge());
 	}
+
+	@Test
+	public void testIsSatisfied() {
+		DalFirstResultMerger<Integer> test = new DalFirstResultMerger<>();
+		test.addPartial("", null);
+		Assert.assertFalse(test.isSatisfied());
+		test.addPartial("", 1);
+		Assert.assertTrue(test.isSatisfied());
+		
+		test = new DalFirstResultMerger<>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return o1.compareTo(o2);
+			}
+		});
+		test.addPartial("", 1);
+		Assert.assertFalse(test.isSatisfied());
+	}
 }
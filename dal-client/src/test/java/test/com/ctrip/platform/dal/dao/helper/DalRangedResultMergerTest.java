@@ -0,0 +1,78 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.DalRangedResultMerger;
+
+public class DalRangedResultMergerTest {
+	private Comparator<Integer> asc = new Comparator<Integer>() {
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return o1.compareTo(o2);
+		}
+	};
+
+	@Test
+	public void testMergeTop() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 3);
+		test.addPartial("0", Arrays.asList(7, 1, 4));
+		test.addPartial("1", null);
+		test.addPartial("2", Arrays.asList(9, 2, 5, 8));
+		
+		Assert.assertEquals(Arrays.asList(1, 2, 4), test.merge());
+	}
+
+	@Test
+	public void testMergeRange() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 2, 3);
+		test.addPartial("0", Arrays.asList(1, 4, 7));
+		test.addPartial("1", Arrays.asList(2, 5, 8, 9));
+		test.addPartial("2", Arrays.asList(3, 6));
+		
+		Assert.assertEquals(Arrays.asList(3, 4, 5), test.merge());
+	}
+
+	@Test
+	public void testMergeOutOfRange() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(asc, 4, 3);
+		test.addPartial("0", Arrays.asList(1, 4));
+		test.addPartial("1", Arrays.asList(2, 5, 6));
+		
+		Assert.assertEquals(Arrays.asList(6), test.merge());
+		
+		test = new DalRangedResultMerger<>(asc, 10, 3);
+		test.addPartial("0", Arrays.asList(1, 4));
+		Assert.assertTrue(test.merge().isEmpty());
+	}
+
+	@Test
+	public void testMergeStable() throws SQLException {
+		Comparator<String> byLength = new Comparator<String>() {
+			@Override
+			public int compare(String o1, String o2) {
+				return o1.length() - o2.length();
+			}
+		};
+
+		DalRangedResultMerger<String> test = new DalRangedResultMerger<>(byLength, 0, 3);
+		test.addPartial("0", Arrays.asList("a1", "bbb"));
+		test.addPartial("1", Arrays.asList("a2", "c", "a3"));
+		
+		Assert.assertEquals(Arrays.asList("c", "a1", "a2"), test.merge());
+	}
+
+	@Test
+	public void testMergeWithoutComparator() throws SQLException {
+		DalRangedResultMerger<Integer> test = new DalRangedResultMerger<>(1, 2);
+		test.addPartial("0", Arrays.asList(3, 1));
+		test.addPartial("1", Arrays.asList(2, 4));
+		
+		Assert.assertEquals(Arrays.asList(1, 2), test.merge());
+	}
+}
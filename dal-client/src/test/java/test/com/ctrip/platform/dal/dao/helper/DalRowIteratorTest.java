@@ -0,0 +1,147 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalResultSetExtractor;
+import com.ctrip.platform.dal.dao.DalRowMapper;
+import com.ctrip.platform.dal.dao.helper.DalRowIterator;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+public class DalRowIteratorTest {
+	private static ExecutorService service = Executors.newCachedThreadPool();
+	
+	private DalRowMapper<Integer> mapper = new DalRowMapper<Integer>() {
+		@Override
+		public Integer map(ResultSet rs, int rowNum) throws SQLException {
+			return rs.getInt(1);
+		}
+	};
+	
+	private AtomicInteger cancelled = new AtomicInteger();
+	
+	private Statement statement = (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Statement.class}, new InvocationHandler() {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if(method.getName().equals("cancel"))
+				cancelled.incrementAndGet();
+			return null;
+		}
+	});
+	
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		service.shutdown();
+	}
+
+	/**
+	 * Result set that returns row number of each row
+	 */
+	private ResultSet createResultSet(final int rows) {
+		return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ResultSet.class}, new InvocationHandler() {
+			private int current;
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if(method.getName().equals("next"))
+					return ++current <= rows;
+				if(method.getName().equals("getInt"))
+					return current;
+				if(method.getName().equals("getStatement"))
+					return statement;
+				return null;
+			}
+		});
+	}
+
+	private Future<Integer> execute(final List<DalResultSetExtractor<Integer>> extractors, final int rows, final List<FutureTask<Integer>> shards) {
+		for(final DalResultSetExtractor<Integer> extractor: extractors) {
+			shards.add(new FutureTask<>(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return extractor.extract(createResultSet(rows));
+				}
+			}));
+		}
+		
+		return service.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				for(FutureTask<Integer> shard: shards)
+					service.execute(shard);
+				
+				int total = 0;
+				for(FutureTask<Integer> shard: shards)
+					total += shard.get();
+				return total;
+			}
+		});
+	}
+
+	@Test
+	public void testIterate() {
+		DalRowIterator<Integer> test = new DalRowIterator<>(mapper, 2);
+		List<DalResultSetExtractor<Integer>> extractors = new ArrayList<>();
+		for(int i = 0; i < 3; i++)
+			extractors.add(test.getExtractor());
+		
+		test.start(execute(extractors, 100, new ArrayList<FutureTask<Integer>>()));
+		
+		int count = 0;
+		int sum = 0;
+		while(test.hasNext()) {
+			count++;
+			sum += test.next();
+		}
+		test.close();
+		
+		Assert.assertEquals(300, count);
+		Assert.assertEquals(3 * 5050, sum);
+		Assert.assertFalse(test.hasNext());
+		Assert.assertEquals(0, cancelled.get());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		DalRowIterator<Integer> test = new DalRowIterator<>(mapper, 1);
+		List<DalResultSetExtractor<Integer>> extractors = new ArrayList<>();
+		extractors.add(test.getExtractor());
+		List<FutureTask<Integer>> shards = new ArrayList<>();
+		test.start(execute(extractors, 1000, shards));
+		
+		Assert.assertEquals(1, test.next().intValue());
+		test.close();
+		Assert.assertTrue(test.isClosed());
+		Assert.assertFalse(test.hasNext());
+		
+		// The shard stops fetching rows
+		try {
+			shards.get(0).get(1, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertEquals(ErrorCode.IteratorClosed.getCode(), ((DalException)e.getCause()).getErrorCode());
+		}
+		
+		// Statement is cancelled before the result set with rows not read is closed
+		Assert.assertEquals(1, cancelled.get());
+	}
+}
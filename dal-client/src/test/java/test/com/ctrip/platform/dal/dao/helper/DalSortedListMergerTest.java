@@ -0,0 +1,59 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.helper.DalSortedListMerger;
+
+public class DalSortedListMergerTest {
+	private Comparator<Integer> asc = new Comparator<Integer>() {
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return o1.compareTo(o2);
+		}
+	};
+
+	@Test
+	public void testMerge() {
+		DalSortedListMerger<Integer> test = new DalSortedListMerger<>(asc);
+		test.addPartial("0", Arrays.asList(1, 4, 7));
+		test.addPartial("1", null);
+		test.addPartial("2", new ArrayList<Integer>());
+		test.addPartial("3", Arrays.asList(2, 5, 8, 9));
+		test.addPartial("4", Arrays.asList(3, 6));
+		
+		Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), test.merge());
+	}
+
+	@Test
+	public void testMergeRange() {
+		Assert.assertEquals(Arrays.asList(4, 5, 7), merge(2, 3));
+	}
+
+	@Test
+	public void testMergeOutOfRange() {
+		Assert.assertEquals(Arrays.asList(7, 8), merge(4, 10));
+		Assert.assertTrue(merge(10, 10).isEmpty());
+		Assert.assertEquals(Arrays.asList(1, 2), merge(0, 2));
+	}
+
+	@Test
+	public void testMergeEmpty() {
+		DalSortedListMerger<Integer> test = new DalSortedListMerger<>(asc);
+		List<Integer> result = test.merge();
+		Assert.assertTrue(result.isEmpty());
+	}
+
+	private List<Integer> merge(int start, int count) {
+		DalSortedListMerger<Integer> test = new DalSortedListMerger<>(asc, start, count);
+		test.addPartial("0", Arrays.asList(1, 4, 7));
+		test.addPartial("1", Arrays.asList(2, 5, 8));
+		return test.merge();
+	}
+}
@@ -0,0 +1,176 @@
+package test.com.ctrip.platform.dal.dao.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalFuture;
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.helper.DalWriteBehindQueue;
+import com.ctrip.platform.dal.dao.helper.DefaultResultCallback;
+import com.ctrip.platform.dal.exceptions.DalException;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
+
+public class DalWriteBehindQueueTest {
+	private static Executor executor = Executors.newCachedThreadPool();
+	
+	private static class TestQueue extends DalWriteBehindQueue<String> {
+		private List<List<String>> batches = new ArrayList<>();
+		private List<DalHints> hints = new ArrayList<>();
+		private CountDownLatch release = new CountDownLatch(0);
+		private boolean fail;
+		private Executor executor = DalWriteBehindQueueTest.executor;
+		
+		private TestQueue(int maxBatchSize, long flushMillis, int maxQueueSize, long maxWaitMillis) {
+			super("test", maxBatchSize, flushMillis, maxQueueSize, maxWaitMillis);
+		}
+
+		@Override
+		protected int[] write(DalHints hints, List<String> pojos) throws SQLException {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+			}
+			
+			synchronized (this) {
+				batches.add(pojos);
+				this.hints.add(hints);
+			}
+			
+			if(fail)
+				throw new SQLException("test");
+			
+			int[] counts = new int[pojos.size()];
+			for(int i = 0; i < counts.length; i++)
+				counts[i] = i;
+			return counts;
+		}
+
+		@Override
+		protected Executor getExecutor() {
+			return executor;
+		}
+	}
+	
+	@Test
+	public void testFlushInterval() throws Exception {
+		TestQueue test = new TestQueue(100, 50, 1000, 0);
+		DalHints groupHints = new DalHints().inShard("1");
+		List<DalFuture<Integer>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++)
+			futures.add(test.add("g", groupHints, "p" + i, new DalHints()));
+		
+		for(int i = 0; i < 10; i++)
+			assertEquals(i, futures.get(i).get(1, TimeUnit.SECONDS).intValue());
+		
+		assertEquals(1, test.batches.size());
+		assertEquals(10, test.batches.get(0).size());
+		assertEquals("1", test.hints.get(0).getShardId());
+		assertEquals(10, test.getWrittenCount());
+		assertEquals(0, test.getSize());
+	}
+	
+	@Test
+	public void testRejectedByExecutor() throws Exception {
+		final AtomicInteger rejected = new AtomicInteger();
+		TestQueue test = new TestQueue(100, 20, 1000, 0);
+		test.executor = new Executor() {
+			public void execute(Runnable command) {
+				if(rejected.incrementAndGet() <= 2)
+					throw new RejectedExecutionException();
+				executor.execute(command);
+			}
+		};
+		
+		// The batch is submitted again after each flush interval, the scheduler never writes
+		DalFuture<Integer> future = test.add("g", new DalHints(), "p", new DalHints());
+		assertEquals(0, future.get(1, TimeUnit.SECONDS).intValue());
+		assertEquals(3, rejected.get());
+		assertEquals(1, test.getWrittenCount());
+	}
+	
+	@Test
+	public void testMaxBatchSize() throws Exception {
+		TestQueue test = new TestQueue(5, 10000, 1000, 0);
+		List<DalFuture<Integer>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++)
+			futures.add(test.add("g", new DalHints(), "p" + i, new DalHints()));
+		
+		for(int i = 0; i < 10; i++)
+			assertEquals(i % 5, futures.get(i).get(1, TimeUnit.SECONDS).intValue());
+		
+		assertEquals(2, test.batches.size());
+		assertEquals(2, test.getBatchCount());
+	}
+	
+	@Test
+	public void testGroupAndFlush() throws Exception {
+		TestQueue test = new TestQueue(100, 10000, 1000, 0);
+		DalFuture<Integer> f1 = test.add("g1", new DalHints(), "p1", new DalHints());
+		DalFuture<Integer> f2 = test.add("g2", new DalHints(), "p2", new DalHints());
+		DalFuture<Integer> f3 = test.add("g1", new DalHints(), "p3", new DalHints());
+		assertEquals(3, test.getSize());
+		
+		test.flush();
+		assertTrue(f1.isDone());
+		assertTrue(f2.isDone());
+		assertTrue(f3.isDone());
+		assertEquals(2, test.batches.size());
+		assertEquals(0, test.getSize());
+	}
+	
+	@Test
+	public void testQueueFull() throws Exception {
+		TestQueue test = new TestQueue(2, 10000, 2, 10);
+		test.release = new CountDownLatch(1);
+		test.add("g", new DalHints(), "p1", new DalHints());
+		test.add("g", new DalHints(), "p2", new DalHints());
+		
+		try {
+			test.add("g", new DalHints(), "p3", new DalHints());
+			fail();
+		} catch (DalException e) {
+			assertEquals(ErrorCode.WriteBehindQueueFull.getCode(), e.getErrorCode());
+		}
+		assertEquals(1, test.getRejectedCount());
+		
+		test.release.countDown();
+		for(int i = 0; i < 1000 && test.getSize() > 0; i++)
+			Thread.sleep(1);
+		assertEquals(0, test.getSize());
+		test.add("g", new DalHints(), "p3", new DalHints());
+	}
+	
+	@Test
+	public void testError() throws Exception {
+		TestQueue test = new TestQueue(100, 10, 1000, 0);
+		test.fail = true;
+		DefaultResultCallback callback = new DefaultResultCallback();
+		DalFuture<Integer> future = test.add("g", new DalHints(), "p1", new DalHints().callbackWith(callback));
+		
+		try {
+			future.get(1, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof SQLException);
+		}
+		
+		callback.waitForDone(1000);
+		assertTrue(callback.getError() instanceof SQLException);
+		assertEquals(1, test.getFailedCount());
+		assertEquals(0, test.getSize());
+	}
+}
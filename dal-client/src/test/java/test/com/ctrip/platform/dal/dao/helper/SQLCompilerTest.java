@@ -1,8 +1,10 @@
 package test.com.ctrip.platform.dal.dao.helper;
 
+import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import junit.framework.Assert;
 
@@ -81,5 +83,58 @@ public class SQLCompilerTest {
 		
 		Assert.assertEquals(expected_sql, new_sql);
 	}
+	
+	@Test
+	public void testCachedTemplate() throws SQLException{
+		String sql = "SELECT * FROM Person WHERE ID In (?) And Age > ?";
+		List idList = new ArrayList<>();
+		List<Integer> ids = new ArrayList<Integer>();
+		ids.add(1);
+		idList.add(ids);
+		Assert.assertEquals("SELECT * FROM Person WHERE ID In (?)  And Age > ?", SQLCompiler.compile(sql, idList));
+		
+		ids.add(2);
+		ids.add(3);
+		Assert.assertEquals("SELECT * FROM Person WHERE ID In (?,?,?)  And Age > ?", SQLCompiler.compile(sql, idList));
+		
+		idList.add(ids);
+		try {
+			SQLCompiler.compile(sql, idList);
+			Assert.fail();
+		} catch (SQLException e) {
+		}
+	}
+	
+	@Test
+	public void testTemplateCacheEviction() throws Exception {
+		List<List<?>> idList = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>();
+		ids.add(1);
+		idList.add(ids);
+		
+		for(int i = 0; i <= SQLCompiler.MAX_TEMPLATE_CACHE_SIZE; i++)
+			SQLCompiler.compile("SELECT * FROM Person WHERE ID In ? And Age > " + i, idList);
+		
+		Field field = SQLCompiler.class.getDeclaredField("templates");
+		field.setAccessible(true);
+		Map<?, ?> templates = (Map<?, ?>)field.get(null);
+		Assert.assertEquals(SQLCompiler.MAX_TEMPLATE_CACHE_SIZE, templates.size());
+		// New SQL is still cached after the cache is full
+		Assert.assertTrue(templates.containsKey("SELECT * FROM Person WHERE ID In ? And Age > " + SQLCompiler.MAX_TEMPLATE_CACHE_SIZE));
+		Assert.assertFalse(templates.containsKey("SELECT * FROM Person WHERE ID In ? And Age > 0"));
+	}
+	
+	@Test
+	public void testBucketSize() {
+		Assert.assertEquals(0, SQLCompiler.getBucketSize(0));
+		Assert.assertEquals(1, SQLCompiler.getBucketSize(1));
+		Assert.assertEquals(2, SQLCompiler.getBucketSize(2));
+		Assert.assertEquals(4, SQLCompiler.getBucketSize(3));
+		Assert.assertEquals(8, SQLCompiler.getBucketSize(5));
+		Assert.assertEquals(8, SQLCompiler.getBucketSize(8));
+		Assert.assertEquals(1024, SQLCompiler.getBucketSize(1000));
+		Assert.assertEquals(1024, SQLCompiler.getBucketSize(1024));
+		Assert.assertEquals(2048, SQLCompiler.getBucketSize(1025));
+	}
 
 }
@@ -26,6 +26,7 @@ import javax.persistence.Table;
 import org.junit.Test;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalQueryDao;
 import com.ctrip.platform.dal.dao.DalResultCallback;
@@ -1513,6 +1514,7 @@ public abstract class DalQueryDaoTest {
 			DalHints hints = new DalHints();
 			List<Short> result = queryFromInAllShard(hints);
 			assertEquals(4, result.size());
+			assertNull(hints.get(DalHintEnum.maxRows));
 
 			//[3, 1, 2, 3]
 			assertEquals(new Short((short)3), result.get(0));
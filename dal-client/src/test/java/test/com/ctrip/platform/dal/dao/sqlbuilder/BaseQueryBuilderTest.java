@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import org.junit.Test;
 
 import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.helper.AggregateColumn;
 import com.ctrip.platform.dal.dao.sqlbuilder.BaseTableSelectBuilder;
 
 public class BaseQueryBuilderTest {
@@ -100,4 +101,34 @@ public class BaseQueryBuilderTest {
 		assertEquals("SELECT [columns] FROM [Test] WITH (NOLOCK) WHERE conditions ORDER BY [ob] ASC OFFSET 100 ROWS FETCH NEXT 200 ROWS ONLY", qb.build());
 		assertEquals("SELECT [columns] FROM [Test_0] WITH (NOLOCK) WHERE conditions ORDER BY [ob] ASC OFFSET 100 ROWS FETCH NEXT 200 ROWS ONLY", qb.build("_0"));
 	}
+
+	@Test
+	public void testBuildRangePushdown() throws SQLException {
+		BaseTableSelectBuilder qb;
+		
+		qb = new BaseTableSelectBuilder("Test", DatabaseCategory.MySql);
+		qb.select("columns").where("conditions").orderBy("ob", true).range(100,  200);
+		qb.pushdownToShards();
+		assertEquals("SELECT `columns` FROM `Test` WHERE conditions ORDER BY `ob` ASC LIMIT 300", qb.build());
+		assertEquals("SELECT `columns` FROM `Test_0` WHERE conditions ORDER BY `ob` ASC LIMIT 300", qb.build("_0"));
+
+		qb = new BaseTableSelectBuilder("Test", DatabaseCategory.SqlServer);
+		qb.select("columns").where("conditions").orderBy("ob", true).range(100,  200);
+		qb.pushdownToShards();
+		assertEquals("SELECT TOP 300 [columns] FROM [Test] WITH (NOLOCK) WHERE conditions ORDER BY [ob] ASC", qb.build());
+		assertEquals("SELECT TOP 300 [columns] FROM [Test_0] WITH (NOLOCK) WHERE conditions ORDER BY [ob] ASC", qb.build("_0"));
+	}
+
+	@Test
+	public void testBuildAggregate() throws SQLException {
+		BaseTableSelectBuilder qb;
+		
+		qb = new BaseTableSelectBuilder("Test", DatabaseCategory.MySql);
+		qb.where("conditions").groupBy("city").orderBy("city", true).range(10, 20).aggregate(
+				AggregateColumn.sum("age", "total"), AggregateColumn.avg("age", "average"), AggregateColumn.countDistinct("name", "names"));
+		assertEquals("SELECT `city`, SUM(`age`) AS `total`, AVG(`age`) AS `average`, COUNT(DISTINCT `name`) AS `names` FROM `Test` WHERE conditions GROUP BY `city` ORDER BY `city` ASC LIMIT 10, 20", qb.build());
+		
+		qb.pushdownToShards();
+		assertEquals("SELECT `city`, `name`, SUM(`age`) AS `total`, SUM(`age`) AS `average__SUM`, COUNT(`age`) AS `average__COUNT` FROM `Test_0` WHERE conditions GROUP BY `city`, `name`", qb.build("_0"));
+	}
 }
@@ -0,0 +1,77 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.AbstractIntArrayBulkTask;
+import com.ctrip.platform.dal.dao.task.BulkTaskContext;
+
+public class AbstractIntArrayBulkTaskTest {
+	private static class TestTask extends AbstractIntArrayBulkTask<ClientTestModel> {
+		private TestTask() {
+			parser = new ClientTestDalParser("dao_test");
+		}
+
+		@Override
+		public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled, BulkTaskContext<ClientTestModel> taskContext) throws SQLException {
+			return null;
+		}
+
+		private String key(Object id) {
+			Map<String, Object> fields = new HashMap<>();
+			fields.put("id", id);
+			return getPrimaryKeyString(fields);
+		}
+
+		private int[] count(List<String> keys, Object...ids) {
+			Map<Integer, Map<String, ?>> pojos = new LinkedHashMap<>();
+			for(Object id: ids) {
+				Map<String, Object> fields = new HashMap<>();
+				fields.put("id", id);
+				pojos.put(pojos.size(), fields);
+			}
+			return getAffectedCounts(keys, pojos);
+		}
+	}
+
+	@Test
+	public void testDuplicateKeys() {
+		TestTask test = new TestTask();
+		List<String> keys = new ArrayList<>();
+		keys.add(test.key(1));
+		keys.add(test.key(3));
+
+		// Only the first pojo of the same key is affected
+		assertArrayEquals(new int[]{1, 0, 0, 1, 0}, test.count(keys, 1, 1, 2, 3, 3));
+	}
+
+	@Test
+	public void testNormalizedKeys() {
+		TestTask test = new TestTask();
+		assertEquals(test.key(1), test.key(1L));
+		assertEquals(test.key(1), test.key(new BigDecimal("1.00")));
+		assertEquals(test.key(new BigDecimal("0")), test.key(new BigDecimal("0.000")));
+		assertEquals(test.key(new BigDecimal("1.5")), test.key(1.5d));
+
+		long time = System.currentTimeMillis();
+		assertEquals(test.key(new Date(time)), test.key(new Timestamp(time)));
+		assertEquals(test.key(new Date(-1)), test.key(new Timestamp(-1)));
+
+		Timestamp precise = new Timestamp(time);
+		precise.setNanos(precise.getNanos() + 1);
+		assertEquals(false, test.key(new Date(time)).equals(test.key(precise)));
+	}
+}
@@ -0,0 +1,57 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.task.AdaptiveExecutionPolicy;
+
+public class AdaptiveExecutionPolicyTest {
+	private static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+	
+	@Test
+	public void testUnknown() {
+		AdaptiveExecutionPolicy test = new AdaptiveExecutionPolicy(1000);
+		assertEquals(-1, test.getLatency("sql"));
+		assertFalse(test.isSequential("sql", 2));
+		assertFalse(test.isSequential(null, 2));
+	}
+
+	@Test
+	public void testByShardCount() {
+		AdaptiveExecutionPolicy test = new AdaptiveExecutionPolicy(1000);
+		test.record("sql", 300 * MICROS);
+		assertEquals(300 * MICROS, test.getLatency("sql"));
+		
+		assertTrue(test.isSequential("sql", 2));
+		assertTrue(test.isSequential("sql", 4));
+		assertFalse(test.isSequential("sql", 5));
+	}
+
+	@Test
+	public void testMovingAverage() {
+		AdaptiveExecutionPolicy test = new AdaptiveExecutionPolicy(1000);
+		test.record("sql", 100 * MICROS);
+		assertTrue(test.isSequential("sql", 2));
+		
+		for(int i = 0; i < 20; i++)
+			test.record("sql", 10000 * MICROS);
+		assertFalse(test.isSequential("sql", 2));
+		
+		for(int i = 0; i < 30; i++)
+			test.record("sql", 100 * MICROS);
+		assertTrue(test.isSequential("sql", 2));
+	}
+
+	@Test
+	public void testDisabled() {
+		AdaptiveExecutionPolicy test = new AdaptiveExecutionPolicy(0);
+		test.record("sql", 1);
+		assertEquals(-1, test.getLatency("sql"));
+		assertFalse(test.isSequential("sql", 2));
+	}
+}
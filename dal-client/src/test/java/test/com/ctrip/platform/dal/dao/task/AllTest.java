@@ -44,6 +44,12 @@ import org.junit.runners.Suite.SuiteClasses;
 	DalBulkTaskRequestTest.class,
 	DalSingleTaskRequestTest.class,
 	DalSqlTaskRequestTest.class,
+	DalThreadPoolExecutorTest.class,
+	AdaptiveExecutionPolicyTest.class,
+	SqlTemplateCacheTest.class,
+	BulkTaskChunkPolicyTest.class,
+	InsertPlannerTest.class,
+	AbstractIntArrayBulkTaskTest.class,
 })
 public class AllTest {
 
@@ -1,9 +1,18 @@
 package test.com.ctrip.platform.dal.dao.task;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.BatchDeleteTask;
 
 public class BatchDeleteTaskSqlSvrTest extends BatchDeleteTaskTestStub {
 	public BatchDeleteTaskSqlSvrTest() {
@@ -29,4 +38,19 @@ public class BatchDeleteTaskSqlSvrTest extends BatchDeleteTaskTestStub {
 	public void tearDown() throws Exception {
 		SqlServerTestInitializer.tearDown();
 	}
+	
+	@Test
+	public void testExecuteByTableValuedParameter() throws Exception {
+		BatchDeleteTask<ClientTestModel> test = new BatchDeleteTask<>();
+		test.initialize(getParser());
+		DalHints hints = new DalHints().tableValuedParameter(SqlServerTestInitializer.TABLE_TYPE_NAME);
+		
+		Map<Integer, Map<String, ?>> pojos = getAllMap();
+		int[] result = test.execute(hints, pojos, null);
+		assertArrayEquals(new int[]{1, 1, 1}, result);
+		assertEquals(0, getCount());
+		
+		result = test.execute(hints, pojos, null);
+		assertArrayEquals(new int[]{0, 0, 0}, result);
+	}
 }
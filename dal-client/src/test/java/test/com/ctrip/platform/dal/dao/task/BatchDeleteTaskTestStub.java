@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.junit.Test;
@@ -41,6 +42,24 @@ public class BatchDeleteTaskTestStub extends TaskTestStub {
 		}
 	}
 	
+	@Test
+	public void testExecuteByInList() throws SQLException {
+		BatchDeleteTask<ClientTestModel> test = new BatchDeleteTask<>();
+		test.initialize(getParser());
+		DalHints hints = new DalHints().deleteByInList(2);
+		
+		Map<Integer, Map<String, ?>> pojos = new LinkedHashMap<>(getAllMap());
+		// Same key as the first pojo
+		pojos.put(pojos.size(), pojos.get(0));
+		
+		int[] result = test.execute(hints, pojos, null);
+		assertArrayEquals(new int[]{1, 1, 1, 0}, result);
+		assertEquals(0, getCount());
+		
+		result = test.execute(hints, pojos, null);
+		assertArrayEquals(new int[]{0, 0, 0, 0}, result);
+	}
+	
 	@Test
 	public void testCreateMerger() {
 		BatchDeleteTask<ClientTestModel> test = new BatchDeleteTask<>();
@@ -1,9 +1,19 @@
 package test.com.ctrip.platform.dal.dao.task;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.task.BatchUpdateTask;
+import com.ctrip.platform.dal.dao.task.BulkTaskContext;
 
 public class BatchUpdateTaskSqlSvrTest extends BatchUpdateTaskTestStub {
 	public BatchUpdateTaskSqlSvrTest() {
@@ -29,4 +39,26 @@ public class BatchUpdateTaskSqlSvrTest extends BatchUpdateTaskTestStub {
 	public void tearDown() throws Exception {
 		SqlServerTestInitializer.tearDown();
 	}
+	
+	@Test
+	public void testExecuteByTableValuedParameter() throws Exception {
+		BatchUpdateTask<ClientTestModel> test = new BatchUpdateTask<>();
+		test.initialize(getParser());
+		DalHints hints = new DalHints().tableValuedParameter(SqlServerTestInitializer.TABLE_TYPE_NAME);
+		
+		List<ClientTestModel> pojos = getAll();
+		for(ClientTestModel model: pojos)
+			model.setAddress("1122334455");
+		
+		BulkTaskContext<ClientTestModel> taskContext = test.createTaskContext(hints, test.getPojosFields(pojos), pojos);
+		int[] result = test.execute(hints, test.getPojosFieldsMap(pojos), taskContext);
+		assertArrayEquals(new int[]{1, 1, 1}, result);
+		
+		for(ClientTestModel model: getAll())
+			assertEquals("1122334455", model.getAddress());
+		
+		SqlServerTestInitializer.tearDown();
+		result = test.execute(hints, test.getPojosFieldsMap(pojos), taskContext);
+		assertArrayEquals(new int[]{0, 0, 0}, result);
+	}
 }
@@ -0,0 +1,75 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.task.BulkTaskChunkPolicy;
+
+public class BulkTaskChunkPolicyTest {
+	private Map<Integer, Map<String, ?>> createPojos(int count, String value) {
+		Map<Integer, Map<String, ?>> pojos = new LinkedHashMap<>();
+		for(int i = 0; i < count; i++) {
+			Map<String, Object> pojo = new HashMap<>();
+			pojo.put("id", i);
+			pojo.put("name", value);
+			pojos.put(i, pojo);
+		}
+		return pojos;
+	}
+
+	@Test
+	public void testNoLimit() {
+		List<Map<Integer, Map<String, ?>>> chunks = new BulkTaskChunkPolicy(0, 0, 0).split(createPojos(10, "a"));
+		assertEquals(1, chunks.size());
+		assertEquals(10, chunks.get(0).size());
+	}
+
+	@Test
+	public void testByRows() {
+		List<Map<Integer, Map<String, ?>>> chunks = new BulkTaskChunkPolicy(4, 0, 0).split(createPojos(10, "a"));
+		assertEquals(3, chunks.size());
+		assertEquals(4, chunks.get(0).size());
+		assertEquals(4, chunks.get(1).size());
+		assertEquals(2, chunks.get(2).size());
+		assertEquals(Integer.valueOf(4), chunks.get(1).keySet().iterator().next());
+	}
+
+	@Test
+	public void testByParameters() {
+		// 2 parameters each pojo
+		List<Map<Integer, Map<String, ?>>> chunks = new BulkTaskChunkPolicy(0, 7, 0).split(createPojos(10, "a"));
+		assertEquals(4, chunks.size());
+		assertEquals(3, chunks.get(0).size());
+		assertEquals(1, chunks.get(3).size());
+	}
+
+	@Test
+	public void testByBytes() {
+		// 16 + 4 for id, 10 + 4 for name
+		long pojoBytes = BulkTaskChunkPolicy.estimateBytes(createPojos(1, "abcdefghij").get(0));
+		assertEquals(34, pojoBytes);
+
+		List<Map<Integer, Map<String, ?>>> chunks = new BulkTaskChunkPolicy(0, 0, pojoBytes * 5).split(createPojos(10, "abcdefghij"));
+		assertEquals(2, chunks.size());
+		assertEquals(5, chunks.get(0).size());
+
+		// Pojo larger than the limit makes a chunk of its own
+		chunks = new BulkTaskChunkPolicy(0, 0, 10).split(createPojos(3, "abcdefghij"));
+		assertEquals(3, chunks.size());
+	}
+
+	@Test
+	public void testEstimateBytes() {
+		assertEquals(0, BulkTaskChunkPolicy.estimateBytes((Object)null));
+		assertEquals(3, BulkTaskChunkPolicy.estimateBytes(new byte[3]));
+		assertEquals(3, BulkTaskChunkPolicy.estimateBytes("abc"));
+		assertEquals(6, BulkTaskChunkPolicy.estimateBytes("中文"));
+		assertEquals(16, BulkTaskChunkPolicy.estimateBytes(1L));
+	}
+}
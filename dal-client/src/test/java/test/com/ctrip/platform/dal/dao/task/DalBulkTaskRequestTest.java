@@ -8,16 +8,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import com.ctrip.platform.dal.dao.DalClientFactory;
 import com.ctrip.platform.dal.dao.DalHints;
 import com.ctrip.platform.dal.dao.DalParser;
+import com.ctrip.platform.dal.dao.KeyHolder;
 import com.ctrip.platform.dal.dao.task.BulkTask;
 import com.ctrip.platform.dal.dao.task.BulkTaskContext;
 import com.ctrip.platform.dal.dao.task.BulkTaskResultMerger;
 import com.ctrip.platform.dal.dao.task.DalBulkTaskRequest;
+import com.ctrip.platform.dal.dao.task.ShardedIntArrayResultMerger;
 import com.ctrip.platform.dal.dao.task.ShardedIntResultMerger;
 
 public class DalBulkTaskRequestTest {
@@ -29,6 +32,7 @@ public class DalBulkTaskRequestTest {
 	}
 	
 	private class TestBulkTask implements BulkTask<Integer, TestPojo> {
+		AtomicInteger executeCount = new AtomicInteger();
 
 		@Override
 		public void initialize(DalParser<TestPojo> parser) {
@@ -52,6 +56,7 @@ public class DalBulkTaskRequestTest {
 
 		@Override
 		public Integer execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled, BulkTaskContext<TestPojo> ctx) throws SQLException {
+			executeCount.incrementAndGet();
 			return shaffled.size();
 		}
 
@@ -68,6 +73,51 @@ public class DalBulkTaskRequestTest {
 		}
 	}
 
+	private class TestIntArrayBulkTask implements BulkTask<int[], TestPojo> {
+		TestBulkTask pojoTask = new TestBulkTask();
+		
+		@Override
+		public void initialize(DalParser<TestPojo> parser) {
+		}
+
+		@Override
+		public List<Map<String, ?>> getPojosFields(List<TestPojo> daoPojos) {
+			return pojoTask.getPojosFields(daoPojos);
+		}
+
+		@Override
+		public int[] getEmptyValue() {
+			return new int[0];
+		}
+
+		@Override
+		public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled, BulkTaskContext<TestPojo> ctx) throws SQLException {
+			pojoTask.executeCount.incrementAndGet();
+			int[] result = new int[shaffled.size()];
+			int i = 0;
+			for(Map<String, ?> pojo: shaffled.values())
+				result[i++] = (Integer)pojo.get("index");
+			
+			try {
+				Thread.sleep(10 * result[0] % 30);
+			} catch (InterruptedException e) {
+			}
+			return result;
+		}
+
+		@Override
+		public BulkTaskResultMerger<int[]> createMerger() {
+			return new ShardedIntArrayResultMerger();
+		}
+
+		@Override
+		public BulkTaskContext<TestPojo> createTaskContext(DalHints hints,
+				List<Map<String, ?>> daoPojos, List<TestPojo> rawPojos)
+				throws SQLException {
+			return new BulkTaskContext(rawPojos);
+		}
+	}
+
 	static{
 		try {
 			DalClientFactory.initClientFactory();
@@ -214,6 +264,81 @@ public class DalBulkTaskRequestTest {
 		}
 	}
 
+	@Test
+	public void testChunks() throws Exception {
+		List<TestPojo> pojos = new ArrayList<TestPojo>();
+		for(int i = 0; i < 5; i++)
+			pojos.add(new TestPojo(i));
+		
+		TestBulkTask bulkTask = new TestBulkTask();
+		DalBulkTaskRequest<Integer, TestPojo> test = new DalBulkTaskRequest<>("dao_test_sqlsvr", "", new DalHints().chunkBy(2, 0, 0), pojos, bulkTask);
+		test.validate();
+		test.isCrossShard();
+		assertEquals(5, test.createTask().call().intValue());
+		assertEquals(3, bulkTask.executeCount.get());
+		
+		// Limited by parameters, each pojo has one field 
+		bulkTask = new TestBulkTask();
+		test = new DalBulkTaskRequest<>("dao_test_sqlsvr", "", new DalHints().chunkBy(0, 4, 0), pojos, bulkTask);
+		test.validate();
+		test.isCrossShard();
+		assertEquals(5, test.createTask().call().intValue());
+		assertEquals(2, bulkTask.executeCount.get());
+	}
+
+	@Test
+	public void testPipelinedChunks() throws Exception {
+		List<TestPojo> pojos = new ArrayList<TestPojo>();
+		for(int i = 0; i < 10; i++)
+			pojos.add(new TestPojo(i));
+		
+		TestIntArrayBulkTask bulkTask = new TestIntArrayBulkTask();
+		DalBulkTaskRequest<int[], TestPojo> test = new DalBulkTaskRequest<>("dao_test_sqlsvr", "", new DalHints().chunkBy(3, 0, 0).pipelineChunks(2), pojos, bulkTask);
+		test.validate();
+		test.isCrossShard();
+		int[] result = test.createTask().call();
+		
+		assertEquals(4, bulkTask.pojoTask.executeCount.get());
+		assertEquals(10, result.length);
+		for(int i = 0; i < 10; i++)
+			assertEquals(i, result[i]);
+	}
+
+	@Test
+	public void testChunksWithKeyHolder() throws Exception {
+		List<TestPojo> pojos = new ArrayList<TestPojo>();
+		for(int i = 0; i < 5; i++)
+			pojos.add(new TestPojo(i));
+		
+		// Generate key of index * 10 for each pojo
+		TestIntArrayBulkTask bulkTask = new TestIntArrayBulkTask() {
+			@Override
+			public int[] execute(DalHints hints, Map<Integer, Map<String, ?>> shaffled, BulkTaskContext<TestPojo> ctx) throws SQLException {
+				int[] result = super.execute(hints, shaffled, ctx);
+				for(int index: result) {
+					Map<String, Object> key = new HashMap<String, Object>();
+					key.put("id", index * 10);
+					hints.getKeyHolder().getKeyList().add(key);
+				}
+				return result;
+			}
+		};
+		
+		KeyHolder keyHolder = new KeyHolder();
+		keyHolder.setSize(pojos.size());
+		DalHints hints = new DalHints().chunkBy(2, 0, 0).pipelineChunks(3).setKeyHolder(keyHolder);
+		DalBulkTaskRequest<int[], TestPojo> test = new DalBulkTaskRequest<>("dao_test_sqlsvr", "", hints, pojos, bulkTask);
+		test.validate();
+		test.isCrossShard();
+		test.createTask().call();
+		
+		assertEquals(3, bulkTask.pojoTask.executeCount.get());
+		assertTrue(keyHolder.isMerged());
+		assertEquals(5, keyHolder.getKeyList().size());
+		for(int i = 0; i < 5; i++)
+			assertEquals(i * 10, keyHolder.getKey(i).intValue());
+	}
+
 	@Test
 	public void testGetMerger() {
 		DalBulkTaskRequest<Integer, TestPojo> test = null;
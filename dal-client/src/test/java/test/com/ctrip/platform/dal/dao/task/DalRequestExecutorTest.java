@@ -1,24 +1,39 @@
 package test.com.ctrip.platform.dal.dao.task;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.junit.AfterClass;
 import org.junit.Test;
 
+import com.ctrip.platform.dal.dao.DalFuture;
+import com.ctrip.platform.dal.dao.DalHintEnum;
 import com.ctrip.platform.dal.dao.DalHints;
+import com.ctrip.platform.dal.dao.PartialResultStatus;
 import com.ctrip.platform.dal.dao.ResultMerger;
+import com.ctrip.platform.dal.dao.helper.DalFirstResultMerger;
 import com.ctrip.platform.dal.dao.helper.DefaultResultCallback;
 import com.ctrip.platform.dal.dao.task.DalRequest;
 import com.ctrip.platform.dal.dao.task.DalRequestExecutor;
+import com.ctrip.platform.dal.exceptions.ErrorCode;
 
 public class DalRequestExecutorTest {
 	private class TestDalRequest implements DalRequest<Integer> {
@@ -30,6 +45,16 @@ public class DalRequestExecutorTest {
 			this.values = values;
 		}
 		
+		@Override
+		public String getLogicDbName() {
+			return null;
+		}
+
+		@Override
+		public String getIdentity() {
+			return getClass().getName();
+		}
+
 		@Override
 		public void validate() throws SQLException {
 			if(e!= null)
@@ -72,6 +97,89 @@ public class DalRequestExecutorTest {
 		}
 	}
 	
+	private class SlowDalRequest extends TestDalRequest {
+		private long delay;
+		
+		private SlowDalRequest(Integer[] values, long delay) {
+			super(null, values);
+			this.delay = delay;
+		}
+		
+		@Override
+		public Map<String, Callable<Integer>> createTasks() throws SQLException {
+			Map<String, Callable<Integer>> tasks = super.createTasks();
+			final Callable<Integer> task = tasks.get("1");
+			tasks.put("1", new Callable<Integer>() {
+				public Integer call() throws Exception {
+					Thread.sleep(delay);
+					return task.call();
+				}
+			});
+			return tasks;
+		}
+	}
+	
+	private class OrderRecordingRequest extends SlowDalRequest {
+		private List<String> order = new ArrayList<>();
+		
+		private OrderRecordingRequest(Integer[] values, long delay) {
+			super(values, delay);
+		}
+		
+		@Override
+		public ResultMerger<Integer> getMerger() {
+			return new ResultMerger.IntSummary() {
+				public void addPartial(String shard, Integer partial) {
+					order.add(shard);
+					super.addPartial(shard, partial);
+				}
+			};
+		}
+	}
+	
+	private class FirstWinsRequest extends SlowDalRequest {
+		private FirstWinsRequest(Integer[] values, long delay) {
+			super(values, delay);
+		}
+		
+		@Override
+		public ResultMerger<Integer> getMerger() {
+			return new DalFirstResultMerger<>();
+		}
+	}
+	
+	private class ThreadRecordingRequest extends TestDalRequest {
+		private Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+		private long delay;
+		
+		private ThreadRecordingRequest(Integer[] values, long delay) {
+			super(null, values);
+			this.delay = delay;
+		}
+		
+		@Override
+		public String getIdentity() {
+			return getClass().getName() + delay;
+		}
+		
+		@Override
+		public Map<String, Callable<Integer>> createTasks() throws SQLException {
+			Map<String, Callable<Integer>> tasks = super.createTasks();
+			for(final Map.Entry<String, Callable<Integer>> entry: tasks.entrySet()) {
+				final Callable<Integer> task = entry.getValue();
+				entry.setValue(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						threads.add(Thread.currentThread());
+						if(delay > 0)
+							Thread.sleep(delay);
+						return task.call();
+					}
+				});
+			}
+			return tasks;
+		}
+	}
+	
 	@AfterClass
 	public static void testShutdownAsyncTaskExecutor() {
 		try{
@@ -141,6 +249,169 @@ public class DalRequestExecutorTest {
 		}
 	}
 
+	@Test
+	public void testExecuteCrossShardTimeout() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2}, 5000);
+		DalHints hints = new DalHints().requestTimeout(200);
+		
+		long start = System.currentTimeMillis();
+		try {
+			test.execute(hints, request);
+			fail();
+		} catch (SQLException e) {
+			assertEquals(ErrorCode.RequestTimeout.getCode(), e.getErrorCode());
+			assertTrue(e.getMessage().contains("[1]"));
+		}
+		assertTrue(System.currentTimeMillis() - start < 2000);
+		// Deadline is applied to the statements of the tasks, not the hints of caller
+		assertNull(hints.getInt(DalHintEnum.timeout));
+	}
+
+	@Test
+	public void testDeadlineCapsStatementTimeout() throws Exception {
+		DalRequestExecutor test = new DalRequestExecutor();
+		final List<Integer> timeouts = Collections.synchronizedList(new ArrayList<Integer>());
+		TestDalRequest request = new TestDalRequest(null, new Integer[]{1, 2}) {
+			@Override
+			public Map<String, Callable<Integer>> createTasks() throws SQLException {
+				Map<String, Callable<Integer>> tasks = new HashMap<>();
+				for(final String shard: new String[]{"0", "1"}) {
+					tasks.put(shard, new Callable<Integer>() {
+						public Integer call() throws Exception {
+							timeouts.add(DalRequestExecutor.capTimeout(shard.equals("0") ? null : 60));
+							return 1;
+						}
+					});
+				}
+				return tasks;
+			}
+		};
+		DalHints hints = new DalHints().requestTimeout(1500).timeout(60);
+		
+		assertEquals(2, test.execute(hints, request).intValue());
+		assertEquals(2, timeouts.size());
+		for(Integer timeout: timeouts)
+			assertTrue(timeout >= 1 && timeout <= 2);
+		assertEquals(60, hints.getInt(DalHintEnum.timeout).intValue());
+		
+		// No deadline outside of the request
+		assertNull(DalRequestExecutor.capTimeout(null));
+		assertEquals(60, DalRequestExecutor.capTimeout(60).intValue());
+	}
+
+	@Test
+	public void testExecuteCrossShardTimeoutContinueOnError() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2}, 5000);
+		DalHints hints = new DalHints().requestTimeout(200).continueOnError();
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(1, result.intValue());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardPartialResult() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		SlowDalRequest request = new SlowDalRequest(new Integer[]{1, 2, 3}, 5000);
+		DalHints hints = new DalHints().partialResult(200);
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(4, result.intValue());
+			PartialResultStatus status = hints.getPartialResultStatus();
+			assertTrue(status.isPartial());
+			assertEquals(2, status.getCompletedShards().size());
+			assertTrue(status.getMissingShards().contains("1"));
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardInCompletionOrder() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		OrderRecordingRequest request = new OrderRecordingRequest(new Integer[]{1, 2, 3}, 300);
+		DalHints hints = new DalHints().parallelExecute();
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(6, result.intValue());
+			assertEquals(3, request.order.size());
+			assertEquals("1", request.order.get(2));
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteCrossShardFirstWins() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		FirstWinsRequest request = new FirstWinsRequest(new Integer[]{1, 2}, 5000);
+		DalHints hints = new DalHints().parallelExecute();
+		
+		long start = System.currentTimeMillis();
+		try {
+			Integer result = test.execute(hints, request);
+			assertEquals(1, result.intValue());
+			PartialResultStatus status = hints.getPartialResultStatus();
+			assertFalse(status.isPartial());
+			assertTrue(status.getSkippedShards().contains("1"));
+		} catch (Exception e) {
+			fail();
+		}
+		assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+
+	@Test
+	public void testExecuteSequentialFirstWins() {
+		DalRequestExecutor test = new DalRequestExecutor();
+		FirstWinsRequest request = new FirstWinsRequest(new Integer[]{1, 2, 3}, 5000);
+		DalHints hints = new DalHints().sequentialExecute();
+		
+		try {
+			Integer result = test.execute(hints, request);
+			assertNotNull(result);
+			assertEquals(2, hints.getPartialResultStatus().getSkippedShards().size());
+		} catch (Exception e) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testExecuteAdaptive() throws SQLException {
+		DalRequestExecutor test = new DalRequestExecutor();
+		
+		// Unknown request is executed in parallel
+		ThreadRecordingRequest request = new ThreadRecordingRequest(new Integer[]{1, 2, 3}, 0);
+		assertEquals(6, test.execute(new DalHints(), request).intValue());
+		assertFalse(request.threads.contains(Thread.currentThread()));
+		
+		// Cheap request is executed in caller thread, once the cost of warming up is averaged out
+		for(int i = 0; i < 20; i++) {
+			request = new ThreadRecordingRequest(new Integer[]{1, 2, 3}, 0);
+			assertEquals(6, test.execute(new DalHints(), request).intValue());
+		}
+		assertEquals(1, request.threads.size());
+		assertTrue(request.threads.contains(Thread.currentThread()));
+		
+		// Unless it is required to be parallel
+		request = new ThreadRecordingRequest(new Integer[]{1, 2, 3}, 0);
+		assertEquals(6, test.execute(new DalHints().parallelExecute(), request).intValue());
+		assertFalse(request.threads.contains(Thread.currentThread()));
+
+		// Expensive request is always executed in parallel
+		for(int i = 0; i < 2; i++) {
+			request = new ThreadRecordingRequest(new Integer[]{1, 2, 3}, 50);
+			assertEquals(6, test.execute(new DalHints(), request).intValue());
+			assertFalse(request.threads.contains(Thread.currentThread()));
+		}
+	}
+
 	@Test
 	public void testExecuteNullable() {
 		DalRequestExecutor test = new DalRequestExecutor();
@@ -177,4 +448,93 @@ public class DalRequestExecutorTest {
 			fail();
 		}
 	}
+
+	@Test
+	public void testExecuteFuture() throws Exception {
+		DalRequestExecutor test = new DalRequestExecutor();
+		TestDalRequest request = new TestDalRequest(null, new Integer[]{1, 2, 3});
+		DefaultResultCallback existing = new DefaultResultCallback();
+		DalHints hints = new DalHints().callbackWith(existing);
+		
+		DalFuture<Integer> future = new DalFuture<>(hints);
+		assertNull(test.execute(future.getHints(), request));
+		assertEquals(6, future.start().get().intValue());
+		assertTrue(future.isDone());
+		assertFalse(future.isCancelled());
+		
+		// Callbacks are notified after the future is done
+		existing.waitForDone(1000);
+		assertEquals(6, ((Integer)existing.getResult()).intValue());
+		
+		// Original hints are not changed
+		assertNull(hints.getAsyncResult());
+		
+		// Callback added after completion is called at once
+		DefaultResultCallback callback = new DefaultResultCallback();
+		future.addCallback(callback);
+		assertTrue(callback.isDone());
+		assertEquals(6, ((Integer)callback.getResult()).intValue());
+	}
+
+	@Test
+	public void testFutureCancelWhileCompleting() throws Exception {
+		final DalFuture<Integer> future = new DalFuture<>(new DalHints());
+		DefaultResultCallback callback = new DefaultResultCallback();
+		future.addCallback(callback);
+		
+		// The request completes in executor thread while it is being cancelled
+		future.getHints().set(DalHintEnum.futureResult, new FutureTask<Integer>(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				return 1;
+			}
+		}) {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				Thread executor = new Thread() {
+					public void run() {
+						future.onResult(1);
+					}
+				};
+				executor.start();
+				try {
+					executor.join(200);
+				} catch (InterruptedException e) {
+				}
+				return super.cancel(mayInterruptIfRunning);
+			}
+		});
+		
+		assertTrue(future.start().cancel(true));
+		assertTrue(future.isCancelled());
+		try {
+			future.get();
+			fail();
+		} catch (CancellationException e) {
+		}
+		
+		callback.waitForDone(1000);
+		assertFalse(callback.isSuccess());
+		assertTrue(callback.getError() instanceof CancellationException);
+	}
+
+	@Test
+	public void testExecuteFutureError() throws Exception {
+		DalRequestExecutor test = new DalRequestExecutor();
+		TestDalRequest request = new TestDalRequest(new SQLException("Test"), null);
+		DefaultResultCallback callback = new DefaultResultCallback();
+		
+		DalFuture<Integer> future = new DalFuture<>(new DalHints());
+		test.execute(future.getHints(), request);
+		future.start().addCallback(callback);
+		try {
+			future.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertNotNull(e.getCause());
+		}
+		
+		callback.waitForDone(1000);
+		assertFalse(callback.isSuccess());
+	}
 }
@@ -51,6 +51,7 @@ public class DalSqlTaskRequestTest {
 	private class TestSqlBuilder implements SqlBuilder {
 		String sql;
 		StatementParameters p;
+		int buildCount;
 		TestSqlBuilder(String sql, StatementParameters p) {
 			this.sql = sql;
 			this.p = p;
@@ -64,6 +65,7 @@ public class DalSqlTaskRequestTest {
 		}
 		@Override
 		public String build() {
+			buildCount++;
 			return sql;
 		}
 
@@ -144,6 +146,19 @@ public class DalSqlTaskRequestTest {
 		assertNotNull(test.getMerger());			
 	}
 
+	@Test
+	public void testGetIdentity() throws SQLException {
+		DalHints hints = new DalHints().inAllShards();
+		TestSqlBuilder builder = new TestSqlBuilder("select 1", new StatementParameters());
+		DalSqlTaskRequest<Integer> test = new DalSqlTaskRequest<>("dao_test_sqlsvr_dbShard", builder, hints, new TestSqlTask(1), new ResultMerger.IntSummary());
+		test.createTasks();
+		int buildCount = builder.buildCount;
+		
+		// Identity reuses the sql built for the tasks
+		assertEquals("dao_test_sqlsvr_dbShard:select 1", test.getIdentity());
+		assertEquals(buildCount, builder.buildCount);
+	}
+	
 	@Test
 	public void testCreateTasksInShards() {
 		DalSqlTaskRequest<Integer> test = null;
@@ -0,0 +1,146 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.task.DalThreadPoolExecutor;
+
+public class DalThreadPoolExecutorTest {
+	private Runnable blockOn(final CountDownLatch latch) {
+		return new Runnable() {
+			public void run() {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+	}
+
+	@Test
+	public void testGrowToMaxBeforeQueue() throws Exception {
+		DalThreadPoolExecutor pool = new DalThreadPoolExecutor("test", 3, 10, DalThreadPoolExecutor.ABORT);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			for(int i = 0; i < 5; i++)
+				pool.execute(blockOn(latch));
+
+			assertEquals(3, pool.getPoolSize());
+			assertEquals(2, pool.getQueue().size());
+		} finally {
+			latch.countDown();
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void testAbortWhenSaturated() throws Exception {
+		DalThreadPoolExecutor pool = new DalThreadPoolExecutor("test", 1, 1, DalThreadPoolExecutor.ABORT);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			pool.execute(blockOn(latch));
+			pool.execute(blockOn(latch));
+			pool.execute(blockOn(latch));
+			fail();
+		} catch (RejectedExecutionException e) {
+			assertEquals(1, pool.getRejectedCount());
+		} finally {
+			latch.countDown();
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void testCallerRunsWhenSaturated() throws Exception {
+		DalThreadPoolExecutor pool = new DalThreadPoolExecutor("test", 1, 1, DalThreadPoolExecutor.CALLER_RUNS);
+		CountDownLatch latch = new CountDownLatch(1);
+		final Thread caller = Thread.currentThread();
+		final Thread[] executed = new Thread[1];
+		try {
+			pool.execute(blockOn(latch));
+			pool.execute(blockOn(latch));
+			pool.execute(new Runnable() {
+				public void run() {
+					executed[0] = Thread.currentThread();
+				}
+			});
+			assertEquals(caller, executed[0]);
+			assertEquals(1, pool.getRejectedCount());
+		} finally {
+			latch.countDown();
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void testResize() throws Exception {
+		DalThreadPoolExecutor pool = new DalThreadPoolExecutor("test", 2, 10, null);
+		assertEquals(DalThreadPoolExecutor.ABORT, pool.getRejectPolicy());
+
+		pool.resize(5);
+		assertEquals(5, pool.getCorePoolSize());
+		assertEquals(5, pool.getMaximumPoolSize());
+
+		pool.resize(1);
+		assertEquals(1, pool.getCorePoolSize());
+		assertEquals(1, pool.getMaximumPoolSize());
+		pool.shutdown();
+	}
+
+	@Test
+	public void testUnbounded() throws Exception {
+		DalThreadPoolExecutor pool = DalThreadPoolExecutor.unbounded("test", 0);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			assertTrue(pool.isUnbounded());
+			for(int i = 0; i < 100; i++)
+				pool.execute(blockOn(latch));
+
+			assertEquals(100, pool.getPoolSize());
+			assertEquals(0, pool.getQueue().size());
+			assertEquals(0, pool.getRejectedCount());
+		} finally {
+			latch.countDown();
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		}
+
+		try {
+			pool.resize(10);
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	public void testPermits() throws Exception {
+		DalThreadPoolExecutor pool = new DalThreadPoolExecutor("test", 2, 10, null);
+		assertFalse(pool.isUnbounded());
+		assertNull(pool.getPermits("db1"));
+		pool.shutdown();
+
+		pool = DalThreadPoolExecutor.unbounded("test", 2);
+		assertEquals(2, pool.getMaxConcurrency());
+		assertNull(pool.getPermits(null));
+		assertSame(pool.getPermits("db1"), pool.getPermits("db1"));
+		assertEquals(2, pool.getPermits("db1").availablePermits());
+
+		pool.getPermits("db1").acquire();
+		assertEquals(1, pool.getPermits("db1").availablePermits());
+		assertEquals(2, pool.getPermits("db2").availablePermits());
+		pool.shutdown();
+	}
+}
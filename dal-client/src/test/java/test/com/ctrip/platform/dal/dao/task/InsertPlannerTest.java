@@ -0,0 +1,98 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ctrip.platform.dal.common.enums.DatabaseCategory;
+import com.ctrip.platform.dal.dao.task.InsertPlanner;
+import com.ctrip.platform.dal.dao.task.InsertPlanner.Plan;
+import com.ctrip.platform.dal.dao.task.InsertPlanner.Strategy;
+
+public class InsertPlannerTest {
+	@Test
+	public void testOracle() {
+		InsertPlanner test = new InsertPlanner(DatabaseCategory.Oracle);
+		assertEquals(Strategy.BATCH, test.plan(100, 10, 100, false).getStrategy());
+		assertEquals(Strategy.SINGLE, test.plan(100, 10, 100, true).getStrategy());
+	}
+
+	@Test
+	public void testRequireKeys() {
+		InsertPlanner test = new InsertPlanner(DatabaseCategory.MySql);
+		test.record(Strategy.COMBINED, 1, 1000);
+		test.record(Strategy.BATCH, 1, 10);
+
+		Plan plan = test.plan(100, 10, 100, true);
+		assertEquals(Strategy.COMBINED, plan.getStrategy());
+		assertEquals(0, plan.getChunkRows());
+	}
+
+	@Test
+	public void testRequireKeysSqlServer() {
+		InsertPlanner test = new InsertPlanner(DatabaseCategory.SqlServer);
+		test.record(Strategy.COMBINED, 1, 10);
+		test.record(Strategy.BATCH, 1, 1000);
+
+		// Driver returns only the last identity of a combined insert
+		Plan plan = test.plan(100, 10, 100, true);
+		assertEquals(Strategy.SINGLE, plan.getStrategy());
+		assertEquals(0, plan.getChunkRows());
+		assertEquals(Strategy.COMBINED, test.plan(100, 10, 100, false).getStrategy());
+	}
+
+	@Test
+	public void testLimits() {
+		InsertPlanner test = new InsertPlanner(DatabaseCategory.SqlServer);
+		assertEquals(200, test.getMaxCombinedRows(10, 100));
+		assertEquals(1000, test.getMaxCombinedRows(1, 100));
+		assertEquals(Integer.MAX_VALUE, test.getMaxBatchRows(100));
+
+		Plan plan = test.plan(500, 10, 100, false);
+		assertEquals(200, plan.getChunkRows());
+		assertTrue(plan.toString().startsWith("combined insert of 500 rows in chunks of 200"));
+
+		test = new InsertPlanner(DatabaseCategory.MySql);
+		assertEquals(1024, test.getMaxCombinedRows(10, 1024));
+		assertEquals(6553, test.getMaxCombinedRows(10, 1));
+		assertEquals(1024, test.getMaxBatchRows(1024));
+	}
+
+	@Test
+	public void testByLatency() {
+		InsertPlanner test = new InsertPlanner(DatabaseCategory.MySql);
+
+		// Measure combined first
+		assertEquals(Strategy.COMBINED, test.plan(10, 10, 100, false).getStrategy());
+		test.record(Strategy.COMBINED, 10, 10000);
+		assertEquals(1000, test.getLatency(Strategy.COMBINED));
+
+		// Batch is explored once every interval
+		int batch = 0;
+		for(int i = 0; i < InsertPlanner.EXPLORE_INTERVAL; i++) {
+			if(test.plan(10, 10, 100, false).getStrategy() == Strategy.BATCH)
+				batch++;
+		}
+		assertEquals(1, batch);
+
+		test.record(Strategy.BATCH, 10, 5000);
+		assertEquals(Strategy.BATCH, test.plan(10, 10, 100, false).getStrategy());
+
+		// Moving average follows the change
+		for(int i = 0; i < 20; i++)
+			test.record(Strategy.BATCH, 10, 20000);
+		assertEquals(Strategy.COMBINED, test.plan(10, 10, 100, false).getStrategy());
+
+		// The slower is remeasured once every interval
+		batch = 0;
+		for(int i = 0; i < InsertPlanner.EXPLORE_INTERVAL; i++) {
+			Plan plan = test.plan(10, 10, 100, false);
+			if(plan.getStrategy() == Strategy.BATCH) {
+				batch++;
+				assertTrue(plan.toString().contains("remeasuring batch"));
+			}
+		}
+		assertEquals(1, batch);
+	}
+}
@@ -3,10 +3,12 @@ package test.com.ctrip.platform.dal.dao.task;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.ctrip.platform.dal.dao.PartialResultStatus;
 import com.ctrip.platform.dal.dao.task.ShardedIntArrayResultMerger;
 
 public class ShardedIntArrayResultMergerTest {
@@ -32,4 +34,25 @@ public class ShardedIntArrayResultMergerTest {
 		}
 	}
 
+	@Test
+	public void testMergePartial() {
+		ShardedIntArrayResultMerger test = new ShardedIntArrayResultMerger();
+		try {
+			test.recordPartial("1", new Integer[] {0, 2});
+			test.addPartial("1", new int[] {1, 1});
+			
+			test.recordPartial("2", new Integer[] {1, 3});
+			
+			PartialResultStatus status = new PartialResultStatus();
+			status.addCompleted("1");
+			status.addTimeout("2");
+			test.onPartialResult(status);
+			
+			int[] result = test.merge();
+			Assert.assertArrayEquals(new int[]{1, Statement.EXECUTE_FAILED, 1, Statement.EXECUTE_FAILED}, result);
+		} catch (SQLException e) {
+			fail();
+		}
+	}
+
 }
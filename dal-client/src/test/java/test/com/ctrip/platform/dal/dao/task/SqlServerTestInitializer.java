@@ -31,6 +31,21 @@ public class SqlServerTestInitializer {
 			+ "address varchar(64) not null,"
 			+ "last_changed datetime default getdate())";
 	
+	public final static String TABLE_TYPE_NAME = "dal_client_test_type";
+	
+	private final static String DROP_TABLE_TYPE_SQL_SQLSVR_TPL = "IF TYPE_ID('" + TABLE_TYPE_NAME + "') IS NOT NULL "
+			+ "DROP TYPE " + TABLE_TYPE_NAME;
+	
+	// Same columns as the table, all nullable
+	private final static String CREATE_TABLE_TYPE_SQL_SQLSVR_TPL = "CREATE TYPE " + TABLE_TYPE_NAME + " AS TABLE("
+			+ "Id int, "
+			+ "quantity int,"
+			+ "dbIndex int,"
+			+ "tableIndex int,"
+			+ "type smallint, "
+			+ "address varchar(64),"
+			+ "last_changed datetime)";
+	
 	private static DalClient clientSqlSvr;
 	
 	@BeforeClass
@@ -41,7 +56,7 @@ public class SqlServerTestInitializer {
 		String[] sqls = null;
 		// For SQL server
 		hints = new DalHints();
-		sqls = new String[] { DROP_TABLE_SQL_SQLSVR_TPL, CREATE_TABLE_SQL_SQLSVR_TPL};
+		sqls = new String[] { DROP_TABLE_SQL_SQLSVR_TPL, CREATE_TABLE_SQL_SQLSVR_TPL, DROP_TABLE_TYPE_SQL_SQLSVR_TPL, CREATE_TABLE_TYPE_SQL_SQLSVR_TPL};
 		clientSqlSvr.batchUpdate(sqls, hints);
 	}
 
@@ -53,6 +68,7 @@ public class SqlServerTestInitializer {
 		hints = new DalHints();
 		StatementParameters parameters = new StatementParameters();
 		clientSqlSvr.update(DROP_TABLE_SQL_SQLSVR_TPL, parameters, hints);
+		clientSqlSvr.update(DROP_TABLE_TYPE_SQL_SQLSVR_TPL, parameters, hints);
 	}
 
 	@Before
@@ -0,0 +1,83 @@
+package test.com.ctrip.platform.dal.dao.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ctrip.platform.dal.dao.DalClientFactory;
+import com.ctrip.platform.dal.dao.task.SqlTemplateCache;
+
+public class SqlTemplateCacheTest {
+	private static String prefix;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		DalClientFactory.initClientFactory();
+		prefix = "/*" + DalClientFactory.getDalLogger().getAppID() + "*/";
+	}
+
+	@Test
+	public void testGetPut() {
+		SqlTemplateCache test = new SqlTemplateCache();
+		assertNull(test.get("op", "t", new int[]{1, 2}, 0));
+
+		String sql = test.put("op", "t", new int[]{1, 2}, 0, "sql");
+		assertEquals(prefix + "sql", sql);
+		assertSame(sql, test.get("op", "t", new int[]{1, 2}, 0));
+
+		assertEquals(1, test.getHitCount());
+		assertEquals(1, test.getMissCount());
+		assertEquals(1, test.size());
+	}
+
+	@Test
+	public void testKey() {
+		SqlTemplateCache test = new SqlTemplateCache();
+		test.put("op", "t", new int[]{1, 2}, 0, "sql");
+		test.put("op", "t", null, 0, "no column");
+
+		assertNull(test.get("op", "t", new int[]{2, 1}, 0));
+		assertNull(test.get("op", "t", new int[]{1, 2}, 1));
+		assertNull(test.get("op", "t_1", new int[]{1, 2}, 0));
+		assertNull(test.get("op2", "t", new int[]{1, 2}, 0));
+		assertEquals(prefix + "no column", test.get("op", "t", null, 0));
+	}
+
+	@Test
+	public void testMaxSize() {
+		SqlTemplateCache test = new SqlTemplateCache(2, 10);
+		for(int i = 0; i < 3; i++)
+			assertEquals(prefix + "sql" + i, test.put("op", "t", null, i, "sql" + i));
+
+		// The least recently used is evicted
+		assertEquals(2, test.size());
+		assertNull(test.get("op", "t", null, 0));
+		assertEquals(prefix + "sql1", test.get("op", "t", null, 1));
+
+		test.put("op", "t", null, 3, "sql3");
+		assertEquals(prefix + "sql1", test.get("op", "t", null, 1));
+		assertNull(test.get("op", "t", null, 2));
+		assertEquals(prefix + "sql3", test.get("op", "t", null, 3));
+	}
+
+	@Test
+	public void testMaxRowCount() {
+		SqlTemplateCache test = new SqlTemplateCache(10, 2);
+		assertEquals(prefix + "sql2", test.put("op", "t", null, 2, "sql2"));
+		assertEquals(prefix + "sql3", test.put("op", "t", null, 3, "sql3"));
+
+		assertEquals(1, test.size());
+		assertEquals(prefix + "sql2", test.get("op", "t", null, 2));
+		assertNull(test.get("op", "t", null, 3));
+	}
+
+	@Test
+	public void testWrapAppId() {
+		String sql = SqlTemplateCache.wrapAppId("select 1");
+		assertEquals(prefix + "select 1", sql);
+		assertSame(sql, SqlTemplateCache.wrapAppId(sql));
+	}
+}
@@ -9,6 +9,7 @@ import static junit.framework.Assert.*;
 import org.junit.Test;
 
 import com.ctrip.platform.dal.dao.StatementParameters;
+import com.ctrip.platform.dal.dao.task.SQLCompiler;
 
 public class StatementParametersTest {
 	@Test
@@ -63,4 +64,45 @@ public class StatementParametersTest {
 		
 		assertEquals(5, test.size());
 	}
+	
+	@Test
+	public void testPadInParameters() {
+		StatementParameters test = new StatementParameters();
+		test.set(1, "name1", Types.INTEGER, 1);
+		List<Integer> values = new ArrayList<>();
+		values.add(1);
+		values.add(2);
+		values.add(3);
+		test.setInParameter(2, "name2", Types.INTEGER, values);
+		
+		test.padInParameters();
+		List<?> padded = test.get(1).getValue();
+		assertEquals(4, padded.size());
+		assertEquals(3, padded.get(3));
+		// Original list is not changed
+		assertEquals(3, values.size());
+		
+		test.compile();
+		assertEquals(5, test.size());
+		assertEquals(3, test.get(4).getValue());
+	}
+	
+	@Test
+	public void testPadInParametersLimit() {
+		StatementParameters test = new StatementParameters();
+		test.set(1, "name1", Types.INTEGER, 1);
+		List<Integer> values = new ArrayList<>();
+		for(int i = 0; i < 1100; i++)
+			values.add(i);
+		test.setInParameter(2, "name2", Types.INTEGER, values);
+		test.setInParameter(3, "name3", Types.INTEGER, new ArrayList<>(values.subList(0, 100)));
+		
+		// Padding the first list to 2048 makes 2149 parameters, beyond the limit of SQL Server
+		test.padInParameters(SQLCompiler.SQLSVR_MAX_PARAMETERS);
+		assertEquals(1100, ((List<?>)test.get(1).getValue()).size());
+		assertEquals(128, ((List<?>)test.get(2).getValue()).size());
+		
+		test.padInParameters(SQLCompiler.MYSQL_MAX_PARAMETERS);
+		assertEquals(2048, ((List<?>)test.get(1).getValue()).size());
+	}
 }